@@ -0,0 +1,104 @@
+package com.ssafy.webrtc.loadgen;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Command line options of the load generator, all in {@code --name value} form.
+ *
+ * @param roomSizes           weighted room sizes, e.g. {@code 2:60,3-4:30,5-8:10}
+ * @param connectRate         new connections opened per second
+ * @param iceCandidates       candidates trickled after each offer and answer
+ * @param iceInterval         pause between two trickled candidates
+ * @param duration            steady phase in which every client renegotiates periodically
+ * @param renegotiateInterval mean time between two renegotiations of one client
+ */
+record LoadConfig(URI url, int connections, RoomPlan.Distribution roomSizes, int connectRate, int iceCandidates,
+                  Duration iceInterval, Duration duration, Duration renegotiateInterval, Duration timeout,
+                  Path reportDir, long seed) {
+
+    static final String USAGE = """
+            Usage: loadgen [--name value]...
+              --url                   signaling endpoint (ws://localhost:8080/signal)
+              --connections           WebSocket connections to open (1000)
+              --room-sizes            weighted room sizes, size or min-max:weight (2:60,3-4:30,5-8:10)
+              --connect-rate          connections opened per second (500)
+              --ice-candidates        candidates trickled per offer/answer (8)
+              --ice-interval-ms       pause between candidates (10)
+              --duration-s            steady renegotiation phase (30)
+              --renegotiate-every-s   mean time between renegotiations per client (5)
+              --timeout-s             wait for handshakes, joins and replies (30)
+              --report-dir            where .hgrm histograms and summary.txt go (build/reports/loadgen)
+              --seed                  random seed for room sizes and timing (1)
+            """;
+
+    private static final Map<String, String> DEFAULTS = Map.ofEntries(
+            Map.entry("url", "ws://localhost:8080/signal"),
+            Map.entry("connections", "1000"),
+            Map.entry("room-sizes", "2:60,3-4:30,5-8:10"),
+            Map.entry("connect-rate", "500"),
+            Map.entry("ice-candidates", "8"),
+            Map.entry("ice-interval-ms", "10"),
+            Map.entry("duration-s", "30"),
+            Map.entry("renegotiate-every-s", "5"),
+            Map.entry("timeout-s", "30"),
+            Map.entry("report-dir", "build/reports/loadgen"),
+            Map.entry("seed", "1"));
+
+    /**
+     * @throws IllegalArgumentException for unknown options, missing values or values out of range
+     */
+    static LoadConfig parse(String... args) {
+        Map<String, String> options = new LinkedHashMap<>(DEFAULTS);
+        for (int i = 0; i < args.length; i += 2) {
+            String name = args[i].startsWith("--") ? args[i].substring(2) : null;
+            if (name == null || !DEFAULTS.containsKey(name)) {
+                throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Missing value for " + args[i]);
+            }
+            options.put(name, args[i + 1]);
+        }
+        LoadConfig config = new LoadConfig(
+                URI.create(options.get("url")),
+                positive(options, "connections"),
+                RoomPlan.Distribution.parse(options.get("room-sizes")),
+                positive(options, "connect-rate"),
+                nonNegative(options, "ice-candidates"),
+                Duration.ofMillis(nonNegative(options, "ice-interval-ms")),
+                Duration.ofSeconds(nonNegative(options, "duration-s")),
+                Duration.ofSeconds(positive(options, "renegotiate-every-s")),
+                Duration.ofSeconds(positive(options, "timeout-s")),
+                Path.of(options.get("report-dir")),
+                Long.parseLong(options.get("seed")));
+        if (!"ws".equals(config.url().getScheme()) && !"wss".equals(config.url().getScheme())) {
+            throw new IllegalArgumentException("--url must be a ws:// or wss:// URI");
+        }
+        return config;
+    }
+
+    private static int positive(Map<String, String> options, String name) {
+        int value = nonNegative(options, name);
+        if (value == 0) {
+            throw new IllegalArgumentException("--" + name + " must be positive");
+        }
+        return value;
+    }
+
+    private static int nonNegative(Map<String, String> options, String name) {
+        int value;
+        try {
+            value = Integer.parseInt(options.get(name));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("--" + name + " must be a number", e);
+        }
+        if (value < 0) {
+            throw new IllegalArgumentException("--" + name + " must not be negative");
+        }
+        return value;
+    }
+}
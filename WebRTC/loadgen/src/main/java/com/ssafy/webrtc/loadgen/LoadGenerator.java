@@ -0,0 +1,174 @@
+package com.ssafy.webrtc.loadgen;
+
+import java.net.http.HttpClient;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Drives a running signaling server with many simulated clients over real WebSockets, from
+ * a separate JVM, so the numbers include the network stack and the server's own threading
+ * (the in-JVM {@code SignalingLoadTest} bypasses both). A run has four phases:
+ * <ol>
+ *     <li>connect: handshakes paced at {@code --connect-rate};</li>
+ *     <li>join: clients enter their room one after another, rooms in parallel, and every
+ *     joiner negotiates with the participants already there;</li>
+ *     <li>steady: for {@code --duration-s} each client renegotiates with a random peer every
+ *     {@code --renegotiate-every-s}, at a random phase;</li>
+ *     <li>leave: clients leave and close, then the report is printed and written.</li>
+ * </ol>
+ * Rooms are mesh rooms; pointing it at a server in SFU mode only measures the joins.
+ */
+public final class LoadGenerator {
+
+    private static final long QUIET_POLL_MILLIS = 200;
+
+    private final LoadConfig config;
+    private final LoadReport report = new LoadReport();
+    private final Random random;
+
+    LoadGenerator(LoadConfig config) {
+        this.config = config;
+        this.random = new Random(config.seed());
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadConfig config;
+        try {
+            config = LoadConfig.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.print(LoadConfig.USAGE);
+            System.exit(2);
+            return;
+        }
+        LoadReport report = new LoadGenerator(config).run();
+        System.out.print(report.summary());
+        report.write(config.reportDir());
+        System.out.println("Histograms written to " + config.reportDir().toAbsolutePath());
+        System.exit(report.getConnected() > 0 ? 0 : 1);
+    }
+
+    LoadReport run() throws InterruptedException {
+        RoomPlan plan = RoomPlan.draw(config.connections(), config.roomSizes(), random);
+        report.rooms(plan.getRoomSizes());
+        ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(
+                Runtime.getRuntime().availableProcessors(), daemonThreads());
+        HttpClient httpClient = HttpClient.newHttpClient();
+        try {
+            List<SignalingClient> clients = connect(plan, httpClient, scheduler);
+            List<SignalingClient> members = join(clients);
+            steady(members, scheduler);
+            awaitQuiet();
+            leave(clients);
+        } finally {
+            scheduler.shutdownNow();
+        }
+        return report;
+    }
+
+    private List<SignalingClient> connect(RoomPlan plan, HttpClient httpClient, ScheduledExecutorService scheduler)
+            throws InterruptedException {
+        // Distinct per run, so a rerun against the same server does not land in leftover rooms
+        String runId = Long.toString(System.currentTimeMillis(), 36);
+        List<SignalingClient> clients = new ArrayList<>(config.connections());
+        List<CompletableFuture<Boolean>> handshakes = new ArrayList<>(config.connections());
+        long start = System.nanoTime();
+        long spacingNanos = TimeUnit.SECONDS.toNanos(1) / config.connectRate();
+        for (int i = 0; i < config.connections(); i++) {
+            TimeUnit.NANOSECONDS.sleep(start + i * spacingNanos - System.nanoTime());
+            SignalingClient client = new SignalingClient("loadgen-" + runId + "-" + plan.roomOf(i), config, report,
+                    scheduler);
+            clients.add(client);
+            handshakes.add(client.connect(httpClient));
+        }
+        List<SignalingClient> connected = new ArrayList<>(clients.size());
+        for (int i = 0; i < clients.size(); i++) {
+            if (handshakes.get(i).join()) {
+                connected.add(clients.get(i));
+            }
+        }
+        return connected;
+    }
+
+    /**
+     * @return the clients whose join was accepted
+     */
+    private List<SignalingClient> join(List<SignalingClient> clients) {
+        List<SignalingClient> members = new ArrayList<>(clients.size());
+        List<CompletableFuture<Void>> rooms = new ArrayList<>();
+        CompletableFuture<Void> room = null;
+        SignalingClient previous = null;
+        for (SignalingClient client : clients) {
+            if (previous == null || !previous.getRoomId().equals(client.getRoomId())) {
+                room = CompletableFuture.completedFuture(null);
+                rooms.add(room);
+            }
+            // The next joiner waits for room-info, so it sees everybody before it
+            room = room.thenCompose(ignored -> client.join()).thenAccept(accepted -> {
+                if (accepted) {
+                    synchronized (members) {
+                        members.add(client);
+                    }
+                }
+            });
+            rooms.set(rooms.size() - 1, room);
+            previous = client;
+        }
+        CompletableFuture.allOf(rooms.toArray(CompletableFuture[]::new)).join();
+        return members;
+    }
+
+    private void steady(List<SignalingClient> members, ScheduledExecutorService scheduler)
+            throws InterruptedException {
+        long periodNanos = config.renegotiateInterval().toNanos();
+        List<ScheduledFuture<?>> renegotiations = new ArrayList<>(members.size());
+        report.steadyStarted();
+        for (SignalingClient member : members) {
+            Random clientRandom = new Random(random.nextLong());
+            renegotiations.add(scheduler.scheduleAtFixedRate(() -> member.renegotiate(clientRandom),
+                    (long) (clientRandom.nextDouble() * periodNanos), periodNanos, TimeUnit.NANOSECONDS));
+        }
+        TimeUnit.NANOSECONDS.sleep(config.duration().toNanos());
+        renegotiations.forEach(renegotiation -> renegotiation.cancel(false));
+        report.steadyEnded();
+    }
+
+    /**
+     * Waits until nothing relayed arrives for a few polls, so the answers and candidates to
+     * the last renegotiations are counted as delivered.
+     */
+    private void awaitQuiet() throws InterruptedException {
+        long deadline = System.nanoTime() + config.timeout().toNanos();
+        long received = -1;
+        int quietPolls = 0;
+        while (quietPolls < 3 && System.nanoTime() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(QUIET_POLL_MILLIS);
+            long now = report.getRelayedReceived();
+            quietPolls = now == received ? quietPolls + 1 : 0;
+            received = now;
+        }
+    }
+
+    private void leave(List<SignalingClient> clients) {
+        CompletableFuture.allOf(clients.stream().map(SignalingClient::leave).toArray(CompletableFuture[]::new))
+                .completeOnTimeout(null, config.timeout().toMillis(), TimeUnit.MILLISECONDS)
+                .join();
+    }
+
+    private static ThreadFactory daemonThreads() {
+        AtomicInteger count = new AtomicInteger();
+        return task -> {
+            Thread thread = new Thread(task, "loadgen-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
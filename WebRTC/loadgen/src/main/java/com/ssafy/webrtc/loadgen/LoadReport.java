@@ -0,0 +1,206 @@
+package com.ssafy.webrtc.loadgen;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Everything a run measures. Latencies are recorded in microseconds into auto-resizing
+ * histograms, so a stalled server shows up in the tail instead of failing the recording.
+ */
+final class LoadReport {
+
+    static final List<String> RELAYED_TYPES = List.of("offer", "answer", "ice-candidate");
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+    private static final double MICROS_PER_MILLI = 1000.0;
+
+    private final Histogram handshakeLatency = new ConcurrentHistogram(SIGNIFICANT_DIGITS);
+    private final Map<String, Histogram> relayLatency = new LinkedHashMap<>();
+    private final Histogram joinLatency = new ConcurrentHistogram(SIGNIFICANT_DIGITS);
+
+    private final LongAdder connectAttempts = new LongAdder();
+    private final LongAdder connectFailures = new LongAdder();
+    private final LongAdder joinsAccepted = new LongAdder();
+    private final Map<String, LongAdder> joinsRejected = new ConcurrentHashMap<>();
+    private final LongAdder joinTimeouts = new LongAdder();
+    private final LongAdder relayedSent = new LongAdder();
+    private final LongAdder relayedReceived = new LongAdder();
+    private final LongAdder sendFailures = new LongAdder();
+    private final LongAdder unexpectedCloses = new LongAdder();
+
+    private List<Integer> roomSizes = List.of();
+    private long steadyStartNanos;
+    private long steadyEndNanos;
+    private long steadyStartReceived;
+    private long steadyEndReceived;
+
+    LoadReport() {
+        for (String type : RELAYED_TYPES) {
+            relayLatency.put(type, new ConcurrentHistogram(SIGNIFICANT_DIGITS));
+        }
+    }
+
+    void connectAttempted() {
+        connectAttempts.increment();
+    }
+
+    void connected(long handshakeNanos) {
+        handshakeLatency.recordValue(micros(handshakeNanos));
+    }
+
+    void connectFailed() {
+        connectFailures.increment();
+    }
+
+    void joined(long joinNanos) {
+        joinsAccepted.increment();
+        joinLatency.recordValue(micros(joinNanos));
+    }
+
+    /**
+     * @param reason the reply type, {@code room-full} or {@code rate-limited}
+     */
+    void joinRejected(String reason) {
+        joinsRejected.computeIfAbsent(reason, key -> new LongAdder()).increment();
+    }
+
+    void joinTimedOut() {
+        joinTimeouts.increment();
+    }
+
+    void relayedSent() {
+        relayedSent.increment();
+    }
+
+    /**
+     * @param sentNanos {@link System#nanoTime()} the sending client stamped into the payload;
+     *                  comparable because every client lives in this JVM
+     */
+    void relayedReceived(String type, long sentNanos) {
+        relayedReceived.increment();
+        Histogram histogram = relayLatency.get(type);
+        if (histogram != null) {
+            histogram.recordValue(micros(System.nanoTime() - sentNanos));
+        }
+    }
+
+    void sendFailed() {
+        sendFailures.increment();
+    }
+
+    void closedUnexpectedly() {
+        unexpectedCloses.increment();
+    }
+
+    void rooms(List<Integer> sizes) {
+        roomSizes = List.copyOf(sizes);
+    }
+
+    void steadyStarted() {
+        steadyStartReceived = relayedReceived.sum();
+        steadyStartNanos = System.nanoTime();
+    }
+
+    void steadyEnded() {
+        steadyEndReceived = relayedReceived.sum();
+        steadyEndNanos = System.nanoTime();
+    }
+
+    long getRelayedReceived() {
+        return relayedReceived.sum();
+    }
+
+    long getConnected() {
+        return connectAttempts.sum() - connectFailures.sum();
+    }
+
+    String summary() {
+        long attempts = connectAttempts.sum();
+        long connected = getConnected();
+        long sent = relayedSent.sum();
+        long received = relayedReceived.sum();
+        double steadySeconds = (steadyEndNanos - steadyStartNanos) / 1e9;
+        double throughput = steadySeconds > 0 ? (steadyEndReceived - steadyStartReceived) / steadySeconds : 0;
+
+        StringBuilder summary = new StringBuilder();
+        summary.append(String.format("connections  %d/%d established (%.2f%%), %d closed by the server%n",
+                connected, attempts, percent(connected, attempts), unexpectedCloses.sum()));
+        summary.append(String.format("rooms        %d, sizes %s%n", roomSizes.size(), sizeHistogram()));
+        summary.append(String.format("joins        %d accepted, %s rejected, %d timed out%n",
+                joinsAccepted.sum(), rejectedByReason(), joinTimeouts.sum()));
+        summary.append(String.format("relayed      %d/%d delivered (%.2f%%), %d send failures%n",
+                received, sent, percent(received, sent), sendFailures.sum()));
+        summary.append(String.format("throughput   %.0f relayed msg/s over %.1fs steady phase%n",
+                throughput, steadySeconds));
+        summary.append(String.format("%-12s %10s %10s %10s %10s %10s%n", "latency ms", "count", "p50", "p99",
+                "p99.9", "max"));
+        appendLatency(summary, "handshake", handshakeLatency);
+        appendLatency(summary, "join", joinLatency);
+        relayLatency.forEach((type, histogram) -> appendLatency(summary, type, histogram));
+        return summary.toString();
+    }
+
+    /**
+     * Writes {@code summary.txt} plus one percentile distribution per histogram, in
+     * milliseconds, in the {@code .hgrm} format HdrHistogram's plotter reads.
+     */
+    void write(Path dir) throws IOException {
+        Files.createDirectories(dir);
+        Files.writeString(dir.resolve("summary.txt"), summary());
+        writeHistogram(dir.resolve("handshake.hgrm"), handshakeLatency);
+        writeHistogram(dir.resolve("join.hgrm"), joinLatency);
+        for (Map.Entry<String, Histogram> entry : relayLatency.entrySet()) {
+            writeHistogram(dir.resolve("relay-" + entry.getKey() + ".hgrm"), entry.getValue());
+        }
+    }
+
+    private static void writeHistogram(Path file, Histogram histogram) throws IOException {
+        try (PrintStream out = new PrintStream(Files.newOutputStream(file))) {
+            histogram.outputPercentileDistribution(out, MICROS_PER_MILLI);
+        }
+    }
+
+    private static void appendLatency(StringBuilder summary, String name, Histogram histogram) {
+        summary.append(String.format("%-12s %10d %10.2f %10.2f %10.2f %10.2f%n", name, histogram.getTotalCount(),
+                millis(histogram, 50), millis(histogram, 99), millis(histogram, 99.9),
+                histogram.getMaxValue() / MICROS_PER_MILLI));
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / MICROS_PER_MILLI;
+    }
+
+    private String sizeHistogram() {
+        Map<Integer, Integer> rooms = new TreeMap<>();
+        roomSizes.forEach(size -> rooms.merge(size, 1, Integer::sum));
+        return rooms.toString();
+    }
+
+    private String rejectedByReason() {
+        if (joinsRejected.isEmpty()) {
+            return "0";
+        }
+        Map<String, Long> counts = new TreeMap<>();
+        joinsRejected.forEach((reason, count) -> counts.put(reason, count.sum()));
+        return counts.toString();
+    }
+
+    private static double percent(long part, long whole) {
+        return whole == 0 ? 0 : part * 100.0 / whole;
+    }
+
+    private static long micros(long nanos) {
+        return Math.max(0, nanos / 1000);
+    }
+}
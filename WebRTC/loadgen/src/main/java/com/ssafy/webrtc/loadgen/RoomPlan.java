@@ -0,0 +1,100 @@
+package com.ssafy.webrtc.loadgen;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Splits the connections into rooms whose sizes follow a weighted distribution. Rooms are
+ * drawn until every connection has one; the last room gets whatever is left over.
+ */
+final class RoomPlan {
+
+    private final List<Integer> roomSizes;
+
+    private RoomPlan(List<Integer> roomSizes) {
+        this.roomSizes = List.copyOf(roomSizes);
+    }
+
+    static RoomPlan draw(int connections, Distribution distribution, Random random) {
+        List<Integer> sizes = new ArrayList<>();
+        int remaining = connections;
+        while (remaining > 0) {
+            int size = Math.min(distribution.sample(random), remaining);
+            sizes.add(size);
+            remaining -= size;
+        }
+        return new RoomPlan(sizes);
+    }
+
+    /**
+     * Room sizes in the order clients are assigned to them.
+     */
+    List<Integer> getRoomSizes() {
+        return roomSizes;
+    }
+
+    int getRoomCount() {
+        return roomSizes.size();
+    }
+
+    /**
+     * Index of the room client {@code clientIndex} joins; clients fill rooms in order.
+     */
+    int roomOf(int clientIndex) {
+        int first = 0;
+        for (int room = 0; room < roomSizes.size(); room++) {
+            first += roomSizes.get(room);
+            if (clientIndex < first) {
+                return room;
+            }
+        }
+        throw new IndexOutOfBoundsException("Client " + clientIndex + " is not in the plan");
+    }
+
+    /**
+     * Weighted size ranges, written {@code size:weight} or {@code min-max:weight}, comma
+     * separated; sizes within a range are equally likely.
+     */
+    record Distribution(int[] minSizes, int[] maxSizes, double[] cumulativeWeights) {
+
+        static Distribution parse(String spec) {
+            String[] entries = spec.split(",");
+            int[] minSizes = new int[entries.length];
+            int[] maxSizes = new int[entries.length];
+            double[] cumulative = new double[entries.length];
+            double total = 0;
+            for (int i = 0; i < entries.length; i++) {
+                String[] sizeAndWeight = entries[i].trim().split(":");
+                if (sizeAndWeight.length != 2) {
+                    throw new IllegalArgumentException("Room size entry must be size:weight, got " + entries[i]);
+                }
+                String[] range = sizeAndWeight[0].split("-");
+                try {
+                    minSizes[i] = Integer.parseInt(range[0].trim());
+                    maxSizes[i] = range.length > 1 ? Integer.parseInt(range[1].trim()) : minSizes[i];
+                    total += Double.parseDouble(sizeAndWeight[1].trim());
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Bad room size entry " + entries[i], e);
+                }
+                if (minSizes[i] < 1 || maxSizes[i] < minSizes[i]) {
+                    throw new IllegalArgumentException("Bad room size range " + sizeAndWeight[0]);
+                }
+                cumulative[i] = total;
+            }
+            if (total <= 0) {
+                throw new IllegalArgumentException("Room size weights must add up to more than 0");
+            }
+            return new Distribution(minSizes, maxSizes, cumulative);
+        }
+
+        int sample(Random random) {
+            double point = random.nextDouble() * cumulativeWeights[cumulativeWeights.length - 1];
+            int entry = 0;
+            while (point >= cumulativeWeights[entry] && entry < cumulativeWeights.length - 1) {
+                entry++;
+            }
+            return minSizes[entry] + random.nextInt(maxSizes[entry] - minSizes[entry] + 1);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.ssafy.webrtc.loadgen;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Session descriptions and candidates the size of what Chrome produces for an audio+video
+ * call, so the server parses, buffers and relays realistic frames.
+ */
+final class SdpTemplates {
+
+    static final String OFFER = load("sdp/offer.sdp");
+    static final String ANSWER = load("sdp/answer.sdp");
+
+    private SdpTemplates() {
+    }
+
+    /**
+     * The {@code index}-th host candidate; alternates between the audio and video m-lines
+     * like a browser gathering for a bundle does before it settles.
+     */
+    static String candidate(int index) {
+        return "candidate:" + (842163049L + index) + " 1 udp 2122260223 192.168.1." + (10 + index % 240) + " "
+                + (50000 + index) + " typ host generation 0 ufrag Xk3p network-id 1 network-cost 10";
+    }
+
+    private static String load(String resource) {
+        try (InputStream in = SdpTemplates.class.getClassLoader().getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing resource " + resource);
+            }
+            // Browsers send CRLF line endings
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8).replace("\r\n", "\n").replace("\n", "\r\n");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package com.ssafy.webrtc.loadgen;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One simulated participant, behaving like the browser client in a mesh room: a joiner
+ * offers to everybody already there, everybody answers the offers they get, and each
+ * offer and answer is followed by trickled ICE candidates. Relayed messages carry the
+ * {@link System#nanoTime()} they were sent at, which the receiver turns into a latency.
+ */
+final class SignalingClient implements WebSocket.Listener {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final String roomId;
+    private final LoadConfig config;
+    private final LoadReport report;
+    private final ScheduledExecutorService scheduler;
+    private final Set<String> peers = ConcurrentHashMap.newKeySet();
+    private final StringBuilder partial = new StringBuilder();
+    private final CompletableFuture<Boolean> joined = new CompletableFuture<>();
+
+    private volatile WebSocket webSocket;
+    private volatile boolean closing;
+    private CompletableFuture<WebSocket> sends;
+    private long joinStartNanos;
+
+    SignalingClient(String roomId, LoadConfig config, LoadReport report, ScheduledExecutorService scheduler) {
+        this.roomId = roomId;
+        this.config = config;
+        this.report = report;
+        this.scheduler = scheduler;
+    }
+
+    String getRoomId() {
+        return roomId;
+    }
+
+    /**
+     * Completes with whether the handshake succeeded; failures are counted, not thrown.
+     */
+    CompletableFuture<Boolean> connect(HttpClient httpClient) {
+        report.connectAttempted();
+        long start = System.nanoTime();
+        return httpClient.newWebSocketBuilder()
+                .connectTimeout(config.timeout())
+                .buildAsync(config.url(), this)
+                .orTimeout(config.timeout().toMillis(), TimeUnit.MILLISECONDS)
+                .handle((socket, failure) -> {
+                    if (failure != null) {
+                        report.connectFailed();
+                        return false;
+                    }
+                    report.connected(System.nanoTime() - start);
+                    synchronized (this) {
+                        webSocket = socket;
+                        sends = CompletableFuture.completedFuture(socket);
+                    }
+                    return true;
+                });
+    }
+
+    /**
+     * Completes with {@code true} on room-info and {@code false} on a rejection or timeout.
+     */
+    CompletableFuture<Boolean> join() {
+        joinStartNanos = System.nanoTime();
+        ObjectNode join = MAPPER.createObjectNode()
+                .put("type", "join")
+                .put("roomId", roomId);
+        send(join, false);
+        return joined.completeOnTimeout(null, config.timeout().toMillis(), TimeUnit.MILLISECONDS)
+                .thenApply(accepted -> {
+                    if (accepted == null) {
+                        report.joinTimedOut();
+                        return false;
+                    }
+                    return accepted;
+                });
+    }
+
+    /**
+     * Offers again to one random peer, as a client does when it adds or restarts a track.
+     */
+    void renegotiate(Random random) {
+        List<String> candidates = new ArrayList<>(peers);
+        if (!candidates.isEmpty()) {
+            offer(candidates.get(random.nextInt(candidates.size())));
+        }
+    }
+
+    CompletableFuture<?> leave() {
+        closing = true;
+        if (webSocket == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        send(MAPPER.createObjectNode().put("type", "leave").put("roomId", roomId), false);
+        CompletableFuture<WebSocket> closed;
+        synchronized (this) {
+            closed = sends = sends.thenCompose(socket -> socket.sendClose(WebSocket.NORMAL_CLOSURE, "done"));
+        }
+        return closed.exceptionally(failure -> null);
+    }
+
+    @Override
+    public CompletionStage<?> onText(WebSocket socket, CharSequence data, boolean last) {
+        partial.append(data);
+        if (last) {
+            String text = partial.toString();
+            partial.setLength(0);
+            try {
+                handle(MAPPER.readTree(text));
+            } catch (JsonProcessingException e) {
+                // The server only sends JSON to clients without the CBOR subprotocol
+                throw new IllegalStateException("Unparseable frame from the server", e);
+            }
+        }
+        socket.request(1);
+        return null;
+    }
+
+    @Override
+    public CompletionStage<?> onClose(WebSocket socket, int statusCode, String reason) {
+        if (!closing) {
+            report.closedUnexpectedly();
+        }
+        joined.complete(false);
+        return null;
+    }
+
+    @Override
+    public void onError(WebSocket socket, Throwable error) {
+        if (!closing) {
+            report.closedUnexpectedly();
+        }
+        joined.complete(false);
+    }
+
+    private void handle(JsonNode message) {
+        String type = message.path("type").asText();
+        String senderId = message.path("senderId").asText(null);
+        switch (type) {
+            case "room-info" -> {
+                message.path("participants").forEach(participant -> peers.add(participant.asText()));
+                report.joined(System.nanoTime() - joinStartNanos);
+                joined.complete(true);
+                peers.forEach(this::offer);
+            }
+            case "room-full", "rate-limited" -> {
+                report.joinRejected(type);
+                joined.complete(false);
+            }
+            case "user-joined" -> peers.add(senderId);
+            case "user-left" -> peers.remove(senderId);
+            case "offer", "answer", "ice-candidate" -> {
+                report.relayedReceived(type, message.path("payload").path("sentAt").asLong());
+                if ("offer".equals(type)) {
+                    answer(senderId);
+                }
+            }
+            default -> {
+                // resumeToken, drain hints and anything newer than this tool are not part of the load
+            }
+        }
+    }
+
+    private void offer(String peerId) {
+        sendDescription("offer", peerId, SdpTemplates.OFFER);
+    }
+
+    private void answer(String peerId) {
+        sendDescription("answer", peerId, SdpTemplates.ANSWER);
+    }
+
+    private void sendDescription(String type, String peerId, String sdp) {
+        ObjectNode message = MAPPER.createObjectNode()
+                .put("type", type)
+                .put("roomId", roomId)
+                .put("targetId", peerId);
+        message.putObject("payload")
+                .put("type", type)
+                .put("sdp", sdp)
+                .put("sentAt", System.nanoTime());
+        send(message, true);
+        trickle(peerId);
+    }
+
+    private void trickle(String peerId) {
+        long intervalNanos = config.iceInterval().toNanos();
+        for (int i = 0; i < config.iceCandidates(); i++) {
+            int index = i;
+            if (intervalNanos == 0) {
+                sendCandidate(peerId, index);
+            } else {
+                scheduler.schedule(() -> sendCandidate(peerId, index), intervalNanos * (i + 1), TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    private void sendCandidate(String peerId, int index) {
+        if (closing) {
+            return;
+        }
+        ObjectNode message = MAPPER.createObjectNode()
+                .put("type", "ice-candidate")
+                .put("roomId", roomId)
+                .put("targetId", peerId);
+        message.putObject("payload")
+                .put("candidate", SdpTemplates.candidate(index))
+                .put("sdpMid", String.valueOf(index % 2))
+                .put("sdpMLineIndex", index % 2)
+                .put("sentAt", System.nanoTime());
+        send(message, true);
+    }
+
+    /**
+     * Queues a frame behind the previous one; the JDK client allows one outstanding send.
+     */
+    private void send(ObjectNode message, boolean relayed) {
+        String text = message.toString();
+        synchronized (this) {
+            if (sends == null) {
+                return;
+            }
+            sends = sends.thenCompose(socket -> socket.sendText(text, true))
+                    .whenComplete((socket, failure) -> {
+                        if (failure != null) {
+                            report.sendFailed();
+                        } else if (relayed) {
+                            report.relayedSent();
+                        }
+                    });
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.ssafy.webrtc.loadgen;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LoadConfigTest {
+
+    @Test
+    @DisplayName("should fall back to the defaults for options not given")
+    void parse_shouldApplyDefaults() {
+        // when
+        LoadConfig config = LoadConfig.parse("--connections", "50", "--ice-interval-ms", "0");
+
+        // then
+        assertThat(config.url()).isEqualTo(URI.create("ws://localhost:8080/signal"));
+        assertThat(config.connections()).isEqualTo(50);
+        assertThat(config.iceInterval()).isEqualTo(Duration.ZERO);
+        assertThat(config.iceCandidates()).isEqualTo(8);
+        assertThat(config.renegotiateInterval()).isEqualTo(Duration.ofSeconds(5));
+    }
+
+    @Test
+    @DisplayName("should reject unknown options, missing values and out-of-range numbers")
+    void parse_shouldRejectBadArguments() {
+        assertThatThrownBy(() -> LoadConfig.parse("--clients", "5")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> LoadConfig.parse("--connections")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> LoadConfig.parse("--connections", "0"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> LoadConfig.parse("--ice-candidates", "-1"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> LoadConfig.parse("--url", "http://localhost:8080/signal"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,73 @@
+package com.ssafy.webrtc.loadgen;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RoomPlanTest {
+
+    @Test
+    @DisplayName("should give every connection exactly one room within the configured sizes")
+    void draw_shouldCoverAllConnections() {
+        // given
+        RoomPlan.Distribution distribution = RoomPlan.Distribution.parse("2:60,3-4:30,5-8:10");
+
+        // when
+        RoomPlan plan = RoomPlan.draw(1_001, distribution, new Random(7));
+
+        // then
+        assertThat(plan.getRoomSizes().stream().mapToInt(Integer::intValue).sum()).isEqualTo(1_001);
+        assertThat(plan.getRoomSizes().subList(0, plan.getRoomCount() - 1)).allSatisfy(size ->
+                assertThat(size).isBetween(2, 8));
+        assertThat(plan.roomOf(0)).isZero();
+        assertThat(plan.roomOf(plan.getRoomSizes().get(0))).isEqualTo(1);
+        assertThat(plan.roomOf(1_000)).isEqualTo(plan.getRoomCount() - 1);
+    }
+
+    @Test
+    @DisplayName("should draw sizes in proportion to their weights")
+    void sample_shouldFollowWeights() {
+        // given
+        RoomPlan.Distribution distribution = RoomPlan.Distribution.parse("2:3, 10:1");
+        Random random = new Random(1);
+
+        // when
+        int pairs = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (distribution.sample(random) == 2) {
+                pairs++;
+            }
+        }
+
+        // then
+        assertThat(pairs).isBetween(7_200, 7_800);
+    }
+
+    @Test
+    @DisplayName("should be reproducible for the same seed")
+    void draw_shouldBeDeterministic() {
+        // given
+        RoomPlan.Distribution distribution = RoomPlan.Distribution.parse("2-16:1");
+
+        // when
+        RoomPlan first = RoomPlan.draw(500, distribution, new Random(42));
+        RoomPlan second = RoomPlan.draw(500, distribution, new Random(42));
+
+        // then
+        assertThat(first.getRoomSizes()).isEqualTo(second.getRoomSizes());
+    }
+
+    @Test
+    @DisplayName("should reject malformed size entries")
+    void parse_shouldRejectMalformedEntries() {
+        assertThatThrownBy(() -> RoomPlan.Distribution.parse("2")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RoomPlan.Distribution.parse("0:1")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RoomPlan.Distribution.parse("5-3:1")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RoomPlan.Distribution.parse("2:x")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RoomPlan.Distribution.parse("2:0")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,58 @@
+package com.ssafy.webrtc.controller;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ResponseEntity;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Requests per second for the page behind {@code /} and every room invite link: reading
+ * {@code static/index.html} from the classpath per request and encoding it back to bytes
+ * (the previous behaviour, String message converter included) versus the copy held in memory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class PageControllerBenchmark {
+
+    private static final String BROWSER_ACCEPT_ENCODING = "gzip, deflate, br";
+
+    private PageController controller;
+
+    @Setup
+    public void setUp() throws IOException {
+        controller = new PageController(new StaticPage(new ClassPathResource("static/index.html"), false));
+    }
+
+    @Benchmark
+    public byte[] classpathPerRequest() throws IOException {
+        Resource resource = new ClassPathResource("static/index.html");
+        String content;
+        // Closed here, unlike before, so the run does not pile up file handles
+        try (InputStream in = resource.getInputStream()) {
+            content = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        return ResponseEntity.ok(content).getBody().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] cached() {
+        return controller.index(null).getBody();
+    }
+
+    @Benchmark
+    public byte[] cachedGzip() {
+        return controller.index(BROWSER_ACCEPT_ENCODING).getBody();
+    }
+}
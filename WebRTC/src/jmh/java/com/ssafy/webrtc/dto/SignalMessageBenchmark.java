@@ -0,0 +1,64 @@
+package com.ssafy.webrtc.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ssafy.webrtc.handler.RelayEnvelope;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON round trip of relayed frames: full {@link SignalMessage} data binding versus the
+ * streaming {@link RelayEnvelope} fast path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SignalMessageBenchmark {
+
+    private static final String SENDER_ID = "2f1c6a52-7b8e-4d3a-9c1e-5a4b3c2d1e0f";
+    private static final String TARGET_ID = "9a8b7c6d-5e4f-4a3b-8c2d-1e0f9a8b7c6d";
+
+    private ObjectMapper objectMapper;
+    private String offer;
+    private String iceCandidate;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapper();
+        offer = SignalPayloads.offerFrame(TARGET_ID);
+        iceCandidate = SignalPayloads.iceCandidateFrame(TARGET_ID);
+    }
+
+    @Benchmark
+    public String offerDataBinding() throws IOException {
+        return roundTrip(offer);
+    }
+
+    @Benchmark
+    public String offerRelayEnvelope() throws IOException {
+        return RelayEnvelope.tryParse(objectMapper.getFactory(), offer).withSender(SENDER_ID);
+    }
+
+    @Benchmark
+    public String iceCandidateDataBinding() throws IOException {
+        return roundTrip(iceCandidate);
+    }
+
+    @Benchmark
+    public String iceCandidateRelayEnvelope() throws IOException {
+        return RelayEnvelope.tryParse(objectMapper.getFactory(), iceCandidate).withSender(SENDER_ID);
+    }
+
+    private String roundTrip(String json) throws IOException {
+        SignalMessage message = objectMapper.readValue(json, SignalMessage.class);
+        message.setSenderId(SENDER_ID);
+        return objectMapper.writeValueAsString(message);
+    }
+}
@@ -0,0 +1,82 @@
+package com.ssafy.webrtc.dto;
+
+/**
+ * Realistically sized signaling frames for benchmarks: a browser-like SDP offer with
+ * one audio and one video section (~6 KB) and a host ICE candidate.
+ */
+public final class SignalPayloads {
+
+    private SignalPayloads() {
+    }
+
+    public static String sdpOffer() {
+        StringBuilder sdp = new StringBuilder(8192)
+                .append("v=0\r\n")
+                .append("o=- 4611731400430051336 2 IN IP4 127.0.0.1\r\n")
+                .append("s=-\r\n")
+                .append("t=0 0\r\n")
+                .append("a=group:BUNDLE 0 1\r\n")
+                .append("a=extmap-allow-mixed\r\n")
+                .append("a=msid-semantic: WMS 5c1e1b4e-8d3f-4f7a-9a51-2b6f3b1c9d0e\r\n");
+        appendMedia(sdp, "audio", 0, new String[]{"111 opus/48000/2", "63 red/48000/2", "9 G722/8000",
+                "0 PCMU/8000", "8 PCMA/8000", "13 CN/8000", "110 telephone-event/48000", "126 telephone-event/8000"});
+        appendMedia(sdp, "video", 1, new String[]{"96 VP8/90000", "97 rtx/90000", "98 VP9/90000", "99 rtx/90000",
+                "100 VP9/90000", "101 rtx/90000", "102 H264/90000", "103 rtx/90000", "104 H264/90000",
+                "105 rtx/90000", "106 H264/90000", "107 rtx/90000", "108 H264/90000", "109 rtx/90000",
+                "127 H264/90000", "125 rtx/90000", "39 AV1/90000", "40 rtx/90000", "45 AV1/90000",
+                "46 rtx/90000", "116 red/90000", "117 rtx/90000", "118 ulpfec/90000"});
+        return sdp.toString();
+    }
+
+    public static String offerFrame(String targetId) {
+        return "{\"type\":\"offer\",\"roomId\":\"benchmark-room\",\"targetId\":\"" + targetId + "\","
+                + "\"payload\":{\"type\":\"offer\",\"sdp\":\"" + escape(sdpOffer()) + "\"}}";
+    }
+
+    public static String iceCandidateFrame(String targetId) {
+        return "{\"type\":\"ice-candidate\",\"roomId\":\"benchmark-room\",\"targetId\":\"" + targetId + "\","
+                + "\"payload\":{\"candidate\":\"candidate:842163049 1 udp 1677729535 203.0.113.17 54400 typ srflx "
+                + "raddr 192.168.1.23 rport 54400 generation 0 ufrag Xq3l network-cost 999\","
+                + "\"sdpMid\":\"0\",\"sdpMLineIndex\":0,\"usernameFragment\":\"Xq3l\"}}";
+    }
+
+    private static void appendMedia(StringBuilder sdp, String kind, int mid, String[] codecs) {
+        sdp.append("m=").append(kind).append(" 9 UDP/TLS/RTP/SAVPF");
+        for (String codec : codecs) {
+            sdp.append(' ').append(codec, 0, codec.indexOf(' '));
+        }
+        sdp.append("\r\n")
+                .append("c=IN IP4 0.0.0.0\r\n")
+                .append("a=rtcp:9 IN IP4 0.0.0.0\r\n")
+                .append("a=ice-ufrag:Xq3l\r\n")
+                .append("a=ice-pwd:3ZlBx7qK1vNw0uXh5P9aTg2m\r\n")
+                .append("a=ice-options:trickle\r\n")
+                .append("a=fingerprint:sha-256 6B:8B:5D:EA:59:04:20:23:29:C8:87:1C:CC:87:32:BE:DD:8C:66:A5:")
+                .append("8E:50:55:EA:4C:D3:B6:5A:09:BD:C0:3E\r\n")
+                .append("a=setup:actpass\r\n")
+                .append("a=mid:").append(mid).append("\r\n")
+                .append("a=extmap:1 urn:ietf:params:rtp-hdrext:ssrc-audio-level\r\n")
+                .append("a=extmap:2 http://www.webrtc.org/experiments/rtp-hdrext/abs-send-time\r\n")
+                .append("a=extmap:3 http://www.ietf.org/id/draft-holmer-rmcat-transport-wide-cc-extensions-01\r\n")
+                .append("a=extmap:4 urn:ietf:params:rtp-hdrext:sdes:mid\r\n")
+                .append("a=sendrecv\r\n")
+                .append("a=msid:5c1e1b4e-8d3f-4f7a-9a51-2b6f3b1c9d0e 0f6b7c3a-").append(kind).append("\r\n")
+                .append("a=rtcp-mux\r\n")
+                .append("a=rtcp-rsize\r\n");
+        for (String codec : codecs) {
+            String pt = codec.substring(0, codec.indexOf(' '));
+            sdp.append("a=rtpmap:").append(pt).append(' ').append(codec.substring(codec.indexOf(' ') + 1)).append("\r\n")
+                    .append("a=rtcp-fb:").append(pt).append(" transport-cc\r\n")
+                    .append("a=rtcp-fb:").append(pt).append(" nack\r\n")
+                    .append("a=fmtp:").append(pt).append(" minptime=10;useinbandfec=1;level-asymmetry-allowed=1\r\n");
+        }
+        sdp.append("a=ssrc-group:FID 1873211046 2961425730\r\n")
+                .append("a=ssrc:1873211046 cname:l5B2y0p9Yc1QzS7u\r\n")
+                .append("a=ssrc:1873211046 msid:5c1e1b4e-8d3f-4f7a-9a51-2b6f3b1c9d0e 0f6b7c3a-").append(kind).append("\r\n")
+                .append("a=ssrc:2961425730 cname:l5B2y0p9Yc1QzS7u\r\n");
+    }
+
+    private static String escape(String sdp) {
+        return sdp.replace("\r", "\\r").replace("\n", "\\n");
+    }
+}
@@ -0,0 +1,99 @@
+package com.ssafy.webrtc.handler;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ssafy.webrtc.cluster.InMemorySignalingBus;
+import com.ssafy.webrtc.cluster.SignalingCluster;
+import com.ssafy.webrtc.config.SignalingProperties;
+import com.ssafy.webrtc.dto.SignalMessage;
+import com.ssafy.webrtc.metrics.CompressionSampler;
+import com.ssafy.webrtc.metrics.SignalingMetrics;
+import com.ssafy.webrtc.service.RoomService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.web.socket.TextMessage;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of notifying a whole room about one event: one serialization per recipient
+ * (the previous behaviour) versus one shared frame for everybody, plus a complete
+ * join into a room of {@code roomSize} participants.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FanOutBenchmark {
+
+    private static final String ROOM_ID = "benchmark-room";
+    private static final String JOINER_ID = "joiner";
+
+    @Param({"2", "16", "128", "1024"})
+    private int roomSize;
+
+    private SignalingHandler handler;
+    private RoomService roomService;
+    private List<String> participants;
+    private BenchmarkSession joiner;
+    private TextMessage joinFrame;
+
+    @Setup
+    public void setUp() {
+        roomService = new RoomService();
+        SessionRegistry sessionRegistry = new SessionRegistry(
+                new OutboundDispatcher(Runnable::run, new SignalingProperties.Outbound()));
+        SignalingMetrics metrics = new SignalingMetrics(new SimpleMeterRegistry());
+        SignalCodec codec = new SignalCodec(new ObjectMapper(), metrics, CompressionSampler.disabled());
+        SignalingCluster cluster = new SignalingCluster(InMemorySignalingBus.standalone("node-1"), roomService,
+                sessionRegistry, codec);
+        handler = new SignalingHandler(codec, roomService, sessionRegistry, cluster, IceBatcher.disabled(),
+                JoinRateLimiter.unlimited(), RelayGate.withoutQuota(roomService), SessionResumption.disabled(),
+                SessionHeartbeat.disabled(), metrics);
+        participants = new ArrayList<>(roomSize);
+        for (int i = 0; i < roomSize; i++) {
+            String sessionId = "session-" + i;
+            handler.afterConnectionEstablished(new BenchmarkSession(sessionId));
+            roomService.joinRoom(ROOM_ID, sessionId);
+            participants.add(sessionId);
+        }
+        joiner = new BenchmarkSession(JOINER_ID);
+        handler.afterConnectionEstablished(joiner);
+        joinFrame = new TextMessage("{\"type\":\"join\",\"roomId\":\"" + ROOM_ID + "\"}");
+    }
+
+    @Benchmark
+    public void serializePerRecipient() throws IOException {
+        for (String participantId : participants) {
+            handler.broadcast(Collections.singletonList(participantId), notification());
+        }
+    }
+
+    @Benchmark
+    public void sharedFrame() throws IOException {
+        handler.broadcast(participants, notification());
+    }
+
+    @Benchmark
+    public void joinFanOut() throws Exception {
+        handler.handleTextMessage(joiner, joinFrame);
+        roomService.leaveRoom(ROOM_ID, JOINER_ID);
+    }
+
+    private static SignalMessage notification() {
+        return SignalMessage.builder()
+                .type("user-joined")
+                .roomId(ROOM_ID)
+                .senderId("2f1c6a52-7b8e-4d3a-9c1e-5a4b3c2d1e0f")
+                .build();
+    }
+}
@@ -0,0 +1,79 @@
+package com.ssafy.webrtc.handler;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of rescheduling one connection's heartbeat while {@code connections} others are
+ * pending: the timing wheel against a {@link ScheduledThreadPoolExecutor}, whose delay queue
+ * is a binary heap. Delays are far enough out that nothing fires during the run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class HeartbeatTimerBenchmark {
+
+    private static final long DELAY_SECONDS = 3600;
+    private static final Runnable NOOP = () -> { };
+
+    @Param({"1000", "100000"})
+    private int connections;
+
+    private HashedWheelTimer wheel;
+    private HashedWheelTimer.Timeout[] wheelTimeouts;
+    private ScheduledThreadPoolExecutor executor;
+    private ScheduledFuture<?>[] executorTimeouts;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        wheel = new HashedWheelTimer(Executors.defaultThreadFactory(), Duration.ofMillis(100), 512);
+        executor = new ScheduledThreadPoolExecutor(1);
+        executor.setRemoveOnCancelPolicy(true);
+        wheelTimeouts = new HashedWheelTimer.Timeout[connections];
+        executorTimeouts = new ScheduledFuture<?>[connections];
+        for (int i = 0; i < connections; i++) {
+            wheelTimeouts[i] = wheel.schedule(NOOP, DELAY_SECONDS + i % 60, TimeUnit.SECONDS);
+            executorTimeouts[i] = executor.schedule(NOOP, DELAY_SECONDS + i % 60, TimeUnit.SECONDS);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        wheel.stop();
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public HashedWheelTimer.Timeout rescheduleWheel() {
+        int i = nextIndex();
+        wheelTimeouts[i].cancel();
+        return wheelTimeouts[i] = wheel.schedule(NOOP, DELAY_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @Benchmark
+    public ScheduledFuture<?> rescheduleExecutor() {
+        int i = nextIndex();
+        executorTimeouts[i].cancel(false);
+        return executorTimeouts[i] = executor.schedule(NOOP, DELAY_SECONDS, TimeUnit.SECONDS);
+    }
+
+    private int nextIndex() {
+        int i = next;
+        next = i + 1 == connections ? 0 : i + 1;
+        return i;
+    }
+}
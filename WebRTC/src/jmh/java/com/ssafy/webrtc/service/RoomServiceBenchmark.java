@@ -0,0 +1,156 @@
+package com.ssafy.webrtc.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compares the membership stores. Run with {@code -prof gc}: the {@code gc.alloc.rate.norm}
+ * of {@link #buildSmallRooms} is the heap one room of {@link SmallRooms#ROOM_SIZE} costs.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RoomServiceBenchmark {
+
+    /**
+     * A handful of hot rooms shared by all benchmark threads, so joins and leaves
+     * contend on the same map bins and participant sets.
+     */
+    @State(Scope.Benchmark)
+    public static class ContendedRooms {
+
+        static final int HOT_ROOMS = 8;
+
+        @Param({"HASH", "COMPACT"})
+        RoomStore store;
+
+        RoomService roomService;
+        final String[] roomIds = new String[HOT_ROOMS];
+        final AtomicInteger sessionIds = new AtomicInteger();
+
+        @Setup
+        public void setUp() {
+            roomService = new RoomService(store);
+            for (int i = 0; i < HOT_ROOMS; i++) {
+                roomIds[i] = "hot-room-" + i;
+                // Keep every room alive so the benchmark measures membership churn, not room creation
+                roomService.joinRoom(roomIds[i], "resident-" + i);
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Session {
+
+        String sessionId;
+
+        @Setup
+        public void setUp(ContendedRooms rooms) {
+            sessionId = "session-" + rooms.sessionIds.incrementAndGet();
+        }
+    }
+
+    /**
+     * A server populated with {@code roomCount} two-person rooms; the measured session
+     * is in three of them when it disconnects.
+     */
+    @State(Scope.Thread)
+    public static class PopulatedServer {
+
+        @Param({"1000", "10000", "100000"})
+        int roomCount;
+
+        @Param({"HASH", "COMPACT"})
+        RoomStore store;
+
+        RoomService roomService;
+        String[] joinedRooms;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            roomService = new RoomService(store);
+            for (int i = 0; i < roomCount; i++) {
+                roomService.joinRoom("room-" + i, "owner-" + i);
+            }
+            joinedRooms = new String[]{"room-0", "room-" + roomCount / 2, "room-" + (roomCount - 1)};
+        }
+    }
+
+    /**
+     * Typical traffic: many rooms of four. Session ids are created up front so only membership
+     * structures are allocated by the measured code.
+     */
+    @State(Scope.Thread)
+    public static class SmallRooms {
+
+        static final int ROOM_SIZE = 4;
+
+        @Param({"HASH", "COMPACT"})
+        RoomStore store;
+
+        final String[] roomIds = new String[1_000];
+        final String[][] sessionIds = new String[roomIds.length][ROOM_SIZE];
+        RoomService populated;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            populated = new RoomService(store);
+            for (int i = 0; i < roomIds.length; i++) {
+                roomIds[i] = "room-" + i;
+                for (int j = 0; j < ROOM_SIZE; j++) {
+                    sessionIds[i][j] = "session-" + i + "-" + j;
+                    populated.joinRoom(roomIds[i], sessionIds[i][j]);
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(1_000)
+    public RoomService buildSmallRooms(SmallRooms rooms) {
+        RoomService roomService = new RoomService(rooms.store);
+        for (int i = 0; i < rooms.roomIds.length; i++) {
+            for (String sessionId : rooms.sessionIds[i]) {
+                roomService.joinRoom(rooms.roomIds[i], sessionId);
+            }
+        }
+        return roomService;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(1_000)
+    public void iterateParticipants(SmallRooms rooms, Blackhole blackhole) {
+        for (String roomId : rooms.roomIds) {
+            rooms.populated.getRoomParticipants(roomId).forEach(blackhole::consume);
+        }
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void joinAndLeaveContended(ContendedRooms rooms, Session session) {
+        String roomId = rooms.roomIds[ThreadLocalRandom.current().nextInt(ContendedRooms.HOT_ROOMS)];
+        rooms.roomService.joinRoom(roomId, session.sessionId);
+        rooms.roomService.leaveRoom(roomId, session.sessionId);
+    }
+
+    @Benchmark
+    public void removeUserFromAllRooms(PopulatedServer server) {
+        for (String roomId : server.joinedRooms) {
+            server.roomService.joinRoom(roomId, "disconnecting");
+        }
+        server.roomService.removeUserFromAllRooms("disconnecting");
+    }
+}
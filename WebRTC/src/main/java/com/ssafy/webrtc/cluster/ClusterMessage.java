@@ -0,0 +1,48 @@
+package com.ssafy.webrtc.cluster;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * Unit of node-to-node traffic on a {@link SignalingBus}.
+ *
+ * @param origin id of the node that produced the message
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ClusterMessage(Type type, String origin, String roomId, String sessionId,
+                             List<String> recipients, String frame, boolean droppable) {
+
+    public enum Type {
+        /** Forward {@code frame} to the listed sessions, all owned by the receiving node */
+        DELIVER,
+        /** A session of the origin node joined a room */
+        JOINED,
+        /** A session of the origin node left a room */
+        LEFT,
+        /** A session of the origin node disconnected */
+        DISCONNECTED,
+        /** Forget everything known about the origin node; its current membership follows */
+        SYNC
+    }
+
+    public static ClusterMessage deliver(String origin, List<String> recipients, String frame, boolean droppable) {
+        return new ClusterMessage(Type.DELIVER, origin, null, null, recipients, frame, droppable);
+    }
+
+    public static ClusterMessage joined(String origin, String roomId, String sessionId) {
+        return new ClusterMessage(Type.JOINED, origin, roomId, sessionId, null, null, false);
+    }
+
+    public static ClusterMessage left(String origin, String roomId, String sessionId) {
+        return new ClusterMessage(Type.LEFT, origin, roomId, sessionId, null, null, false);
+    }
+
+    public static ClusterMessage disconnected(String origin, String sessionId) {
+        return new ClusterMessage(Type.DISCONNECTED, origin, null, sessionId, null, null, false);
+    }
+
+    public static ClusterMessage sync(String origin) {
+        return new ClusterMessage(Type.SYNC, origin, null, null, null, null, false);
+    }
+}
@@ -0,0 +1,13 @@
+package com.ssafy.webrtc.cluster;
+
+public enum ClusterMode {
+
+    /** Single node; the bus has no peers */
+    NONE,
+
+    /** Nodes in the same JVM share a process-wide in-memory bus (tests) */
+    IN_MEMORY,
+
+    /** Nodes connect to each other over TCP, e.g. several JVMs on one host */
+    TCP
+}
@@ -0,0 +1,86 @@
+package com.ssafy.webrtc.cluster;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bus whose nodes live in the same JVM. Messages are handed to the receiving node's listener
+ * on the sending thread. A node on its own {@link Network} is a standalone server.
+ */
+public class InMemorySignalingBus implements SignalingBus {
+
+    private final Network network;
+    private final String nodeId;
+    private volatile Listener listener;
+
+    public InMemorySignalingBus(Network network, String nodeId) {
+        this.network = network;
+        this.nodeId = nodeId;
+    }
+
+    public static InMemorySignalingBus standalone(String nodeId) {
+        return new InMemorySignalingBus(new Network(), nodeId);
+    }
+
+    @Override
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    @Override
+    public void start(Listener listener) {
+        this.listener = listener;
+        synchronized (network) {
+            network.nodes.put(nodeId, this);
+            for (InMemorySignalingBus peer : network.nodes.values()) {
+                if (peer != this) {
+                    peer.listener.syncTo(listener::onMessage);
+                    listener.syncTo(peer.listener::onMessage);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void send(String nodeId, ClusterMessage message) {
+        InMemorySignalingBus peer = network.nodes.get(nodeId);
+        if (peer != null && peer != this) {
+            peer.listener.onMessage(message);
+        }
+    }
+
+    @Override
+    public void publish(ClusterMessage message) {
+        for (InMemorySignalingBus peer : network.nodes.values()) {
+            if (peer != this) {
+                peer.listener.onMessage(message);
+            }
+        }
+    }
+
+    @Override
+    public void stop() {
+        synchronized (network) {
+            if (!network.nodes.remove(nodeId, this)) {
+                return;
+            }
+            for (InMemorySignalingBus peer : network.nodes.values()) {
+                peer.listener.onNodeDown(nodeId);
+            }
+        }
+    }
+
+    public static final class Network {
+
+        private static final Network SHARED = new Network();
+
+        private final Map<String, InMemorySignalingBus> nodes = new ConcurrentHashMap<>();
+
+        /**
+         * Network shared by every {@link ClusterMode#IN_MEMORY} node in this JVM.
+         */
+        public static Network shared() {
+            return SHARED;
+        }
+    }
+}
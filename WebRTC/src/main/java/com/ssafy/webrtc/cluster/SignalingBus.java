@@ -0,0 +1,45 @@
+package com.ssafy.webrtc.cluster;
+
+import java.util.function.Consumer;
+
+/**
+ * Transport between signaling nodes. Implementations only move {@link ClusterMessage}s;
+ * routing and membership replication live in {@link SignalingCluster}.
+ */
+public interface SignalingBus {
+
+    /**
+     * Id of this node, unique within the cluster.
+     */
+    String getNodeId();
+
+    void start(Listener listener);
+
+    /**
+     * Sends a message to one node. Messages to unknown or unreachable nodes are dropped.
+     */
+    void send(String nodeId, ClusterMessage message);
+
+    /**
+     * Sends a message to every other reachable node.
+     */
+    void publish(ClusterMessage message);
+
+    void stop();
+
+    interface Listener {
+
+        void onMessage(ClusterMessage message);
+
+        /**
+         * Streams this node's state to a newly reachable peer. Everything passed to the sink
+         * must reach the peer ahead of messages published after this call returns.
+         */
+        void syncTo(Consumer<ClusterMessage> sink);
+
+        /**
+         * The node became unreachable; whatever it owned is gone.
+         */
+        void onNodeDown(String nodeId);
+    }
+}
@@ -0,0 +1,181 @@
+package com.ssafy.webrtc.cluster;
+
+import com.ssafy.webrtc.handler.SessionRegistry;
+import com.ssafy.webrtc.handler.SharedFrame;
+import com.ssafy.webrtc.handler.SignalCodec;
+import com.ssafy.webrtc.service.RoomService;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Keeps room membership consistent across nodes and routes frames to sessions owned by
+ * other nodes. Every node holds the full membership in its {@link RoomService}; sessions
+ * connected elsewhere are tracked with their owning node so frames can be forwarded there.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SignalingCluster implements SignalingBus.Listener {
+
+    private final SignalingBus bus;
+    private final RoomService roomService;
+    private final SessionRegistry sessionRegistry;
+    private final SignalCodec codec;
+    // Session id -> id of the node it is connected to, for sessions of other nodes
+    private final Map<String, String> remoteOwners = new ConcurrentHashMap<>();
+    // Local membership changes are published under the read lock, state syncs run under the write lock
+    private final ReadWriteLock syncLock = new ReentrantReadWriteLock();
+
+    @PostConstruct
+    public void start() {
+        bus.start(this);
+    }
+
+    public String getNodeId() {
+        return bus.getNodeId();
+    }
+
+    /**
+     * @return {@code false} if the room is full and the session was not added
+     */
+    public boolean joinRoom(String roomId, String sessionId) {
+        syncLock.readLock().lock();
+        try {
+            if (!roomService.joinRoom(roomId, sessionId)) {
+                return false;
+            }
+            bus.publish(ClusterMessage.joined(bus.getNodeId(), roomId, sessionId));
+            return true;
+        } finally {
+            syncLock.readLock().unlock();
+        }
+    }
+
+    public void leaveRoom(String roomId, String sessionId) {
+        syncLock.readLock().lock();
+        try {
+            roomService.leaveRoom(roomId, sessionId);
+            bus.publish(ClusterMessage.left(bus.getNodeId(), roomId, sessionId));
+        } finally {
+            syncLock.readLock().unlock();
+        }
+    }
+
+    public void removeUserFromAllRooms(String sessionId) {
+        syncLock.readLock().lock();
+        try {
+            roomService.removeUserFromAllRooms(sessionId);
+            bus.publish(ClusterMessage.disconnected(bus.getNodeId(), sessionId));
+        } finally {
+            syncLock.readLock().unlock();
+        }
+    }
+
+    public boolean isRemote(String sessionId) {
+        return remoteOwners.containsKey(sessionId);
+    }
+
+    /**
+     * Forwards a frame to a session connected to another node. Unknown sessions are ignored.
+     */
+    public void deliver(String sessionId, String frame, boolean droppable) {
+        String nodeId = remoteOwners.get(sessionId);
+        if (nodeId != null) {
+            bus.send(nodeId, ClusterMessage.deliver(bus.getNodeId(), List.of(sessionId), frame, droppable));
+        }
+    }
+
+    /**
+     * Forwards a frame to sessions connected to other nodes, one bus message per node.
+     */
+    public void deliver(Collection<String> sessionIds, String frame, boolean droppable) {
+        if (sessionIds.size() == 1) {
+            deliver(sessionIds.iterator().next(), frame, droppable);
+            return;
+        }
+        Map<String, List<String>> byNode = new HashMap<>();
+        for (String sessionId : sessionIds) {
+            String nodeId = remoteOwners.get(sessionId);
+            if (nodeId != null) {
+                byNode.computeIfAbsent(nodeId, id -> new ArrayList<>()).add(sessionId);
+            }
+        }
+        byNode.forEach((nodeId, recipients) ->
+                bus.send(nodeId, ClusterMessage.deliver(bus.getNodeId(), recipients, frame, droppable)));
+    }
+
+    @Override
+    public void onMessage(ClusterMessage message) {
+        switch (message.type()) {
+            case DELIVER -> {
+                SharedFrame frame = codec.share(message.frame());
+                try {
+                    for (String sessionId : message.recipients()) {
+                        sessionRegistry.send(sessionId, frame, message.droppable());
+                    }
+                } catch (IOException e) {
+                    log.warn("Cannot re-encode frame forwarded by {}: {}", message.origin(), e.getMessage());
+                }
+            }
+            case JOINED -> {
+                remoteOwners.put(message.sessionId(), message.origin());
+                // Admitted by the owning node; replicas follow it even if the limit was raced past
+                roomService.applyJoin(message.roomId(), message.sessionId());
+            }
+            case LEFT -> {
+                roomService.leaveRoom(message.roomId(), message.sessionId());
+                if (roomService.getSessionRooms(message.sessionId()).isEmpty()) {
+                    remoteOwners.remove(message.sessionId(), message.origin());
+                }
+            }
+            case DISCONNECTED -> {
+                remoteOwners.remove(message.sessionId(), message.origin());
+                roomService.removeUserFromAllRooms(message.sessionId());
+            }
+            case SYNC -> forgetNode(message.origin());
+        }
+    }
+
+    @Override
+    public void syncTo(Consumer<ClusterMessage> sink) {
+        syncLock.writeLock().lock();
+        try {
+            String nodeId = bus.getNodeId();
+            sink.accept(ClusterMessage.sync(nodeId));
+            for (String sessionId : sessionRegistry.getSessionIds()) {
+                for (String roomId : roomService.getSessionRooms(sessionId)) {
+                    sink.accept(ClusterMessage.joined(nodeId, roomId, sessionId));
+                }
+            }
+        } finally {
+            syncLock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onNodeDown(String nodeId) {
+        log.info("Signaling node {} is down, dropping its sessions", nodeId);
+        forgetNode(nodeId);
+    }
+
+    private void forgetNode(String nodeId) {
+        remoteOwners.forEach((sessionId, owner) -> {
+            if (owner.equals(nodeId) && remoteOwners.remove(sessionId, owner)) {
+                roomService.removeUserFromAllRooms(sessionId);
+            }
+        });
+    }
+}
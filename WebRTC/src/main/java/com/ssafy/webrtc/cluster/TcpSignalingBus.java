@@ -0,0 +1,262 @@
+package com.ssafy.webrtc.cluster;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bus over plain TCP, meant for a handful of nodes on one host or a trusted network.
+ * <p>
+ * Every node dials each configured peer and uses that connection to send; connections
+ * accepted from peers are only read from. A connection starts with both sides exchanging
+ * their node id, after which the dialing side streams its state and then length-prefixed
+ * {@link ClusterMessage}s encoded with the given mapper (CBOR in the application). A peer
+ * whose inbound connection drops is reported down.
+ * <p>
+ * When a peer falls behind, relayed frames to it are dropped once its queue is full.
+ * Membership changes are always queued: a lost one would leave the nodes disagreeing about
+ * rooms until the next reconnect, and they come at the rate sessions join and leave.
+ */
+@Slf4j
+public class TcpSignalingBus implements SignalingBus {
+
+    // Queued messages to a peer past which relayed frames to it are dropped
+    private static final int OUTBOUND_QUEUE_CAPACITY = 65_536;
+    private static final int MAX_MESSAGE_BYTES = 16 * 1024 * 1024;
+    private static final int CONNECT_TIMEOUT_MILLIS = 2_000;
+    private static final long RECONNECT_DELAY_MILLIS = 1_000;
+
+    private final String nodeId;
+    private final InetSocketAddress bindAddress;
+    private final List<InetSocketAddress> peers;
+    private final ObjectMapper objectMapper;
+    private final int queueCapacity;
+    // Outbound links by remote node id
+    private final Map<String, PeerLink> links = new ConcurrentHashMap<>();
+    // Current inbound connection by remote node id, so a stale one closing doesn't report a reconnected node down
+    private final Map<String, Socket> inbound = new ConcurrentHashMap<>();
+    private final Set<Closeable> openSockets = ConcurrentHashMap.newKeySet();
+    private volatile Listener listener;
+    private volatile boolean running;
+    private ServerSocket serverSocket;
+
+    public TcpSignalingBus(String nodeId, InetSocketAddress bindAddress, List<InetSocketAddress> peers,
+                           ObjectMapper objectMapper) {
+        this(nodeId, bindAddress, peers, objectMapper, OUTBOUND_QUEUE_CAPACITY);
+    }
+
+    TcpSignalingBus(String nodeId, InetSocketAddress bindAddress, List<InetSocketAddress> peers,
+                    ObjectMapper objectMapper, int queueCapacity) {
+        this.nodeId = nodeId;
+        this.bindAddress = bindAddress;
+        this.peers = List.copyOf(peers);
+        this.objectMapper = objectMapper;
+        this.queueCapacity = queueCapacity;
+    }
+
+    @Override
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public int getLocalPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    @Override
+    public void start(Listener listener) {
+        this.listener = listener;
+        try {
+            serverSocket = new ServerSocket();
+            serverSocket.setReuseAddress(true);
+            serverSocket.bind(bindAddress);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot bind signaling bus to " + bindAddress, e);
+        }
+        running = true;
+        startDaemon("signal-bus-accept", this::acceptLoop);
+        for (InetSocketAddress peer : peers) {
+            startDaemon("signal-bus-dial-" + peer.getPort(), () -> dialLoop(peer));
+        }
+        log.info("Signaling bus node {} listening on {}, peers {}", nodeId, serverSocket.getLocalSocketAddress(), peers);
+    }
+
+    @Override
+    public void send(String nodeId, ClusterMessage message) {
+        PeerLink link = links.get(nodeId);
+        if (link != null) {
+            link.offer(message);
+        }
+    }
+
+    @Override
+    public void publish(ClusterMessage message) {
+        for (PeerLink link : links.values()) {
+            link.offer(message);
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        closeQuietly(serverSocket);
+        openSockets.forEach(TcpSignalingBus::closeQuietly);
+        links.clear();
+        inbound.clear();
+    }
+
+    private void acceptLoop() {
+        while (running) {
+            try {
+                Socket socket = serverSocket.accept();
+                startDaemon("signal-bus-read", () -> readLoop(socket));
+            } catch (IOException e) {
+                if (running) {
+                    log.warn("Accepting bus connection failed: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void readLoop(Socket socket) {
+        openSockets.add(socket);
+        String remoteNodeId = null;
+        try (socket) {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+            remoteNodeId = in.readUTF();
+            out.writeUTF(nodeId);
+            out.flush();
+            inbound.put(remoteNodeId, socket);
+            while (running) {
+                int length = in.readInt();
+                if (length < 0 || length > MAX_MESSAGE_BYTES) {
+                    throw new IOException("Bad message length " + length);
+                }
+                byte[] bytes = new byte[length];
+                in.readFully(bytes);
+                listener.onMessage(objectMapper.readValue(bytes, ClusterMessage.class));
+            }
+        } catch (IOException e) {
+            if (running) {
+                log.info("Inbound bus connection from {} closed: {}", remoteNodeId, e.getMessage());
+            }
+        } finally {
+            openSockets.remove(socket);
+            if (remoteNodeId != null && inbound.remove(remoteNodeId, socket) && running) {
+                listener.onNodeDown(remoteNodeId);
+            }
+        }
+    }
+
+    private void dialLoop(InetSocketAddress peer) {
+        while (running) {
+            try (Socket socket = new Socket()) {
+                openSockets.add(socket);
+                socket.connect(peer, CONNECT_TIMEOUT_MILLIS);
+                socket.setTcpNoDelay(true);
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+                DataInputStream in = new DataInputStream(socket.getInputStream());
+                out.writeUTF(nodeId);
+                out.flush();
+                PeerLink link = new PeerLink(in.readUTF());
+                // Register before syncing: anything published meanwhile is queued ahead of the
+                // SYNC marker and superseded by the state that follows it
+                links.put(link.remoteNodeId, link);
+                try {
+                    log.info("Connected to bus peer {} at {}", link.remoteNodeId, peer);
+                    listener.syncTo(link::offer);
+                    link.writeLoop(out);
+                } finally {
+                    links.remove(link.remoteNodeId, link);
+                    openSockets.remove(socket);
+                }
+            } catch (IOException e) {
+                if (running) {
+                    log.debug("Bus peer {} unreachable: {}", peer, e.getMessage());
+                }
+            }
+            sleep(RECONNECT_DELAY_MILLIS);
+        }
+    }
+
+    private static void startDaemon(String name, Runnable task) {
+        Thread thread = new Thread(task, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            if (closeable != null) {
+                closeable.close();
+            }
+        } catch (IOException ignored) {
+            // closing anyway
+        }
+    }
+
+    private class PeerLink {
+
+        private final String remoteNodeId;
+        private final BlockingQueue<ClusterMessage> queue = new LinkedBlockingQueue<>();
+
+        PeerLink(String remoteNodeId) {
+            this.remoteNodeId = remoteNodeId;
+        }
+
+        void offer(ClusterMessage message) {
+            if (message.type() == ClusterMessage.Type.DELIVER && queue.size() >= queueCapacity) {
+                log.warn("Bus queue to {} is full, dropping {}", remoteNodeId, message.type());
+                return;
+            }
+            queue.add(message);
+        }
+
+        void writeLoop(DataOutputStream out) throws IOException {
+            while (running) {
+                ClusterMessage message;
+                try {
+                    message = queue.poll(RECONNECT_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                if (message == null) {
+                    continue;
+                }
+                byte[] bytes = objectMapper.writeValueAsBytes(message);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+                if (queue.isEmpty()) {
+                    out.flush();
+                }
+            }
+        }
+    }
+}
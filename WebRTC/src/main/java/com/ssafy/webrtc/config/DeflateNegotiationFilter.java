@@ -0,0 +1,100 @@
+package com.ssafy.webrtc.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+
+/**
+ * Applies {@code signaling.compression} to the permessage-deflate offers of WebSocket
+ * handshakes. Tomcat negotiates extensions from the request headers on its own, after
+ * Spring's handshake handler has run, so the offers are rewritten before the request
+ * reaches either of them.
+ */
+public class DeflateNegotiationFilter extends OncePerRequestFilter {
+
+    static final String EXTENSIONS_HEADER = "Sec-WebSocket-Extensions";
+    static final String PERMESSAGE_DEFLATE = "permessage-deflate";
+    static final String SERVER_NO_CONTEXT_TAKEOVER = "server_no_context_takeover";
+
+    private final SignalingProperties.Compression compression;
+
+    public DeflateNegotiationFilter(SignalingProperties.Compression compression) {
+        this.compression = compression;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return (compression.isEnabled() && compression.isContextTakeover())
+                || request.getHeader(EXTENSIONS_HEADER) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String offers = rewrite(Collections.list(request.getHeaders(EXTENSIONS_HEADER)));
+        chain.doFilter(new ExtensionsRequest(request, offers), response);
+    }
+
+    /**
+     * @return the offers to pass on, or {@code null} if none are left
+     */
+    String rewrite(List<String> headerValues) {
+        List<String> offers = new ArrayList<>();
+        for (String headerValue : headerValues) {
+            for (String offer : headerValue.split(",")) {
+                offer = offer.trim();
+                int semicolon = offer.indexOf(';');
+                String name = (semicolon < 0 ? offer : offer.substring(0, semicolon)).trim();
+                if (!PERMESSAGE_DEFLATE.equalsIgnoreCase(name)) {
+                    offers.add(offer);
+                } else if (compression.isEnabled()) {
+                    // Resetting the window per message trades ratio for 32KB less memory per connection
+                    boolean reset = !compression.isContextTakeover() && !offer.contains(SERVER_NO_CONTEXT_TAKEOVER);
+                    offers.add(reset ? offer + "; " + SERVER_NO_CONTEXT_TAKEOVER : offer);
+                }
+            }
+        }
+        return offers.isEmpty() ? null : String.join(", ", offers);
+    }
+
+    private static final class ExtensionsRequest extends HttpServletRequestWrapper {
+
+        private final String offers;
+
+        ExtensionsRequest(HttpServletRequest request, String offers) {
+            super(request);
+            this.offers = offers;
+        }
+
+        @Override
+        public String getHeader(String name) {
+            return EXTENSIONS_HEADER.equalsIgnoreCase(name) ? offers : super.getHeader(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaders(String name) {
+            if (!EXTENSIONS_HEADER.equalsIgnoreCase(name)) {
+                return super.getHeaders(name);
+            }
+            return Collections.enumeration(offers == null ? List.of() : List.of(offers));
+        }
+
+        @Override
+        public Enumeration<String> getHeaderNames() {
+            List<String> names = Collections.list(super.getHeaderNames());
+            if (offers == null) {
+                names.removeIf(EXTENSIONS_HEADER::equalsIgnoreCase);
+            }
+            return Collections.enumeration(names);
+        }
+    }
+}
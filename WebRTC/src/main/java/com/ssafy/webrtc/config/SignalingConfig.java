@@ -0,0 +1,230 @@
+package com.ssafy.webrtc.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.ssafy.webrtc.cluster.ClusterMode;
+import com.ssafy.webrtc.cluster.InMemorySignalingBus;
+import com.ssafy.webrtc.cluster.SignalingBus;
+import com.ssafy.webrtc.cluster.TcpSignalingBus;
+import com.ssafy.webrtc.controller.RoomEventStream;
+import com.ssafy.webrtc.controller.StaticPage;
+import com.ssafy.webrtc.handler.HashedWheelTimer;
+import com.ssafy.webrtc.handler.IceBatcher;
+import com.ssafy.webrtc.handler.JoinRateLimiter;
+import com.ssafy.webrtc.handler.OutboundDispatcher;
+import com.ssafy.webrtc.handler.RelayGate;
+import com.ssafy.webrtc.handler.SessionHeartbeat;
+import com.ssafy.webrtc.handler.SessionRegistry;
+import com.ssafy.webrtc.handler.SessionResumption;
+import com.ssafy.webrtc.handler.SignalingHandler;
+import com.ssafy.webrtc.metrics.CompressionSampler;
+import com.ssafy.webrtc.metrics.RoomSizeDistribution;
+import com.ssafy.webrtc.metrics.SignalingMetrics;
+import com.ssafy.webrtc.service.RoomJournal;
+import com.ssafy.webrtc.service.RoomService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.ClassUtils;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+@EnableConfigurationProperties(SignalingProperties.class)
+public class SignalingConfig {
+
+    // With spring.threads.virtual.enabled on JDK 21 Tomcat already dispatches inbound frames on
+    // virtual threads; outbound writes follow suit, one virtual thread per drain task
+    @Bean(destroyMethod = "shutdown")
+    public OutboundDispatcher outboundDispatcher(SignalingProperties properties, Environment environment,
+                                                 SignalingMetrics metrics) {
+        SignalingProperties.Outbound outbound = properties.getOutbound();
+        Executor writers = Threading.VIRTUAL.isActive(environment)
+                ? new VirtualThreadTaskExecutor("signal-writer-")
+                : Executors.newFixedThreadPool(outbound.getWriterThreads(), new CustomizableThreadFactory("signal-writer-"));
+        return new OutboundDispatcher(writers, outbound, metrics::relayLatency);
+    }
+
+    @Bean
+    public RoomSizeDistribution roomSizeDistribution() {
+        return new RoomSizeDistribution();
+    }
+
+    // The distribution listens from the start, so rooms restored from the journal are counted too
+    @Bean
+    public RoomService roomService(SignalingProperties properties, RoomSizeDistribution roomSizeDistribution) {
+        SignalingProperties.Rooms rooms = properties.getRooms();
+        RoomService roomService = new RoomService(rooms.getStore(), rooms.getMaxSize());
+        roomService.addListener(roomSizeDistribution);
+        return roomService;
+    }
+
+    @Bean
+    public JoinRateLimiter joinRateLimiter(SignalingProperties properties) {
+        SignalingProperties.JoinRate joinRate = properties.getJoinRate();
+        return new JoinRateLimiter(joinRate.getPerAddress(), joinRate.getPerAddressBurst(),
+                joinRate.getPerRoom(), joinRate.getPerRoomBurst());
+    }
+
+    @Bean
+    public RelayGate relayGate(SignalingProperties properties, RoomService roomService) {
+        SignalingProperties.RelayRate relayRate = properties.getRelayRate();
+        return new RelayGate(roomService, relayRate.getPerSession(), relayRate.getPerSessionBurst());
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public IceBatcher iceBatcher(SignalingProperties properties) {
+        Duration window = properties.getIceBatch().getWindow();
+        if (window.isZero()) {
+            return IceBatcher.disabled();
+        }
+        return new IceBatcher(window,
+                Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("signal-ice-batch-")));
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public SessionResumption sessionResumption(SignalingProperties properties) {
+        SignalingProperties.Resume resume = properties.getResume();
+        if (resume.getWindow().isZero()) {
+            return SessionResumption.disabled();
+        }
+        byte[] secret = resume.getSecret() != null ? resume.getSecret().getBytes(StandardCharsets.UTF_8) : null;
+        return new SessionResumption(resume.getWindow(), secret,
+                Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("signal-resume-")));
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public SessionHeartbeat sessionHeartbeat(SignalingProperties properties, SessionRegistry sessionRegistry,
+                                             OutboundDispatcher outboundDispatcher, Environment environment) {
+        SignalingProperties.Heartbeat heartbeat = properties.getHeartbeat();
+        if (heartbeat.getPingInterval().isZero()) {
+            return SessionHeartbeat.disabled();
+        }
+        HashedWheelTimer timer = new HashedWheelTimer(new CustomizableThreadFactory("signal-heartbeat-"),
+                heartbeat.getTick(), heartbeat.getWheelSize());
+        // Closing a half-open connection holds its thread for up to signaling.outbound.send-timeout
+        Executor closer = Threading.VIRTUAL.isActive(environment)
+                ? new VirtualThreadTaskExecutor("signal-idle-closer-")
+                : Executors.newFixedThreadPool(heartbeat.getCloseThreads(),
+                        new CustomizableThreadFactory("signal-idle-closer-"));
+        return new SessionHeartbeat(timer, sessionRegistry, outboundDispatcher, closer, heartbeat.getPingInterval(),
+                heartbeat.getIdleTimeout());
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public RoomEventStream roomEventStream(SignalingProperties properties, RoomService roomService,
+                                           ObjectMapper objectMapper, Environment environment) {
+        SignalingProperties.RoomEvents roomEvents = properties.getRoomEvents();
+        if (roomEvents.getTick().isZero()) {
+            return RoomEventStream.disabled();
+        }
+        // A writer stuck on a subscriber that stopped reading holds its thread until the write times out;
+        // the buffer limit drops that subscriber meanwhile, so the others only wait for a free writer
+        Executor writers = Threading.VIRTUAL.isActive(environment)
+                ? new VirtualThreadTaskExecutor("signal-room-event-writer-")
+                : Executors.newFixedThreadPool(roomEvents.getWriterThreads(),
+                        new CustomizableThreadFactory("signal-room-event-writer-"));
+        RoomEventStream stream = new RoomEventStream(roomService, objectMapper.getFactory(), roomEvents.getTick(),
+                roomEvents.getKeepAlive(), roomEvents.getTimeout(), roomEvents.getBufferLimit(),
+                Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("signal-room-events-")),
+                writers);
+        roomService.addListener(stream);
+        return stream;
+    }
+
+    // Built before the web server starts, so restored sessions are parked before their clients reconnect
+    @Bean(destroyMethod = "stop")
+    public RoomJournal roomJournal(SignalingProperties properties, RoomService roomService,
+                                   SignalingHandler signalingHandler) throws IOException {
+        SignalingProperties.Journal journal = properties.getJournal();
+        if (!journal.isEnabled()) {
+            return RoomJournal.disabled();
+        }
+        if (properties.getCluster().getMode() != ClusterMode.NONE) {
+            // Rooms hold other nodes' sessions too, which must not come back as local ones
+            throw new IllegalStateException("signaling.journal.enabled requires signaling.cluster.mode=none");
+        }
+        RoomJournal roomJournal = new RoomJournal(Path.of(journal.getDirectory()),
+                Math.toIntExact(journal.getSegmentSize().toBytes()), journal.getQueueCapacity(),
+                journal.getFlushInterval(), journal.getCompactInterval());
+        signalingHandler.restore(roomJournal.recover());
+        roomJournal.start(roomService);
+        return roomJournal;
+    }
+
+    // Devtools is only on the classpath under bootRun, and it leaves static/ out of restarts
+    @Bean
+    public StaticPage indexPage(SignalingProperties properties) throws IOException {
+        boolean reload = properties.getPage().isReload()
+                || ClassUtils.isPresent("org.springframework.boot.devtools.restart.Restarter", null);
+        return new StaticPage(new ClassPathResource("static/index.html"), reload);
+    }
+
+    @Bean(destroyMethod = "stop")
+    public CompressionSampler compressionSampler(SignalingProperties properties, MeterRegistry registry) {
+        SignalingProperties.Compression compression = properties.getCompression();
+        if (compression.getSampleEvery() <= 0) {
+            return CompressionSampler.disabled();
+        }
+        // One thread owns the sampler's Deflater; a backlog drops samples instead of queueing frames
+        ThreadPoolExecutor sampler = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(compression.getSampleQueueCapacity()),
+                new CustomizableThreadFactory("signal-compression-sampler-"), new ThreadPoolExecutor.DiscardPolicy());
+        return new CompressionSampler(registry, compression.getSampleEvery(), compression.getSampleMinSize(),
+                sampler);
+    }
+
+    @Bean
+    public FilterRegistrationBean<DeflateNegotiationFilter> deflateNegotiationFilter(SignalingProperties properties) {
+        FilterRegistrationBean<DeflateNegotiationFilter> registration =
+                new FilterRegistrationBean<>(new DeflateNegotiationFilter(properties.getCompression()));
+        registration.addUrlPatterns("/signal");
+        return registration;
+    }
+
+    // Bus messages are CBOR: smaller than JSON, and the relayed frames they carry need no escaping
+    @Bean(destroyMethod = "stop")
+    public SignalingBus signalingBus(SignalingProperties properties) {
+        SignalingProperties.Cluster cluster = properties.getCluster();
+        String nodeId = cluster.getNodeId() != null ? cluster.getNodeId() : UUID.randomUUID().toString();
+        return switch (cluster.getMode()) {
+            case NONE -> InMemorySignalingBus.standalone(nodeId);
+            case IN_MEMORY -> new InMemorySignalingBus(InMemorySignalingBus.Network.shared(), nodeId);
+            case TCP -> new TcpSignalingBus(nodeId,
+                    new InetSocketAddress(cluster.getBindAddress(), cluster.getPort()),
+                    parsePeers(cluster.getPeers()), new CBORMapper());
+        };
+    }
+
+    private static List<InetSocketAddress> parsePeers(List<String> peers) {
+        return peers.stream()
+                .map(String::trim)
+                .filter(peer -> !peer.isEmpty())
+                .map(peer -> {
+                    int colon = peer.lastIndexOf(':');
+                    if (colon < 0) {
+                        throw new IllegalArgumentException("Cluster peer must be host:port, got " + peer);
+                    }
+                    return new InetSocketAddress(peer.substring(0, colon), Integer.parseInt(peer.substring(colon + 1)));
+                })
+                .toList();
+    }
+}
@@ -0,0 +1,237 @@
+package com.ssafy.webrtc.config;
+
+import com.ssafy.webrtc.cluster.ClusterMode;
+import com.ssafy.webrtc.handler.OverflowPolicy;
+import com.ssafy.webrtc.service.RoomStore;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "signaling")
+public class SignalingProperties {
+
+    private Outbound outbound = new Outbound();
+
+    private Cluster cluster = new Cluster();
+
+    private IceBatch iceBatch = new IceBatch();
+
+    private Compression compression = new Compression();
+
+    private Rooms rooms = new Rooms();
+
+    private JoinRate joinRate = new JoinRate();
+
+    private RelayRate relayRate = new RelayRate();
+
+    private Drain drain = new Drain();
+
+    private Resume resume = new Resume();
+
+    private Heartbeat heartbeat = new Heartbeat();
+
+    private Page page = new Page();
+
+    private Journal journal = new Journal();
+
+    private RoomEvents roomEvents = new RoomEvents();
+
+    @Getter
+    @Setter
+    public static class Outbound {
+
+        // Maximum number of frames buffered per session before the overflow policy applies
+        private int bufferLimit = 256;
+
+        private OverflowPolicy overflowPolicy = OverflowPolicy.DROP_OLDEST_ICE;
+
+        // Threads shared by all sessions for draining their outbound queues
+        private int writerThreads = Runtime.getRuntime().availableProcessors() * 2;
+
+        // Upper bound for a single blocking write before Tomcat fails the send
+        private Duration sendTimeout = Duration.ofSeconds(5);
+    }
+
+    @Getter
+    @Setter
+    public static class Cluster {
+
+        private ClusterMode mode = ClusterMode.NONE;
+
+        // Unique per node; a random id is generated when unset
+        private String nodeId;
+
+        // Address the TCP bus listens on for connections from peers
+        private String bindAddress = "127.0.0.1";
+
+        private int port = 7400;
+
+        // host:port of every other node's TCP bus
+        private List<String> peers = new ArrayList<>();
+    }
+
+    @Getter
+    @Setter
+    public static class IceBatch {
+
+        // Coalescing window for ice-candidate frames per sender/target pair (5-20ms); 0 disables batching
+        private Duration window = Duration.ZERO;
+    }
+
+    @Getter
+    @Setter
+    public static class Compression {
+
+        // Accept permessage-deflate offers from clients; Tomcat then compresses every message on the connection
+        private boolean enabled = true;
+
+        // Keep the deflate window between messages; false makes the server reset it per message
+        private boolean contextTakeover = true;
+
+        // Deflate one outbound frame in this many per message type to report ratio and cost; 0 disables
+        private int sampleEvery = 64;
+
+        // Sampled frames shorter than this only have their size recorded; ICE candidates rarely reach it
+        private int sampleMinSize = 512;
+
+        // Samples waiting for the sampler thread; further ones are dropped until it catches up
+        private int sampleQueueCapacity = 256;
+    }
+
+    @Getter
+    @Setter
+    public static class Rooms {
+
+        // Membership storage: hash sets, or compact copy-on-write arrays for small rooms
+        private RoomStore store = RoomStore.HASH;
+
+        // Participants a room admits before joins get a room-full reply; 0 means no limit
+        private int maxSize = 0;
+    }
+
+    @Getter
+    @Setter
+    public static class JoinRate {
+
+        // Joins per second accepted from one client address, with bursts up to perAddressBurst; 0 disables
+        private double perAddress = 0;
+
+        private int perAddressBurst = 10;
+
+        // Joins per second accepted into one room, with bursts up to perRoomBurst; 0 disables
+        private double perRoom = 10;
+
+        private int perRoomBurst = 20;
+    }
+
+    @Getter
+    @Setter
+    public static class RelayRate {
+
+        // Relayed frames per second accepted from one session, with bursts up to perSessionBurst; 0 disables
+        private double perSession = 100;
+
+        private int perSessionBurst = 400;
+    }
+
+    @Getter
+    @Setter
+    public static class Drain {
+
+        // Minimum delay clients are told to wait before reconnecting
+        private Duration reconnectDelay = Duration.ofSeconds(1);
+
+        // Random extra delay per client on top of reconnectDelay, spreading reconnects over this window
+        private Duration reconnectJitter = Duration.ofSeconds(10);
+
+        // Upper bound for waiting on queued frames before the remaining sessions are closed
+        private Duration timeout = Duration.ofSeconds(5);
+    }
+
+    @Getter
+    @Setter
+    public static class Resume {
+
+        // How long a dropped session keeps its ID and rooms while buffering (up to outbound.buffer-limit frames); 0 disables
+        private Duration window = Duration.ofSeconds(15);
+
+        // HMAC key for resumption tokens; random per process when unset, since only the issuing node can resume
+        private String secret;
+    }
+
+    @Getter
+    @Setter
+    public static class Heartbeat {
+
+        // Connections quiet for this long are pinged; 0 disables the heartbeat
+        private Duration pingInterval = Duration.ofSeconds(20);
+
+        // Connections quiet for this long (no frames, no pongs) are closed and cleaned up
+        private Duration idleTimeout = Duration.ofSeconds(60);
+
+        // Resolution of the timing wheel; the idle timeout is enforced within one ping interval
+        private Duration tick = Duration.ofMillis(100);
+
+        // Buckets in the timing wheel; tick * wheel-size covering the ping interval keeps timeouts to one round
+        private int wheelSize = 512;
+
+        // Threads closing reaped connections, unless virtual threads are enabled
+        private int closeThreads = 2;
+    }
+
+    @Getter
+    @Setter
+    public static class Page {
+
+        // Re-read index.html when it changes instead of serving the copy loaded at startup
+        private boolean reload = false;
+    }
+
+    @Getter
+    @Setter
+    public static class Journal {
+
+        // Journal room membership to disk and restore it on startup; standalone nodes with resumption only
+        private boolean enabled = false;
+
+        private String directory = "data/room-journal";
+
+        // Size of one memory-mapped log file; a full one is compacted into a snapshot early
+        private DataSize segmentSize = DataSize.ofMegabytes(16);
+
+        // Joins/leaves buffered between flushes; on overflow the next flush writes a snapshot instead
+        private int queueCapacity = 65536;
+
+        // Batch write + force period: the most membership changes a crash can lose
+        private Duration flushInterval = Duration.ofMillis(50);
+
+        private Duration compactInterval = Duration.ofMinutes(5);
+    }
+
+    @Getter
+    @Setter
+    public static class RoomEvents {
+
+        // Room occupancy changes are coalesced and pushed to /api/rooms/events subscribers once per tick; 0 disables
+        private Duration tick = Duration.ofMillis(500);
+
+        // Comment line sent after this much silence, so proxies keep the stream open and dead subscribers are dropped
+        private Duration keepAlive = Duration.ofSeconds(15);
+
+        // Lifetime of one subscription; EventSource clients reconnect on their own and get a fresh snapshot
+        private Duration timeout = Duration.ofMinutes(30);
+
+        // Events buffered per subscriber; one that falls this far behind stopped reading and is dropped
+        private int bufferLimit = 32;
+
+        // Threads writing to subscribers, unless virtual threads are enabled
+        private int writerThreads = 4;
+    }
+}
@@ -1,11 +1,14 @@
 package com.ssafy.webrtc.config;
 
+import com.ssafy.webrtc.handler.SignalingDrain;
 import com.ssafy.webrtc.handler.SignalingHandler;
+import com.ssafy.webrtc.handler.WireFormat;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.socket.config.annotation.EnableWebSocket;
 import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
 import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+import org.springframework.web.socket.server.support.DefaultHandshakeHandler;
 
 @Configuration
 @EnableWebSocket
@@ -13,11 +16,17 @@ import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry
 public class WebSocketConfig implements WebSocketConfigurer {
 
     private final SignalingHandler signalingHandler;
+    private final SignalingDrain signalingDrain;
 
     //웹소켓 핸들러
     @Override
     public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        // Clients pick CBOR with the "signal.cbor" subprotocol; no subprotocol means JSON
+        DefaultHandshakeHandler handshakeHandler = new DefaultHandshakeHandler();
+        handshakeHandler.setSupportedProtocols(WireFormat.subprotocols());
         registry.addHandler(signalingHandler, "/signal")
+                .setHandshakeHandler(handshakeHandler)
+                .addInterceptors(signalingDrain)
                 .setAllowedOrigins("*");
     }
 }
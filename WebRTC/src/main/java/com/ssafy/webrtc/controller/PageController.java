@@ -1,33 +1,50 @@
 package com.ssafy.webrtc.controller;
 
-import org.springframework.core.io.ClassPathResource;
-import org.springframework.core.io.Resource;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RestController;
 
-import java.io.IOException;
-import java.nio.charset.StandardCharsets;
-
 @RestController
+@RequiredArgsConstructor
 public class PageController {
 
+    private final StaticPage indexPage;
+
+    /**
+     * The client page from memory, compressed if the client accepts it. Browsers revalidate
+     * on every visit and get a 304 without a body while their copy's ETag still matches;
+     * Spring answers {@code If-None-Match} from the ETag set here.
+     */
     @GetMapping(value = "/", produces = MediaType.TEXT_HTML_VALUE)
-    public ResponseEntity<String> index() throws IOException {
-        Resource resource = new ClassPathResource("static/index.html");
-        String content = new String(resource.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
-        return ResponseEntity.ok(content);
+    public ResponseEntity<byte[]> index(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        StaticPage.Variant variant = indexPage.select(acceptEncoding);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.TEXT_HTML)
+                .eTag(variant.etag())
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (variant.encoding() != null) {
+            response.header(HttpHeaders.CONTENT_ENCODING, variant.encoding());
+        }
+        return response.body(variant.body());
     }
 
     @GetMapping(value = "/index.html", produces = MediaType.TEXT_HTML_VALUE)
-    public ResponseEntity<String> indexHtml() throws IOException {
-        return index();
+    public ResponseEntity<byte[]> indexHtml(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return index(acceptEncoding);
     }
 
     @GetMapping(value = "/room/{roomId}", produces = MediaType.TEXT_HTML_VALUE)
-    public ResponseEntity<String> joinRoom(@PathVariable String roomId) throws IOException {
-        return index();
+    public ResponseEntity<byte[]> joinRoom(@PathVariable String roomId,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return index(acceptEncoding);
     }
 }
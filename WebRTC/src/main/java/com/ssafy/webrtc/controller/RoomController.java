@@ -1,34 +1,115 @@
 package com.ssafy.webrtc.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ssafy.webrtc.service.RoomService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 @RestController
 @RequestMapping("/api/rooms")
 @RequiredArgsConstructor
 public class RoomController {
 
+    static final int DEFAULT_LIMIT = 50;
+    static final int MAX_LIMIT = 500;
+
+    // Rooms looked at per page at most, so narrow filters can't turn a request into a full scan
+    static final int MAX_SCAN = 10_000;
+
+    // Exists answers for rooms of up to this many participants are serialized once
+    static final int CACHED_EXISTS_ANSWERS = 64;
+
     private final RoomService roomService;
+    private final ObjectMapper objectMapper;
+    private final RoomEventStream roomEventStream;
+    private final AtomicReferenceArray<ExistsAnswer> existsAnswers =
+            new AtomicReferenceArray<>(CACHED_EXISTS_ANSWERS + 1);
 
+    /**
+     * One page of rooms in id order, written straight to the response as a {@link RoomPage}:
+     * <pre>
+     * {"rooms":[{"roomId":"a","participantCount":2}, ...],"nextCursor":"..."}
+     * </pre>
+     * {@code nextCursor} is {@code null} on the last page. A page may hold fewer than
+     * {@code limit} rooms and still have a cursor when the filters skipped many rooms.
+     */
     @GetMapping
-    public ResponseEntity<List<RoomInfo>> getRooms() {
-        Map<String, Set<String>> allRooms = roomService.getAllRooms();
+    public ResponseEntity<StreamingResponseBody> getRooms(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + DEFAULT_LIMIT) int limit,
+            @RequestParam(required = false) Integer minParticipants,
+            @RequestParam(required = false) Integer maxParticipants) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            return ResponseEntity.badRequest().build();
+        }
+        String afterRoomId;
+        try {
+            afterRoomId = decodeCursor(cursor);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        int min = minParticipants != null ? minParticipants : 0;
+        int max = maxParticipants != null ? maxParticipants : Integer.MAX_VALUE;
 
-        List<RoomInfo> rooms = allRooms.entrySet().stream()
-                .map(entry -> new RoomInfo(entry.getKey(), entry.getValue().size()))
-                .collect(Collectors.toList());
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+                json.writeStartObject();
+                json.writeArrayFieldStart("rooms");
+                int written = 0;
+                int scanned = 0;
+                String last = null;
+                boolean more = false;
+                for (String roomId : roomService.getRoomIdsAfter(afterRoomId)) {
+                    if (written == limit || scanned == MAX_SCAN) {
+                        more = true;
+                        break;
+                    }
+                    scanned++;
+                    last = roomId;
+                    int participantCount = roomService.getParticipantCount(roomId);
+                    // A count of 0 means the room emptied out while the page was being written
+                    if (participantCount > 0 && participantCount >= min && participantCount <= max) {
+                        json.writeStartObject();
+                        json.writeStringField("roomId", roomId);
+                        json.writeNumberField("participantCount", participantCount);
+                        json.writeEndObject();
+                        written++;
+                    }
+                }
+                json.writeEndArray();
+                json.writeStringField("nextCursor", more ? encodeCursor(last) : null);
+                json.writeEndObject();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
 
-        return ResponseEntity.ok(rooms);
+    /**
+     * Room occupancy as server-sent events: a snapshot of all rooms, then coalesced deltas
+     * (see {@link RoomEventStream}). 404 when {@code signaling.room-events.tick} is 0.
+     */
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamRooms() {
+        if (!roomEventStream.isEnabled()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(roomEventStream.subscribe());
     }
 
     @GetMapping("/count")
@@ -36,13 +117,53 @@ public class RoomController {
         return ResponseEntity.ok(roomService.getRoomCount());
     }
 
+    /**
+     * Whether an invite link still leads somewhere, as a {@link RoomExistsResponse}. The
+     * answer only depends on the participant count, so the common ones (including the
+     * negative answer for a missing room) are serialized once and shared. Clients
+     * revalidating with the ETag get a 304 while the count has not changed.
+     */
     @GetMapping("/{roomId}/exists")
-    public ResponseEntity<RoomExistsResponse> checkRoomExists(@PathVariable String roomId) {
-        int participantCount = roomService.getParticipantCount(roomId);
-        boolean exists = participantCount > 0;
-        return ResponseEntity.ok(new RoomExistsResponse(exists, participantCount));
+    public ResponseEntity<byte[]> checkRoomExists(@PathVariable String roomId) throws JsonProcessingException {
+        ExistsAnswer answer = existsAnswer(roomService.getParticipantCount(roomId));
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(answer.etag())
+                .cacheControl(CacheControl.noCache())
+                .body(answer.body());
+    }
+
+    private ExistsAnswer existsAnswer(int participantCount) throws JsonProcessingException {
+        boolean cacheable = participantCount <= CACHED_EXISTS_ANSWERS;
+        ExistsAnswer answer = cacheable ? existsAnswers.get(participantCount) : null;
+        if (answer == null) {
+            boolean exists = participantCount > 0;
+            RoomExistsResponse response = new RoomExistsResponse(exists, participantCount,
+                    exists && participantCount >= roomService.getMaxRoomSize());
+            answer = new ExistsAnswer(objectMapper.writeValueAsBytes(response), "\"" + participantCount + "\"");
+            if (cacheable) {
+                // Racing requests build equal answers, whichever is kept does not matter
+                existsAnswers.set(participantCount, answer);
+            }
+        }
+        return answer;
+    }
+
+    // Cursors are opaque to clients: the last room id of the previous page, base64url encoded
+    static String encodeCursor(String roomId) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(roomId.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static String decodeCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
     }
 
     public record RoomInfo(String roomId, int participantCount) {}
-    public record RoomExistsResponse(boolean exists, int participantCount) {}
+    public record RoomPage(List<RoomInfo> rooms, String nextCursor) {}
+    public record RoomExistsResponse(boolean exists, int participantCount, boolean full) {}
+
+    private record ExistsAnswer(byte[] body, String etag) {}
 }
@@ -0,0 +1,381 @@
+package com.ssafy.webrtc.controller;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.ssafy.webrtc.service.RoomListener;
+import com.ssafy.webrtc.service.RoomService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pushes room occupancy to lobby clients as server-sent events, instead of every client
+ * polling the room list. A subscriber gets a snapshot of all rooms in pages, then deltas:
+ * <pre>
+ * event:snapshot            data:{"rooms":[{"roomId":"a","participantCount":2}],"more":true}
+ * event:snapshot-continued  data:{"rooms":[...],"more":false}
+ * event:room-created        data:{"roomId":"a","participantCount":1}
+ * event:room-size-changed   data:{"roomId":"a","participantCount":3}
+ * event:room-removed        data:{"roomId":"a"}
+ * </pre>
+ * Membership changes are coalesced per room and sent once per tick, rendered once and
+ * shared by all subscribers, so the work follows the number of rooms that changed rather
+ * than clients times rooms. Every room touched during a tick gets an event with its final
+ * count, even when it ended where it started: a snapshot page read during the tick may have
+ * seen a state in between. Deltas carry absolute counts, so repeating what a snapshot showed
+ * is harmless.
+ * <p>
+ * The tick thread only appends to per-subscriber buffers; writes are blocking and run on the
+ * writer pool, one drain task per subscriber at a time. A subscriber whose buffer fills up
+ * stopped reading and is dropped, without holding up the others. Snapshot pages are read
+ * lazily by the drain task, each after the deltas queued before it, so a page is never older
+ * than a delta written before it.
+ */
+@Slf4j
+public class RoomEventStream implements RoomListener {
+
+    static final String SNAPSHOT = "snapshot";
+    static final String SNAPSHOT_CONTINUED = "snapshot-continued";
+    static final String ROOM_CREATED = "room-created";
+    static final String ROOM_SIZE_CHANGED = "room-size-changed";
+    static final String ROOM_REMOVED = "room-removed";
+
+    // Rooms per snapshot event
+    static final int SNAPSHOT_PAGE_SIZE = 100;
+
+    private static final Set<DataWithMediaType> KEEP_ALIVE =
+            Set.of(new DataWithMediaType(":keep-alive\n\n", MediaType.TEXT_PLAIN));
+
+    private final RoomService roomService;
+    private final JsonFactory jsonFactory;
+    private final Duration tick;
+    private final long keepAliveNanos;
+    private final Duration timeout;
+    private final int bufferLimit;
+    private final ScheduledExecutorService scheduler;
+    private final Executor writers;
+    private final Map<String, Change> pending = new ConcurrentHashMap<>();
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private long lastSentNanos = System.nanoTime();
+
+    /**
+     * @param keepAlive idle time after which subscribers get a comment line, so dead ones are found
+     * @param timeout     lifetime of one subscription; EventSource clients reconnect and get a new snapshot
+     * @param bufferLimit events buffered per subscriber before it is dropped as not reading
+     * @param writers     runs the blocking writes, so one stalled subscriber only stalls itself
+     */
+    public RoomEventStream(RoomService roomService, JsonFactory jsonFactory, Duration tick, Duration keepAlive,
+                           Duration timeout, int bufferLimit, ScheduledExecutorService scheduler, Executor writers) {
+        this.roomService = roomService;
+        this.jsonFactory = jsonFactory;
+        this.tick = tick;
+        this.keepAliveNanos = keepAlive.toNanos();
+        this.timeout = timeout;
+        this.bufferLimit = bufferLimit;
+        this.scheduler = scheduler;
+        this.writers = writers;
+    }
+
+    public static RoomEventStream disabled() {
+        return new RoomEventStream(null, null, Duration.ZERO, Duration.ZERO, Duration.ZERO, 0, null, null);
+    }
+
+    public boolean isEnabled() {
+        return scheduler != null;
+    }
+
+    public void start() {
+        if (isEnabled()) {
+            scheduler.scheduleAtFixedRate(this::flush, tick.toNanos(), tick.toNanos(), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public void stop() {
+        if (!isEnabled()) {
+            return;
+        }
+        scheduler.shutdownNow();
+        subscribers.forEach(Subscriber::complete);
+        subscribers.clear();
+        if (writers instanceof ExecutorService executorService) {
+            executorService.shutdown();
+        }
+    }
+
+    /**
+     * Opens a subscription. It joins on the tick thread, after the changes made so far went out
+     * to the others, so its first deltas are labelled against the previous tick like theirs;
+     * its snapshot pages are read and sent by the writer pool.
+     */
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(error -> subscriber.close());
+        try {
+            scheduler.execute(() -> {
+                flush();
+                subscribers.add(subscriber);
+                subscriber.start();
+            });
+        } catch (RejectedExecutionException e) {
+            // Stopped: end the response instead of leaving it open with nothing to feed it
+            log.debug("Room event tick thread rejected subscriber: {}", e.getMessage());
+            emitter.complete();
+        }
+        return emitter;
+    }
+
+    int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    @Override
+    public void onJoined(String roomId, String sessionId, int size) {
+        record(roomId, size - 1, size);
+    }
+
+    @Override
+    public void onLeft(String roomId, String sessionId, int size) {
+        record(roomId, size + 1, size);
+    }
+
+    // Runs under the room lock: only the first size before and the latest size after are kept
+    private void record(String roomId, int before, int after) {
+        pending.compute(roomId, (id, change) -> {
+            if (change == null) {
+                return new Change(before, after);
+            }
+            change.after = after;
+            return change;
+        });
+    }
+
+    /**
+     * Sends the changes since the last tick to every subscriber, or a keep-alive comment
+     * when nothing has been sent for a while.
+     */
+    void flush() {
+        try {
+            if (subscribers.isEmpty()) {
+                // A later subscriber starts from a snapshot, so these changes are of no use to anyone
+                pending.clear();
+                return;
+            }
+            StringBuilder events = new StringBuilder();
+            for (String roomId : pending.keySet()) {
+                Change change = pending.remove(roomId);
+                if (change != null) {
+                    appendDelta(events, roomId, change);
+                }
+            }
+            long now = System.nanoTime();
+            Set<DataWithMediaType> frame;
+            if (!events.isEmpty()) {
+                frame = Set.of(new DataWithMediaType(events.toString(), MediaType.TEXT_PLAIN));
+            } else if (now - lastSentNanos >= keepAliveNanos) {
+                frame = KEEP_ALIVE;
+            } else {
+                return;
+            }
+            lastSentNanos = now;
+            for (Subscriber subscriber : subscribers) {
+                subscriber.enqueue(frame);
+            }
+        } catch (RuntimeException e) {
+            // An exception would cancel the periodic task for good
+            log.error("Room event tick failed", e);
+        }
+    }
+
+    private void appendDelta(StringBuilder events, String roomId, Change change) {
+        String event = change.after == 0 ? ROOM_REMOVED : change.before == 0 ? ROOM_CREATED : ROOM_SIZE_CHANGED;
+        events.append(render(event, json -> {
+            json.writeStartObject();
+            json.writeStringField("roomId", roomId);
+            if (change.after > 0) {
+                json.writeNumberField("participantCount", change.after);
+            }
+            json.writeEndObject();
+        }));
+    }
+
+    /**
+     * Renders the rooms after {@code afterRoomId}, at most one page of them.
+     *
+     * @return the event, and the cursor of the next page or {@code null} after the last one
+     */
+    private SnapshotPage snapshotPage(String afterRoomId) {
+        Iterator<String> roomIds = roomService.getRoomIdsAfter(afterRoomId).iterator();
+        String[] last = new String[1];
+        String event = render(afterRoomId == null ? SNAPSHOT : SNAPSHOT_CONTINUED, json -> {
+            json.writeStartObject();
+            json.writeArrayFieldStart("rooms");
+            for (int rooms = 0; rooms < SNAPSHOT_PAGE_SIZE && roomIds.hasNext(); ) {
+                String roomId = roomIds.next();
+                last[0] = roomId;
+                int participantCount = roomService.getParticipantCount(roomId);
+                if (participantCount > 0) {
+                    json.writeStartObject();
+                    json.writeStringField("roomId", roomId);
+                    json.writeNumberField("participantCount", participantCount);
+                    json.writeEndObject();
+                    rooms++;
+                }
+            }
+            json.writeEndArray();
+            json.writeBooleanField("more", roomIds.hasNext());
+            json.writeEndObject();
+        });
+        return new SnapshotPage(Set.of(new DataWithMediaType(event, MediaType.TEXT_PLAIN)),
+                roomIds.hasNext() ? last[0] : null);
+    }
+
+    // JSON never contains a raw line break, so the data always fits on one data: line
+    private String render(String event, JsonBody body) {
+        StringWriter out = new StringWriter(64);
+        out.append("event:").append(event).append("\ndata:");
+        try (JsonGenerator json = jsonFactory.createGenerator(out)) {
+            body.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.append("\n\n").toString();
+    }
+
+    private void execute(Runnable task) {
+        try {
+            writers.execute(task);
+        } catch (RejectedExecutionException e) {
+            log.debug("Room event writer pool rejected task: {}", e.getMessage());
+        }
+    }
+
+    private static boolean send(SseEmitter emitter, Set<DataWithMediaType> frame) {
+        try {
+            emitter.send(frame);
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            // Disconnected (the container completes the emitter), or already completed by a timeout
+            log.debug("Dropping room event subscriber: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * One subscriber's buffer, drained by a single writer task at a time, which keeps the
+     * events in order and never writes to the emitter concurrently.
+     */
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final Deque<Set<DataWithMediaType>> frames = new ArrayDeque<>();
+        // Where the next snapshot page starts: "" before the first, null once the snapshot is complete.
+        // Only the drain task uses it.
+        private String snapshotCursor = "";
+        private boolean draining;
+        private boolean closed;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void start() {
+            synchronized (this) {
+                draining = true;
+            }
+            execute(this::drain);
+        }
+
+        void enqueue(Set<DataWithMediaType> frame) {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                if (frames.size() >= bufferLimit) {
+                    log.debug("Room event subscriber fell {} events behind, dropping it", bufferLimit);
+                    close();
+                    // Completing waits for a write in progress, which may be stuck on this very subscriber
+                    execute(emitter::complete);
+                    return;
+                }
+                frames.addLast(frame);
+                if (draining) {
+                    return;
+                }
+                draining = true;
+            }
+            execute(this::drain);
+        }
+
+        void close() {
+            synchronized (this) {
+                closed = true;
+                frames.clear();
+            }
+            subscribers.remove(this);
+        }
+
+        void complete() {
+            close();
+            execute(emitter::complete);
+        }
+
+        private void drain() {
+            while (true) {
+                Set<DataWithMediaType> frame;
+                synchronized (this) {
+                    frame = closed ? null : frames.pollFirst();
+                    if (frame == null && (closed || snapshotCursor == null)) {
+                        draining = false;
+                        return;
+                    }
+                }
+                if (frame == null) {
+                    SnapshotPage page = snapshotPage(snapshotCursor.isEmpty() ? null : snapshotCursor);
+                    snapshotCursor = page.nextCursor();
+                    frame = page.frame();
+                }
+                if (!send(emitter, frame)) {
+                    close();
+                    return;
+                }
+            }
+        }
+    }
+
+    private record SnapshotPage(Set<DataWithMediaType> frame, String nextCursor) {}
+
+    private interface JsonBody {
+        void write(JsonGenerator json) throws IOException;
+    }
+
+    private static final class Change {
+
+        private final int before;
+        private int after;
+
+        Change(int before, int after) {
+            this.before = before;
+            this.after = after;
+        }
+    }
+}
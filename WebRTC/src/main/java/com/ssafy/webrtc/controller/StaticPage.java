@@ -0,0 +1,164 @@
+package com.ssafy.webrtc.controller;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+import org.springframework.util.DigestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A page read once and kept in memory with its compressed variants, so serving it costs no
+ * resource lookup, decoding or compression per request. The gzip variant is built at load;
+ * the JDK has no Brotli encoder, so a Brotli variant is only served when a precompressed
+ * {@code <name>.br} sits next to the page. With {@code reload} the page is read again
+ * whenever the resource's modification time changes, for editing it under bootRun.
+ */
+@Slf4j
+public class StaticPage {
+
+    static final String GZIP = "gzip";
+    static final String BROTLI = "br";
+
+    private final Resource resource;
+    private final Resource brotliResource;
+    private final boolean reload;
+    private volatile Variants variants;
+
+    public StaticPage(Resource resource, boolean reload) throws IOException {
+        this.resource = resource;
+        this.brotliResource = resource.createRelative(resource.getFilename() + ".br");
+        this.reload = reload;
+        this.variants = load(true);
+    }
+
+    /**
+     * The smallest variant the client accepts, by its {@code Accept-Encoding} header.
+     */
+    Variant select(String acceptEncoding) {
+        Variants current = current();
+        if (current.brotli() != null && accepts(acceptEncoding, BROTLI)) {
+            return current.brotli();
+        }
+        if (accepts(acceptEncoding, GZIP)) {
+            return current.gzip();
+        }
+        return current.identity();
+    }
+
+    private Variants current() {
+        Variants current = variants;
+        if (reload && lastModified() != current.lastModified()) {
+            synchronized (this) {
+                current = variants;
+                if (lastModified() != current.lastModified()) {
+                    try {
+                        // A precompressed variant would be stale now; only identity and gzip are rebuilt
+                        variants = current = load(false);
+                        log.info("Reloaded {}", resource.getDescription());
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            }
+        }
+        return current;
+    }
+
+    private Variants load(boolean withBrotli) throws IOException {
+        long lastModified = lastModified();
+        byte[] content = read(resource);
+        String hash = DigestUtils.md5DigestAsHex(content);
+        Variant brotli = null;
+        if (withBrotli && brotliResource.exists()) {
+            brotli = new Variant(read(brotliResource), BROTLI, '"' + hash + "-br\"");
+        }
+        return new Variants(
+                new Variant(content, null, '"' + hash + '"'),
+                new Variant(gzip(content), GZIP, '"' + hash + "-gz\""),
+                brotli,
+                lastModified);
+    }
+
+    private long lastModified() {
+        try {
+            return resource.lastModified();
+        } catch (FileNotFoundException e) {
+            // Nested jar entries report no modification time; such pages never change anyway
+            return 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] read(Resource resource) throws IOException {
+        try (InputStream in = resource.getInputStream()) {
+            return in.readAllBytes();
+        }
+    }
+
+    private static byte[] gzip(byte[] content) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(content.length / 3);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            gzip.write(content);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Whether {@code coding} is listed in an {@code Accept-Encoding} header with a non-zero
+     * quality; {@code *} covers codings not listed by name.
+     */
+    static boolean accepts(String acceptEncoding, String coding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        boolean wildcard = false;
+        for (String entry : acceptEncoding.split(",")) {
+            String[] parts = entry.split(";");
+            String name = parts[0].trim();
+            if (name.equalsIgnoreCase(coding)) {
+                return quality(parts) > 0;
+            }
+            if (name.equals("*")) {
+                wildcard = quality(parts) > 0;
+            }
+        }
+        return wildcard;
+    }
+
+    private static double quality(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim();
+            if (parameter.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2));
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    /**
+     * One encoding of the page. {@code body} is shared by every response and never modified.
+     *
+     * @param encoding the {@code Content-Encoding}, {@code null} for the page as is
+     * @param etag     quoted strong entity tag, distinct per encoding
+     */
+    record Variant(byte[] body, String encoding, String etag) {
+    }
+
+    private record Variants(Variant identity, Variant gzip, Variant brotli, long lastModified) {
+    }
+}
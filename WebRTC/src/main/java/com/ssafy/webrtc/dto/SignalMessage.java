@@ -1,5 +1,6 @@
 package com.ssafy.webrtc.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -13,10 +14,14 @@ import java.util.List;
 @AllArgsConstructor
 public class SignalMessage {
 
-    private String type;      // offer, answer, ice-candidate, join, leave, room-info
+    private String type;      // offer, answer, ice-candidate, join, leave, resume, room-info
     private String roomId;
     private String senderId;
     private String targetId;
     private Object payload;   // SDP or ICE candidate data
     private List<String> participants;  // List of existing participants (for room-info)
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<String> capabilities;  // Optional features the client supports (for join), e.g. ice-batch
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String resumeToken;  // Issued in room-info, sent back in resume after a reconnect
 }
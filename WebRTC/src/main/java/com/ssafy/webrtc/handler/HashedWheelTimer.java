@@ -0,0 +1,250 @@
+package com.ssafy.webrtc.handler;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Timer for large numbers of coarse timeouts, such as one heartbeat per connection.
+ * <p>
+ * Timeouts are hashed into {@code wheelSize} buckets by their deadline tick; a single worker
+ * thread advances one bucket per tick and only walks that bucket, so the cost of a tick does
+ * not depend on how many timeouts are pending elsewhere. Scheduling only pushes onto a
+ * lock-free stack linked through the timeouts themselves, which the worker takes whole at the
+ * start of each tick, and cancelling only flips a flag; cancelled timeouts are unlinked the
+ * next time the worker visits their bucket. Neither allocates beyond the timeout itself.
+ * <p>
+ * Tasks run on the worker thread and must be short; hand anything that may block to another
+ * executor. Deadlines are rounded up to the next tick.
+ */
+@Slf4j
+public class HashedWheelTimer {
+
+    private final long tickNanos;
+    private final Bucket[] wheel;
+    private final int mask;
+    // Timeouts scheduled since the last tick, newest first
+    private final AtomicReference<Timeout> incoming = new AtomicReference<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicLong expired = new AtomicLong();
+    private final Thread worker;
+    private final long startNanos;
+    private volatile boolean running = true;
+
+    /**
+     * @param tick      wheel resolution
+     * @param wheelSize number of buckets, rounded up to a power of two; one revolution is
+     *                  {@code tick * wheelSize}, longer delays take several revolutions
+     */
+    public HashedWheelTimer(ThreadFactory threadFactory, Duration tick, int wheelSize) {
+        if (tick.isZero() || tick.isNegative()) {
+            throw new IllegalArgumentException("Tick must be positive, got " + tick);
+        }
+        if (wheelSize <= 0 || wheelSize > 1 << 30) {
+            throw new IllegalArgumentException("Wheel size must be in 1.." + (1 << 30) + ", got " + wheelSize);
+        }
+        this.tickNanos = tick.toNanos();
+        int size = 1;
+        while (size < wheelSize) {
+            size <<= 1;
+        }
+        this.wheel = new Bucket[size];
+        for (int i = 0; i < wheel.length; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.mask = wheel.length - 1;
+        this.startNanos = System.nanoTime();
+        this.worker = threadFactory.newThread(this::run);
+        worker.start();
+    }
+
+    /**
+     * Runs {@code task} on the worker thread once {@code delay} has passed.
+     */
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        if (!running) {
+            throw new IllegalStateException("Timer is stopped");
+        }
+        long deadline = System.nanoTime() - startNanos + Math.max(unit.toNanos(delay), 0);
+        Timeout timeout = new Timeout(this, task, deadline);
+        pending.incrementAndGet();
+        Timeout head;
+        do {
+            head = incoming.get();
+            timeout.next = head;
+        } while (!incoming.compareAndSet(head, timeout));
+        return timeout;
+    }
+
+    /**
+     * Timeouts scheduled and neither expired nor cancelled yet.
+     */
+    public int getPendingCount() {
+        return pending.get();
+    }
+
+    public long getExpiredCount() {
+        return expired.get();
+    }
+
+    public void stop() {
+        running = false;
+        worker.interrupt();
+    }
+
+    private void run() {
+        long tick = 0;
+        while (running) {
+            long deadline = (tick + 1) * tickNanos;
+            if (!sleepUntil(deadline)) {
+                break;
+            }
+            transferIncoming(tick);
+            wheel[(int) (tick & mask)].expire();
+            tick++;
+        }
+    }
+
+    // Returns false when the timer was stopped while sleeping
+    private boolean sleepUntil(long deadline) {
+        while (running) {
+            long remaining = deadline - (System.nanoTime() - startNanos);
+            if (remaining <= 0) {
+                return true;
+            }
+            LockSupport.parkNanos(this, remaining);
+        }
+        return false;
+    }
+
+    private void transferIncoming(long currentTick) {
+        Timeout timeout = incoming.getAndSet(null);
+        while (timeout != null) {
+            Timeout next = timeout.next;
+            if (!timeout.isCancelled()) {
+                // Deadlines that already passed go into the current bucket
+                long deadlineTick = Math.max((timeout.deadline + tickNanos - 1) / tickNanos - 1, currentTick);
+                timeout.remainingRounds = (deadlineTick - currentTick) / wheel.length;
+                wheel[(int) (deadlineTick & mask)].add(timeout);
+            } else {
+                timeout.next = null;
+            }
+            timeout = next;
+        }
+    }
+
+    private void fire(Timeout timeout) {
+        pending.decrementAndGet();
+        expired.incrementAndGet();
+        try {
+            timeout.task.run();
+        } catch (RuntimeException e) {
+            log.warn("Timer task failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Handle of a scheduled task.
+     */
+    public static final class Timeout {
+
+        private static final int WAITING = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+        private static final AtomicIntegerFieldUpdater<Timeout> STATE =
+                AtomicIntegerFieldUpdater.newUpdater(Timeout.class, "state");
+
+        private final HashedWheelTimer timer;
+        private final Runnable task;
+        private final long deadline;
+        private volatile int state = WAITING;
+
+        // Owned by the worker thread once it took the timeout from the incoming stack
+        private long remainingRounds;
+        private Timeout prev;
+        private Timeout next;
+
+        private Timeout(HashedWheelTimer timer, Runnable task, long deadline) {
+            this.timer = timer;
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        /**
+         * @return {@code false} if the task already ran or was cancelled before
+         */
+        public boolean cancel() {
+            if (!STATE.compareAndSet(this, WAITING, CANCELLED)) {
+                return false;
+            }
+            timer.pending.decrementAndGet();
+            return true;
+        }
+
+        public boolean isCancelled() {
+            return state == CANCELLED;
+        }
+
+        private boolean expire() {
+            return STATE.compareAndSet(this, WAITING, EXPIRED);
+        }
+    }
+
+    // Doubly linked list, only touched by the worker thread
+    private final class Bucket {
+
+        private Timeout head;
+        private Timeout tail;
+
+        void add(Timeout timeout) {
+            timeout.prev = tail;
+            timeout.next = null;
+            if (tail == null) {
+                head = timeout;
+            } else {
+                tail.next = timeout;
+            }
+            tail = timeout;
+        }
+
+        void expire() {
+            Timeout timeout = head;
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                if (timeout.isCancelled()) {
+                    remove(timeout);
+                } else if (timeout.remainingRounds <= 0) {
+                    remove(timeout);
+                    if (timeout.expire()) {
+                        fire(timeout);
+                    }
+                } else {
+                    timeout.remainingRounds--;
+                }
+                timeout = next;
+            }
+        }
+
+        private void remove(Timeout timeout) {
+            if (timeout.prev == null) {
+                head = timeout.next;
+            } else {
+                timeout.prev.next = timeout.next;
+            }
+            if (timeout.next == null) {
+                tail = timeout.prev;
+            } else {
+                timeout.next.prev = timeout.prev;
+            }
+            timeout.prev = null;
+            timeout.next = null;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.ssafy.webrtc.handler;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.socket.TextMessage;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coalesces trickled ICE candidates into one {@code ice-candidates} frame per sender→target
+ * pair and window:
+ * <pre>
+ * {"type":"ice-candidates","roomId":"...","senderId":"...","targetId":"...","candidates":[{...},{...}]}
+ * </pre>
+ * Candidates are copied from the raw payload text, in arrival order. Only targets that
+ * advertised {@value #CAPABILITY} on join get batches; everybody else keeps receiving one
+ * {@code ice-candidate} frame per candidate.
+ */
+@Slf4j
+public class IceBatcher {
+
+    public static final String CAPABILITY = "ice-batch";
+
+    static final Duration MIN_WINDOW = Duration.ofMillis(5);
+    static final Duration MAX_WINDOW = Duration.ofMillis(20);
+
+    private final long windowNanos;
+    private final ScheduledExecutorService scheduler;
+    private final Set<String> capableSessions = ConcurrentHashMap.newKeySet();
+    // Mutations of a pair's batch, including sending it, happen inside the map's per-key atomic operations
+    private final Map<Pair, Batch> pending = new ConcurrentHashMap<>();
+
+    /**
+     * @param window    coalescing window, clamped to 5–20 ms; zero disables batching
+     * @param scheduler fires the end of each window, may be {@code null} when disabled
+     */
+    public IceBatcher(Duration window, ScheduledExecutorService scheduler) {
+        Duration effective = window;
+        if (!window.isZero() && (window.compareTo(MIN_WINDOW) < 0 || window.compareTo(MAX_WINDOW) > 0)) {
+            effective = window.compareTo(MIN_WINDOW) < 0 ? MIN_WINDOW : MAX_WINDOW;
+            log.warn("ICE batch window {} is outside {}-{}, using {}", window, MIN_WINDOW, MAX_WINDOW, effective);
+        }
+        this.windowNanos = effective.toNanos();
+        this.scheduler = scheduler;
+    }
+
+    public static IceBatcher disabled() {
+        return new IceBatcher(Duration.ZERO, null);
+    }
+
+    public boolean isEnabled() {
+        return windowNanos > 0;
+    }
+
+    public void enable(String sessionId) {
+        if (isEnabled()) {
+            capableSessions.add(sessionId);
+        }
+    }
+
+    public void forget(String sessionId) {
+        capableSessions.remove(sessionId);
+    }
+
+    /**
+     * Whether candidates for this target should go through {@link #add}.
+     */
+    public boolean accepts(String targetId) {
+        return isEnabled() && capableSessions.contains(targetId);
+    }
+
+    /**
+     * Adds a candidate to the pair's batch, opening a new window if none is pending.
+     */
+    public void add(String senderId, OutboundQueue target, RelayEnvelope candidate, long receivedNanos) {
+        Pair pair = new Pair(senderId, candidate.getTargetId());
+        pending.compute(pair, (key, batch) -> {
+            if (batch != null && !Objects.equals(batch.roomId, candidate.getRoomId())) {
+                batch.send();
+                batch = null;
+            }
+            if (batch == null) {
+                batch = new Batch(key, candidate.getRoomId(), target, receivedNanos);
+                Batch scheduled = batch;
+                scheduler.schedule(() -> flush(key, scheduled), windowNanos, TimeUnit.NANOSECONDS);
+            }
+            batch.add(candidate);
+            return batch;
+        });
+    }
+
+    /**
+     * Sends the pair's pending batch now. Called before any other frame from the sender to
+     * the target so that it cannot overtake candidates sent earlier.
+     */
+    public void flush(String senderId, String targetId) {
+        if (!pending.isEmpty()) {
+            pending.computeIfPresent(new Pair(senderId, targetId), (key, batch) -> {
+                batch.send();
+                return null;
+            });
+        }
+    }
+
+    public void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private void flush(Pair pair, Batch batch) {
+        pending.computeIfPresent(pair, (key, current) -> {
+            if (current != batch) {
+                return current;
+            }
+            batch.send();
+            return null;
+        });
+    }
+
+    private static String quote(String value) {
+        return value == null ? "null" : '"' + new String(JsonStringEncoder.getInstance().quoteAsString(value)) + '"';
+    }
+
+    private record Pair(String senderId, String targetId) {
+    }
+
+    private static final class Batch {
+
+        private final String roomId;
+        private final OutboundQueue target;
+        // Arrival of the first candidate, so the reported relay latency includes the window
+        private final long receivedNanos;
+        private final StringBuilder frame = new StringBuilder(512);
+        private int size;
+
+        Batch(Pair pair, String roomId, OutboundQueue target, long receivedNanos) {
+            this.roomId = roomId;
+            this.target = target;
+            this.receivedNanos = receivedNanos;
+            frame.append("{\"type\":\"ice-candidates\",\"roomId\":").append(quote(roomId))
+                    .append(",\"senderId\":").append(quote(pair.senderId()))
+                    .append(",\"targetId\":").append(quote(pair.targetId()))
+                    .append(",\"candidates\":[");
+        }
+
+        void add(RelayEnvelope candidate) {
+            if (size++ > 0) {
+                frame.append(',');
+            }
+            candidate.appendPayload(frame);
+        }
+
+        void send() {
+            if (target.isOpen()) {
+                target.enqueue(new TextMessage(frame.append("]}").toString()), true, receivedNanos);
+            }
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.ssafy.webrtc.handler;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+
+/**
+ * Token buckets capping how fast joins are accepted, per client address and per room.
+ * Checked before a join touches any room state, so an excess join costs a map lookup and
+ * a short critical section on its bucket.
+ */
+public class JoinRateLimiter {
+
+    // Buckets that refilled completely are dropped once a map grows past this many entries, and after that
+    // each time it has doubled since the last sweep, so a sweep's cost is spread over the joins that caused it
+    static final int SWEEP_THRESHOLD = 10_000;
+
+    private final TokenBucket.Limit perAddress;
+    private final TokenBucket.Limit perRoom;
+    private final LongSupplier clock;
+    private final Buckets addressBuckets = new Buckets();
+    private final Buckets roomBuckets = new Buckets();
+
+    /**
+     * @param addressRate joins per second per client address, 0 for no limit
+     * @param roomRate    joins per second per room, 0 for no limit
+     */
+    public JoinRateLimiter(double addressRate, int addressBurst, double roomRate, int roomBurst) {
+        this(addressRate, addressBurst, roomRate, roomBurst, System::nanoTime);
+    }
+
+    JoinRateLimiter(double addressRate, int addressBurst, double roomRate, int roomBurst, LongSupplier clock) {
+        this.perAddress = TokenBucket.Limit.of(addressRate, addressBurst);
+        this.perRoom = TokenBucket.Limit.of(roomRate, roomBurst);
+        this.clock = clock;
+    }
+
+    public static JoinRateLimiter unlimited() {
+        return new JoinRateLimiter(0, 0, 0, 0);
+    }
+
+    /**
+     * Takes one token from the address's and the room's bucket.
+     *
+     * @param address client address, {@code null} when unknown (not limited per address then)
+     * @return {@code false} if either bucket is empty and the join must be refused
+     */
+    public boolean tryAcquire(String address, String roomId) {
+        long now = clock.getAsLong();
+        if (perAddress != null && address != null && !take(addressBuckets, perAddress, address, now)) {
+            return false;
+        }
+        return perRoom == null || roomId == null || take(roomBuckets, perRoom, roomId, now);
+    }
+
+    int trackedBuckets() {
+        return addressBuckets.map.size() + roomBuckets.map.size();
+    }
+
+    private boolean take(Buckets buckets, TokenBucket.Limit limit, String key, long now) {
+        TokenBucket bucket = buckets.map.get(key);
+        if (bucket == null) {
+            if (buckets.map.size() >= buckets.sweepAt) {
+                buckets.sweep(limit, now);
+            }
+            bucket = buckets.map.computeIfAbsent(key, k -> new TokenBucket(limit.burst(), now));
+        }
+        return bucket.tryTake(limit, now);
+    }
+
+    private static final class Buckets {
+
+        private final Map<String, TokenBucket> map = new ConcurrentHashMap<>();
+        private final AtomicBoolean sweeping = new AtomicBoolean();
+        private volatile int sweepAt = SWEEP_THRESHOLD;
+
+        // A full bucket behaves exactly like a new one, so dropping it loses nothing
+        void sweep(TokenBucket.Limit limit, long now) {
+            if (sweeping.compareAndSet(false, true)) {
+                try {
+                    map.values().removeIf(bucket -> bucket.isFull(limit, now));
+                    sweepAt = Math.max(SWEEP_THRESHOLD, map.size() * 2);
+                } finally {
+                    sweeping.set(false);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.ssafy.webrtc.handler;
+
+import com.ssafy.webrtc.config.SignalingProperties;
+import jakarta.websocket.Session;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.adapter.NativeWebSocketSession;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongConsumer;
+
+/**
+ * Creates {@link OutboundQueue}s and owns the writer pool that drains them.
+ * Also keeps the aggregate queue statistics across all sessions.
+ */
+@Slf4j
+public class OutboundDispatcher {
+
+    // Tomcat-specific user property bounding a blocking send on a WebSocket session
+    private static final String BLOCKING_SEND_TIMEOUT = "org.apache.tomcat.websocket.BLOCKING_SEND_TIMEOUT";
+
+    private final Executor executor;
+    private final SignalingProperties.Outbound settings;
+    // Receives the relay latency of every measured frame, in nanoseconds
+    private final LongConsumer relayLatency;
+
+    private final AtomicLong queuedFrames = new AtomicLong();
+    private final AtomicLong parkedFrames = new AtomicLong();
+    private final LongAdder droppedFrames = new LongAdder();
+    private final LongAdder overflowClosures = new LongAdder();
+    private final LongAdder sendFailures = new LongAdder();
+
+    public OutboundDispatcher(Executor executor, SignalingProperties.Outbound settings) {
+        this(executor, settings, nanos -> {
+        });
+    }
+
+    public OutboundDispatcher(Executor executor, SignalingProperties.Outbound settings, LongConsumer relayLatency) {
+        this.executor = executor;
+        this.settings = settings;
+        this.relayLatency = relayLatency;
+    }
+
+    public OutboundQueue open(WebSocketSession session) {
+        if (session instanceof NativeWebSocketSession nativeSession
+                && nativeSession.getNativeSession() instanceof Session wsSession) {
+            wsSession.getUserProperties().put(BLOCKING_SEND_TIMEOUT, settings.getSendTimeout().toMillis());
+        }
+        return new OutboundQueue(session, this);
+    }
+
+    public void shutdown() {
+        if (executor instanceof ExecutorService executorService) {
+            executorService.shutdown();
+        }
+    }
+
+    /**
+     * Total number of frames currently waiting in the queues of connected sessions.
+     */
+    public long getQueuedFrames() {
+        return queuedFrames.get();
+    }
+
+    /**
+     * Frames buffered for parked sessions, which are only written if the session resumes.
+     */
+    public long getParkedFrames() {
+        return parkedFrames.get();
+    }
+
+    public long getDroppedFrames() {
+        return droppedFrames.sum();
+    }
+
+    public long getOverflowClosures() {
+        return overflowClosures.sum();
+    }
+
+    public long getSendFailures() {
+        return sendFailures.sum();
+    }
+
+    int getBufferLimit() {
+        return settings.getBufferLimit();
+    }
+
+    OverflowPolicy getOverflowPolicy() {
+        return settings.getOverflowPolicy();
+    }
+
+    void execute(Runnable task) {
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            log.debug("Outbound writer pool rejected task: {}", e.getMessage());
+        }
+    }
+
+    void frameQueued(boolean parked) {
+        counter(parked).incrementAndGet();
+    }
+
+    void frameDequeued() {
+        queuedFrames.decrementAndGet();
+    }
+
+    void frameDropped(boolean parked) {
+        counter(parked).decrementAndGet();
+        droppedFrames.increment();
+    }
+
+    void framesDiscarded(int count, boolean parked) {
+        counter(parked).addAndGet(-count);
+    }
+
+    void framesParked(int count) {
+        queuedFrames.addAndGet(-count);
+        parkedFrames.addAndGet(count);
+    }
+
+    void framesUnparked(int count) {
+        parkedFrames.addAndGet(-count);
+        queuedFrames.addAndGet(count);
+    }
+
+    private AtomicLong counter(boolean parked) {
+        return parked ? parkedFrames : queuedFrames;
+    }
+
+    void overflowClosed() {
+        overflowClosures.increment();
+    }
+
+    void frameSent(long receivedNanos) {
+        relayLatency.accept(System.nanoTime() - receivedNanos);
+    }
+
+    void sendFailed() {
+        sendFailures.increment();
+    }
+}
@@ -0,0 +1,241 @@
+package com.ssafy.webrtc.handler;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+
+/**
+ * Per-session outbound buffer. Callers only ever enqueue; frames are written by a
+ * single drain task at a time on the dispatcher's writer pool, which keeps per-session
+ * ordering and prevents concurrent writes to the same {@link WebSocketSession}.
+ * <p>
+ * A queue can be {@link #detach() detached} from a dropped connection and {@link #attach attached}
+ * to the connection that resumes it; in between it keeps buffering, within the same limit.
+ * Its frames then count as parked rather than queued, since nothing is writing them.
+ */
+@Slf4j
+public class OutboundQueue {
+
+    // Frames written per drain task before the writer thread is handed back to the pool
+    private static final int MAX_FRAMES_PER_DRAIN = 64;
+
+    private final OutboundDispatcher dispatcher;
+    private final WireFormat format;
+    private final Deque<Frame> frames = new ArrayDeque<>();
+    private WebSocketSession session;
+    private boolean draining;
+    private boolean detached;
+    private boolean closed;
+
+    OutboundQueue(WebSocketSession session, OutboundDispatcher dispatcher) {
+        this.session = session;
+        this.dispatcher = dispatcher;
+        this.format = WireFormat.of(session);
+    }
+
+    /**
+     * Encoding the session negotiated; frames queued here must already be in it.
+     */
+    public WireFormat getFormat() {
+        return format;
+    }
+
+    /**
+     * Whether frames enqueued now can still reach the client. A detached queue counts as open.
+     */
+    public boolean isOpen() {
+        WebSocketSession current;
+        synchronized (this) {
+            if (closed) {
+                return false;
+            }
+            if (detached) {
+                return true;
+            }
+            current = session;
+        }
+        return current.isOpen();
+    }
+
+    /**
+     * Queues a frame for delivery without blocking on the socket.
+     *
+     * @param droppable whether the frame may be evicted under {@link OverflowPolicy#DROP_OLDEST_ICE}
+     */
+    public void enqueue(WebSocketMessage<?> message, boolean droppable) {
+        enqueue(message, droppable, 0);
+    }
+
+    /**
+     * Queues a relayed frame; the time from {@code receivedNanos} to the end of the write is
+     * reported as relay latency.
+     *
+     * @param receivedNanos {@link System#nanoTime()} when the frame arrived, 0 if not measured
+     */
+    public void enqueue(WebSocketMessage<?> message, boolean droppable, long receivedNanos) {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            if (frames.size() >= dispatcher.getBufferLimit() && !evictForOverflow()) {
+                closeForOverflow();
+                return;
+            }
+            frames.addLast(new Frame(message, droppable, receivedNanos));
+            dispatcher.frameQueued(detached);
+            if (draining || detached) {
+                return;
+            }
+            draining = true;
+        }
+        dispatcher.execute(this::drain);
+    }
+
+    /**
+     * Stops writing and keeps buffering after the connection dropped.
+     *
+     * @return {@code false} if the queue is already closed
+     */
+    public synchronized boolean detach() {
+        if (closed) {
+            return false;
+        }
+        if (!detached) {
+            dispatcher.framesParked(frames.size());
+        }
+        detached = true;
+        return true;
+    }
+
+    /**
+     * Resumes writing on a new connection: {@code first} and then everything buffered
+     * while detached.
+     *
+     * @return {@code false} if the queue was closed meanwhile, e.g. because the buffer overflowed
+     */
+    public boolean attach(WebSocketSession newSession, WebSocketMessage<?> first) {
+        synchronized (this) {
+            if (closed) {
+                return false;
+            }
+            session = newSession;
+            if (detached) {
+                dispatcher.framesUnparked(frames.size());
+            }
+            detached = false;
+            frames.addFirst(new Frame(first, false, 0));
+            dispatcher.frameQueued(false);
+            if (draining) {
+                return true;
+            }
+            draining = true;
+        }
+        dispatcher.execute(this::drain);
+        return true;
+    }
+
+    public synchronized int depth() {
+        return frames.size();
+    }
+
+    /**
+     * Discards anything still queued. Called once the underlying session is gone.
+     */
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            dispatcher.framesDiscarded(frames.size(), detached);
+            frames.clear();
+        }
+    }
+
+    private void drain() {
+        for (int written = 0; written < MAX_FRAMES_PER_DRAIN; written++) {
+            Frame frame;
+            WebSocketSession target;
+            synchronized (this) {
+                frame = detached ? null : frames.pollFirst();
+                if (frame == null) {
+                    draining = false;
+                    return;
+                }
+                target = session;
+            }
+            dispatcher.frameDequeued();
+            if (!target.isOpen()) {
+                // The connection is gone; keep the frame for a connection that resumes this queue
+                synchronized (this) {
+                    if (!closed) {
+                        frames.addFirst(frame);
+                        dispatcher.frameQueued(detached);
+                    }
+                    draining = false;
+                }
+                return;
+            }
+            write(target, frame);
+        }
+        dispatcher.execute(this::drain);
+    }
+
+    private void write(WebSocketSession target, Frame frame) {
+        try {
+            target.sendMessage(frame.message());
+            if (frame.receivedNanos() != 0) {
+                dispatcher.frameSent(frame.receivedNanos());
+            }
+        } catch (IOException | RuntimeException e) {
+            dispatcher.sendFailed();
+            log.warn("Failed to send message to {}: {}", target.getId(), e.getMessage());
+        }
+    }
+
+    // Caller must hold the monitor
+    private boolean evictForOverflow() {
+        if (dispatcher.getOverflowPolicy() != OverflowPolicy.DROP_OLDEST_ICE) {
+            return false;
+        }
+        Iterator<Frame> it = frames.iterator();
+        while (it.hasNext()) {
+            if (it.next().droppable()) {
+                it.remove();
+                dispatcher.frameDropped(detached);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Caller must hold the monitor
+    private void closeForOverflow() {
+        closed = true;
+        dispatcher.framesDiscarded(frames.size(), detached);
+        frames.clear();
+        dispatcher.overflowClosed();
+        log.warn("Outbound buffer of session {} overflowed ({} frames), closing", session.getId(), dispatcher.getBufferLimit());
+        if (detached) {
+            // Nothing to close; a later attach() fails and the session is not resumed
+            return;
+        }
+        WebSocketSession target = session;
+        // Closing writes a close frame, so keep it off the caller's thread as well
+        dispatcher.execute(() -> {
+            try {
+                target.close(CloseStatus.SESSION_NOT_RELIABLE);
+            } catch (IOException e) {
+                log.debug("Failed to close session {}: {}", target.getId(), e.getMessage());
+            }
+        });
+    }
+
+    private record Frame(WebSocketMessage<?> message, boolean droppable, long receivedNanos) {}
+}
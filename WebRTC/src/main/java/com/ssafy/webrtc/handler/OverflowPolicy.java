@@ -0,0 +1,18 @@
+package com.ssafy.webrtc.handler;
+
+/**
+ * What an {@link OutboundQueue} does when a session's buffer limit is reached.
+ */
+public enum OverflowPolicy {
+
+    /**
+     * Drop the oldest queued ICE candidate to make room. Falls back to closing the
+     * session when the queue holds nothing but non-droppable frames.
+     */
+    DROP_OLDEST_ICE,
+
+    /**
+     * Close the session straight away; the client is expected to reconnect.
+     */
+    CLOSE
+}
@@ -0,0 +1,194 @@
+package com.ssafy.webrtc.handler;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Routing header of a relayed frame (offer, answer, ice-candidate).
+ * <p>
+ * Only the top-level {@code type}, {@code roomId} and {@code targetId} are read with the
+ * streaming parser. The SDP/ICE payload is skipped over, never bound to objects, and the
+ * original text is forwarded with nothing but {@code senderId} spliced in.
+ * <p>
+ * Envelopes of binary (CBOR) frames carry the raw bytes instead; those frames are always
+ * re-encoded by {@link SignalCodec} on their way out.
+ */
+public final class RelayEnvelope {
+
+    private static final Set<String> RELAY_TYPES = Set.of("offer", "answer", "ice-candidate");
+
+    private final String json;
+    private final byte[] binary;
+    @Getter
+    private final String type;
+    @Getter
+    private final String roomId;
+    @Getter
+    private final String targetId;
+
+    // Offset just past the opening brace, where a missing senderId is inserted
+    private final int bodyStart;
+
+    // Span of a client-supplied senderId value, or -1 when absent
+    private final int senderStart;
+    private final int senderEnd;
+
+    // Span of the raw payload value, or -1 when absent
+    private final int payloadStart;
+    private final int payloadEnd;
+
+    private RelayEnvelope(String json, byte[] binary, String type, String roomId, String targetId,
+                          int bodyStart, int senderStart, int senderEnd, int payloadStart, int payloadEnd) {
+        this.json = json;
+        this.binary = binary;
+        this.type = type;
+        this.roomId = roomId;
+        this.targetId = targetId;
+        this.bodyStart = bodyStart;
+        this.senderStart = senderStart;
+        this.senderEnd = senderEnd;
+        this.payloadStart = payloadStart;
+        this.payloadEnd = payloadEnd;
+    }
+
+    /**
+     * Reads the routing header of a frame.
+     *
+     * @return the envelope, or {@code null} if the frame is not a relay type or has a shape
+     *         the fast path does not handle; such frames go through full data binding instead
+     * @throws IOException if the frame is not well-formed JSON
+     */
+    public static RelayEnvelope tryParse(JsonFactory jsonFactory, String json) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(json)) {
+            return parse(parser, json, null);
+        }
+    }
+
+    /**
+     * Reads the routing header of a binary frame; offsets are not tracked for these.
+     *
+     * @param binaryFactory factory of the frame's encoding, e.g. CBOR
+     */
+    public static RelayEnvelope tryParse(JsonFactory binaryFactory, byte[] frame) throws IOException {
+        try (JsonParser parser = binaryFactory.createParser(frame)) {
+            return parse(parser, null, frame);
+        }
+    }
+
+    private static RelayEnvelope parse(JsonParser parser, String json, byte[] binary) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            return null;
+        }
+        int bodyStart = (int) parser.getCurrentLocation().getCharOffset();
+        String type = null;
+        String roomId = null;
+        String targetId = null;
+        int senderStart = -1;
+        int senderEnd = -1;
+        int payloadStart = -1;
+        int payloadEnd = -1;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "type" -> type = scalarText(parser, value);
+                case "roomId" -> roomId = scalarText(parser, value);
+                case "targetId" -> targetId = scalarText(parser, value);
+                case "senderId" -> {
+                    senderStart = (int) parser.getTokenLocation().getCharOffset();
+                    senderEnd = skipValue(parser, value);
+                }
+                case "payload" -> {
+                    payloadStart = (int) parser.getTokenLocation().getCharOffset();
+                    payloadEnd = skipValue(parser, value);
+                }
+                default -> parser.skipChildren();
+            }
+        }
+        if (parser.nextToken() != null || type == null || !RELAY_TYPES.contains(type)) {
+            return null;
+        }
+        return new RelayEnvelope(json, binary, type, roomId, targetId, bodyStart, senderStart, senderEnd,
+                payloadStart, payloadEnd);
+    }
+
+    public boolean isBinary() {
+        return binary != null;
+    }
+
+    String getJson() {
+        return json;
+    }
+
+    byte[] getBinary() {
+        return binary;
+    }
+
+    public boolean isIceCandidate() {
+        return "ice-candidate".equals(type);
+    }
+
+    /**
+     * Returns the original frame with {@code senderId} set to the given id, replacing any
+     * value the client sent. Only available for JSON frames.
+     */
+    public String withSender(String senderId) {
+        if (json == null) {
+            throw new IllegalStateException("Binary frames are re-encoded, not spliced");
+        }
+        String quoted = '"' + new String(JsonStringEncoder.getInstance().quoteAsString(senderId)) + '"';
+        if (senderStart >= 0) {
+            return new StringBuilder(json.length() - (senderEnd - senderStart) + quoted.length())
+                    .append(json, 0, senderStart)
+                    .append(quoted)
+                    .append(json, senderEnd, json.length())
+                    .toString();
+        }
+        return new StringBuilder(json.length() + quoted.length() + 12)
+                .append(json, 0, bodyStart)
+                .append("\"senderId\":")
+                .append(quoted)
+                .append(',')
+                .append(json, bodyStart, json.length())
+                .toString();
+    }
+
+    /**
+     * Appends the raw payload value, or {@code null} when the frame has none.
+     */
+    public void appendPayload(StringBuilder target) {
+        if (json == null) {
+            throw new IllegalStateException("Binary frames are re-encoded, not spliced");
+        }
+        if (payloadStart < 0) {
+            target.append("null");
+        } else {
+            target.append(json, payloadStart, payloadEnd);
+        }
+    }
+
+    // Skips the current value and returns the offset just past it
+    private static int skipValue(JsonParser parser, JsonToken value) throws IOException {
+        if (value.isStructStart()) {
+            parser.skipChildren();
+        } else {
+            parser.finishToken();
+        }
+        return (int) parser.getCurrentLocation().getCharOffset();
+    }
+
+    private static String scalarText(JsonParser parser, JsonToken value) throws IOException {
+        if (value.isStructStart()) {
+            parser.skipChildren();
+            return null;
+        }
+        return parser.getValueAsString();
+    }
+}
@@ -0,0 +1,88 @@
+package com.ssafy.webrtc.handler;
+
+import com.ssafy.webrtc.metrics.SignalingMetrics;
+import com.ssafy.webrtc.service.RoomService;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Admission check for relayed frames (offer, answer, ice-candidate), run on the routing
+ * header alone, before the frame is re-serialized or batched. A sender gets a token bucket
+ * of relayed frames, and may only address sessions it shares a room with: the session to
+ * rooms index answers that with hash lookups, so frames sprayed at arbitrary session IDs
+ * cost about as much as parsing their header.
+ */
+public class RelayGate {
+
+    private final RoomService roomService;
+    private final TokenBucket.Limit perSession;
+    private final LongSupplier clock;
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+    /**
+     * @param sessionRate relayed frames per second per sending session, 0 for no limit
+     */
+    public RelayGate(RoomService roomService, double sessionRate, int sessionBurst) {
+        this(roomService, sessionRate, sessionBurst, System::nanoTime);
+    }
+
+    RelayGate(RoomService roomService, double sessionRate, int sessionBurst, LongSupplier clock) {
+        this.roomService = roomService;
+        this.perSession = TokenBucket.Limit.of(sessionRate, sessionBurst);
+        this.clock = clock;
+    }
+
+    /**
+     * Only checks membership; relayed frames are not rate limited.
+     */
+    public static RelayGate withoutQuota(RoomService roomService) {
+        return new RelayGate(roomService, 0, 0);
+    }
+
+    /**
+     * Takes a token from the sender's bucket, then checks that sender and target share
+     * {@code roomId}, or any room when the frame names none.
+     *
+     * @return {@code null} if the frame may be relayed, otherwise the {@code DROP_*} reason
+     *         from {@link SignalingMetrics} it is refused with
+     */
+    public String check(String senderId, String roomId, String targetId) {
+        if (perSession != null) {
+            long now = clock.getAsLong();
+            TokenBucket bucket = buckets.computeIfAbsent(senderId, id -> new TokenBucket(perSession.burst(), now));
+            if (!bucket.tryTake(perSession, now)) {
+                return SignalingMetrics.DROP_RATE_LIMITED;
+            }
+        }
+        Set<String> targetRooms = roomService.getSessionRooms(targetId);
+        if (targetRooms.isEmpty()) {
+            return SignalingMetrics.DROP_UNKNOWN_TARGET;
+        }
+        Set<String> senderRooms = roomService.getSessionRooms(senderId);
+        if (roomId != null) {
+            return targetRooms.contains(roomId) && senderRooms.contains(roomId)
+                    ? null : SignalingMetrics.DROP_NOT_IN_ROOM;
+        }
+        // A session is in a handful of rooms at most
+        for (String senderRoom : senderRooms) {
+            if (targetRooms.contains(senderRoom)) {
+                return null;
+            }
+        }
+        return SignalingMetrics.DROP_NOT_IN_ROOM;
+    }
+
+    /**
+     * Drops the bucket of a session that is gone for good.
+     */
+    public void forget(String sessionId) {
+        buckets.remove(sessionId);
+    }
+
+    int trackedBuckets() {
+        return buckets.size();
+    }
+}
@@ -0,0 +1,195 @@
+package com.ssafy.webrtc.handler;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.PingMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Server-driven ping/pong and idle detection, so half-open connections do not linger in the
+ * registry and in rooms.
+ * <p>
+ * Every connection has one timeout on a shared {@link HashedWheelTimer}, rescheduled once
+ * per ping interval rather than on every message; inbound frames and pongs only stamp the
+ * connection as seen. When the timeout fires, a connection that was quiet for a ping interval
+ * gets a ping through its outbound queue, and one quiet for the idle timeout is reaped:
+ * cleaned up on the writer pool and closed on a separate closer, since closing a half-open
+ * socket blocks until the send timeout.
+ */
+@Slf4j
+public class SessionHeartbeat {
+
+    static final CloseStatus IDLE_TIMEOUT = CloseStatus.SESSION_NOT_RELIABLE.withReason("Idle timeout");
+    private static final PingMessage PING = new PingMessage();
+
+    private final HashedWheelTimer timer;
+    private final SessionRegistry sessionRegistry;
+    private final OutboundDispatcher outboundDispatcher;
+    private final Executor closer;
+    private final long pingIntervalNanos;
+    private final long idleTimeoutNanos;
+    private final Map<String, Watch> watches = new ConcurrentHashMap<>();
+    private final LongAdder reaped = new LongAdder();
+
+    /**
+     * @param closer       closes reaped connections
+     * @param pingInterval quiet time after which a connection is pinged; zero disables the heartbeat
+     * @param idleTimeout  quiet time after which a connection is reaped, at least one ping interval
+     */
+    public SessionHeartbeat(HashedWheelTimer timer, SessionRegistry sessionRegistry,
+                            OutboundDispatcher outboundDispatcher, Executor closer, Duration pingInterval,
+                            Duration idleTimeout) {
+        if (!pingInterval.isZero() && idleTimeout.compareTo(pingInterval) < 0) {
+            throw new IllegalArgumentException(
+                    "Idle timeout " + idleTimeout + " is shorter than ping interval " + pingInterval);
+        }
+        this.timer = timer;
+        this.sessionRegistry = sessionRegistry;
+        this.outboundDispatcher = outboundDispatcher;
+        this.closer = closer;
+        this.pingIntervalNanos = pingInterval.toNanos();
+        this.idleTimeoutNanos = idleTimeout.toNanos();
+    }
+
+    public static SessionHeartbeat disabled() {
+        return new SessionHeartbeat(null, null, null, null, Duration.ZERO, Duration.ZERO);
+    }
+
+    public boolean isEnabled() {
+        return pingIntervalNanos > 0;
+    }
+
+    /**
+     * Starts watching a new connection. {@code onIdle} runs on the writer pool when the
+     * connection is reaped, while the heartbeat closes it with {@link #IDLE_TIMEOUT}.
+     */
+    public void watch(WebSocketSession connection, Consumer<WebSocketSession> onIdle) {
+        if (!isEnabled()) {
+            return;
+        }
+        Watch watch = new Watch(connection, onIdle, System.nanoTime());
+        watches.put(connection.getId(), watch);
+        schedule(watch, pingIntervalNanos);
+    }
+
+    /**
+     * Records inbound activity.
+     *
+     * @param nowNanos {@link System#nanoTime()} when the frame arrived
+     */
+    public void touch(WebSocketSession connection, long nowNanos) {
+        if (!isEnabled()) {
+            return;
+        }
+        Watch watch = watches.get(connection.getId());
+        if (watch != null) {
+            watch.lastSeenNanos = nowNanos;
+        }
+    }
+
+    public void unwatch(WebSocketSession connection) {
+        if (!isEnabled()) {
+            return;
+        }
+        Watch watch = watches.remove(connection.getId());
+        if (watch != null && watch.timeout != null) {
+            watch.timeout.cancel();
+        }
+    }
+
+    public int getWatchedCount() {
+        return watches.size();
+    }
+
+    public long getReapedCount() {
+        return reaped.sum();
+    }
+
+    public void shutdown() {
+        if (timer != null) {
+            timer.stop();
+        }
+        if (closer instanceof ExecutorService executorService) {
+            executorService.shutdown();
+        }
+    }
+
+    private void schedule(Watch watch, long delayNanos) {
+        watch.timeout = timer.schedule(() -> check(watch), delayNanos, TimeUnit.NANOSECONDS);
+    }
+
+    // Runs on the timer thread
+    private void check(Watch watch) {
+        WebSocketSession connection = watch.connection;
+        if (watches.get(connection.getId()) != watch) {
+            return;
+        }
+        long idleNanos = System.nanoTime() - watch.lastSeenNanos;
+        if (idleNanos >= idleTimeoutNanos) {
+            watches.remove(connection.getId(), watch);
+            reaped.increment();
+            log.info("Connection {} was idle for {} ms, reaping it", connection.getId(),
+                    TimeUnit.NANOSECONDS.toMillis(idleNanos));
+            // Neither runs on the timer thread; the close frame may block on a dead socket, so it holds up no writer
+            outboundDispatcher.execute(() -> watch.onIdle.accept(connection));
+            close(connection);
+            return;
+        }
+        if (idleNanos < pingIntervalNanos) {
+            // Heard from recently; look again when it would have been quiet for a full interval
+            schedule(watch, pingIntervalNanos - idleNanos);
+            return;
+        }
+        ping(connection);
+        schedule(watch, Math.min(pingIntervalNanos, idleTimeoutNanos - idleNanos));
+    }
+
+    private void close(WebSocketSession connection) {
+        try {
+            closer.execute(() -> {
+                try {
+                    connection.close(IDLE_TIMEOUT);
+                } catch (IOException e) {
+                    log.debug("Failed to close idle connection {}: {}", connection.getId(), e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.debug("Idle connection closer rejected task: {}", e.getMessage());
+        }
+    }
+
+    private void ping(WebSocketSession connection) {
+        if (!sessionRegistry.isCurrent(connection)) {
+            return;
+        }
+        OutboundQueue queue = sessionRegistry.getOutboundQueue(sessionRegistry.sessionIdOf(connection));
+        if (queue != null && queue.isOpen()) {
+            queue.enqueue(PING, false);
+        }
+    }
+
+    private static final class Watch {
+
+        private final WebSocketSession connection;
+        private final Consumer<WebSocketSession> onIdle;
+        private volatile long lastSeenNanos;
+        private volatile HashedWheelTimer.Timeout timeout;
+
+        private Watch(WebSocketSession connection, Consumer<WebSocketSession> onIdle, long lastSeenNanos) {
+            this.connection = connection;
+            this.onIdle = onIdle;
+            this.lastSeenNanos = lastSeenNanos;
+        }
+    }
+}
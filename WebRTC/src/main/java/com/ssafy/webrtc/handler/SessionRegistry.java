@@ -0,0 +1,169 @@
+package com.ssafy.webrtc.handler;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * WebSocket sessions connected to this node, together with their outbound queues.
+ * <p>
+ * Sessions are keyed by their signaling ID, which is the ID of the connection that joined.
+ * A session {@link #resume resumed} on a new connection keeps that ID, and its outbound queue
+ * stays registered while it is {@link #park parked} between the two connections.
+ */
+@Component
+@RequiredArgsConstructor
+public class SessionRegistry {
+
+    private final OutboundDispatcher outboundDispatcher;
+    private final Map<String, WebSocketSession> sessions = new ConcurrentHashMap<>();
+    private final Map<String, OutboundQueue> outboundQueues = new ConcurrentHashMap<>();
+    // Connection ID -> signaling ID, only for connections that resumed a session
+    private final Map<String, String> resumedConnections = new ConcurrentHashMap<>();
+
+    public void register(WebSocketSession session) {
+        sessions.put(session.getId(), session);
+        outboundQueues.put(session.getId(), outboundDispatcher.open(session));
+    }
+
+    public void unregister(String sessionId) {
+        WebSocketSession session = sessions.remove(sessionId);
+        if (session != null) {
+            resumedConnections.remove(session.getId());
+        }
+        OutboundQueue queue = outboundQueues.remove(sessionId);
+        if (queue != null) {
+            queue.close();
+        }
+    }
+
+    /**
+     * Signaling ID of the session a connection carries.
+     */
+    public String sessionIdOf(WebSocketSession connection) {
+        String connectionId = connection.getId();
+        return resumedConnections.getOrDefault(connectionId, connectionId);
+    }
+
+    /**
+     * Whether the connection is the one a session currently writes to; {@code false} for
+     * connections replaced by a resume.
+     */
+    public boolean isCurrent(WebSocketSession connection) {
+        return sessions.get(sessionIdOf(connection)) == connection;
+    }
+
+    /**
+     * Takes the connection off the session it currently carries. Succeeds once per connection,
+     * so of the callers closing the same connection exactly one goes on to park or release it.
+     *
+     * @return {@code false} if the connection is no longer current: already detached, or replaced by a resume
+     */
+    public boolean detach(WebSocketSession connection) {
+        if (!sessions.remove(sessionIdOf(connection), connection)) {
+            return false;
+        }
+        resumedConnections.remove(connection.getId());
+        return true;
+    }
+
+    /**
+     * Detaches a session from its connection but keeps its queue, which buffers until
+     * {@link #resume} or {@link #unregister}.
+     *
+     * @return {@code false} if the session has no open queue to keep
+     */
+    public boolean park(String sessionId) {
+        WebSocketSession session = sessions.remove(sessionId);
+        if (session != null) {
+            resumedConnections.remove(session.getId());
+        }
+        OutboundQueue queue = outboundQueues.get(sessionId);
+        return queue != null && queue.detach();
+    }
+
+    /**
+     * Moves a parked session onto a new connection, which then drops its own registration.
+     * {@code first} is written ahead of the buffered frames.
+     *
+     * @return {@code false} if the session is not parked here, its buffer overflowed, or the
+     * connection negotiated a different wire format
+     */
+    public boolean resume(String sessionId, WebSocketSession connection, WebSocketMessage<?> first) {
+        OutboundQueue queue = outboundQueues.get(sessionId);
+        if (queue == null || sessions.containsKey(sessionId) || queue.getFormat() != WireFormat.of(connection)
+                || !queue.attach(connection, first)) {
+            return false;
+        }
+        unregister(connection.getId());
+        sessions.put(sessionId, connection);
+        resumedConnections.put(connection.getId(), sessionId);
+        return true;
+    }
+
+    /**
+     * Gives a session that has no queue on this node, because it was recovered after a
+     * restart, the registration of a new connection. {@code first} is written right away.
+     *
+     * @return {@code false} if the session still has a queue here or the connection has none
+     */
+    public boolean adopt(String sessionId, WebSocketSession connection, WebSocketMessage<?> first) {
+        if (outboundQueues.containsKey(sessionId)) {
+            return false;
+        }
+        OutboundQueue queue = outboundQueues.remove(connection.getId());
+        if (queue == null) {
+            return false;
+        }
+        sessions.remove(connection.getId());
+        outboundQueues.put(sessionId, queue);
+        sessions.put(sessionId, connection);
+        resumedConnections.put(connection.getId(), sessionId);
+        queue.enqueue(first, false);
+        return true;
+    }
+
+    /**
+     * IDs of the sessions owned by this node, connected or parked.
+     */
+    public Set<String> getSessionIds() {
+        return outboundQueues.keySet();
+    }
+
+    public boolean isLocal(String sessionId) {
+        return sessions.containsKey(sessionId);
+    }
+
+    /**
+     * Returns the session's outbound queue, or {@code null} if it is not connected to this node.
+     */
+    public OutboundQueue getOutboundQueue(String sessionId) {
+        return outboundQueues.get(sessionId);
+    }
+
+    /**
+     * Queues a frame for a local session, in the encoding the session negotiated.
+     *
+     * @return {@code false} if the session is not connected to this node
+     */
+    public boolean send(String sessionId, SharedFrame frame, boolean droppable) throws IOException {
+        OutboundQueue queue = outboundQueues.get(sessionId);
+        if (queue == null) {
+            return false;
+        }
+        if (queue.isOpen()) {
+            queue.enqueue(frame.forFormat(queue.getFormat()), droppable);
+        }
+        return true;
+    }
+
+    public Map<String, WebSocketSession> getSessions() {
+        return sessions;
+    }
+}
@@ -0,0 +1,155 @@
+package com.ssafy.webrtc.handler;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resumption tokens and the grace window of disconnected sessions.
+ * <p>
+ * A token is {@code <sessionId>.<HMAC-SHA256(secret, sessionId)>}, so it can be checked
+ * without storing it. It only works while its session is parked: disconnected, still in its
+ * rooms, and buffering what is sent to it. A session that is not resumed within the window
+ * is released by the callback given to {@link #park}.
+ */
+@Slf4j
+public class SessionResumption {
+
+    private static final String HMAC = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private final Duration window;
+    private final SecretKeySpec key;
+    private final ScheduledExecutorService scheduler;
+    private final Map<String, Parked> parked = new ConcurrentHashMap<>();
+
+    /**
+     * @param window    how long a disconnected session is kept; zero disables resumption
+     * @param secret    HMAC key for tokens, {@code null} for a random per-process key
+     * @param scheduler fires the end of each grace window, may be {@code null} when disabled
+     */
+    public SessionResumption(Duration window, byte[] secret, ScheduledExecutorService scheduler) {
+        this.window = window;
+        this.scheduler = scheduler;
+        if (secret == null) {
+            secret = new byte[32];
+            new SecureRandom().nextBytes(secret);
+        }
+        this.key = new SecretKeySpec(secret, HMAC);
+    }
+
+    public static SessionResumption disabled() {
+        return new SessionResumption(Duration.ZERO, null, null);
+    }
+
+    public boolean isEnabled() {
+        return !window.isZero();
+    }
+
+    public Duration getWindow() {
+        return window;
+    }
+
+    public String issueToken(String sessionId) {
+        return sessionId + "." + ENCODER.encodeToString(sign(sessionId));
+    }
+
+    /**
+     * Returns the session a token was issued for, or {@code null} if it is malformed or forged.
+     */
+    public String verify(String token) {
+        if (token == null) {
+            return null;
+        }
+        int dot = token.lastIndexOf('.');
+        if (dot <= 0) {
+            return null;
+        }
+        String sessionId = token.substring(0, dot);
+        byte[] expected = ENCODER.encodeToString(sign(sessionId)).getBytes(StandardCharsets.US_ASCII);
+        byte[] actual = token.substring(dot + 1).getBytes(StandardCharsets.US_ASCII);
+        return MessageDigest.isEqual(expected, actual) ? sessionId : null;
+    }
+
+    /**
+     * Starts the grace window of a disconnected session. {@code onExpiry} runs on the
+     * scheduler unless the session is resumed first.
+     */
+    public void park(String sessionId, Runnable onExpiry) {
+        Parked entry = new Parked(onExpiry);
+        parked.put(sessionId, entry);
+        entry.expiry = scheduler.schedule(() -> expire(sessionId, entry), window.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Ends the grace window of a parked session.
+     *
+     * @return {@code false} if the session is not parked, e.g. because its window already expired
+     */
+    public boolean unpark(String sessionId) {
+        Parked entry = parked.remove(sessionId);
+        if (entry == null) {
+            return false;
+        }
+        ScheduledFuture<?> expiry = entry.expiry;
+        if (expiry != null) {
+            expiry.cancel(false);
+        }
+        return true;
+    }
+
+    public int getParkedCount() {
+        return parked.size();
+    }
+
+    public void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private void expire(String sessionId, Parked entry) {
+        // Whoever removes the entry owns the session: either this expiry or unpark()
+        if (!parked.remove(sessionId, entry)) {
+            return;
+        }
+        log.info("Session {} was not resumed within {}, releasing it", sessionId, window);
+        try {
+            entry.onExpiry.run();
+        } catch (RuntimeException e) {
+            log.warn("Failed to release session {}: {}", sessionId, e.getMessage());
+        }
+    }
+
+    private byte[] sign(String sessionId) {
+        try {
+            Mac mac = Mac.getInstance(HMAC);
+            mac.init(key);
+            return mac.doFinal(sessionId.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(HMAC + " is not available", e);
+        }
+    }
+
+    private static final class Parked {
+
+        private final Runnable onExpiry;
+        private volatile ScheduledFuture<?> expiry;
+
+        private Parked(Runnable onExpiry) {
+            this.onExpiry = onExpiry;
+        }
+    }
+}
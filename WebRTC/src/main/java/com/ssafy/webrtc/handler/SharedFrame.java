@@ -0,0 +1,48 @@
+package com.ssafy.webrtc.handler;
+
+import com.ssafy.webrtc.dto.SignalMessage;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+
+import java.io.IOException;
+
+/**
+ * One message going to many sessions, encoded lazily and at most once per {@link WireFormat}.
+ * Not thread-safe: meant to be used by the thread fanning the message out.
+ */
+public final class SharedFrame {
+
+    private final SignalCodec codec;
+    private final SignalMessage message;
+    private String json;
+    private TextMessage text;
+    private byte[] cbor;
+
+    SharedFrame(SignalCodec codec, SignalMessage message, String json) {
+        this.codec = codec;
+        this.message = message;
+        this.json = json;
+    }
+
+    public String json() throws IOException {
+        if (json == null) {
+            json = codec.toJson(message);
+        }
+        return json;
+    }
+
+    public WebSocketMessage<?> forFormat(WireFormat format) throws IOException {
+        if (format == WireFormat.CBOR) {
+            if (cbor == null) {
+                cbor = message != null ? codec.toCbor(message) : codec.jsonToCbor(json);
+            }
+            // Sending consumes the buffer's position, so every queue gets its own view of the bytes
+            return new BinaryMessage(cbor);
+        }
+        if (text == null) {
+            text = new TextMessage(json());
+        }
+        return text;
+    }
+}
@@ -0,0 +1,195 @@
+package com.ssafy.webrtc.handler;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.ssafy.webrtc.dto.SignalMessage;
+import com.ssafy.webrtc.metrics.CompressionSampler;
+import com.ssafy.webrtc.metrics.SignalingMetrics;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+/**
+ * Encodes signaling messages for each {@link WireFormat}. JSON text stays the format used
+ * between nodes, so frames only get converted at the edge, for the sessions that asked for
+ * CBOR. Conversions stream token by token; payloads are never bound to objects.
+ */
+@Component
+public class SignalCodec {
+
+    private final ObjectMapper jsonMapper;
+    private final ObjectMapper cborMapper = new CBORMapper();
+    private final SignalingMetrics metrics;
+    private final CompressionSampler compressionSampler;
+
+    public SignalCodec(ObjectMapper objectMapper, SignalingMetrics metrics, CompressionSampler compressionSampler) {
+        this.jsonMapper = objectMapper;
+        this.metrics = metrics;
+        this.compressionSampler = compressionSampler;
+    }
+
+    public JsonFactory getJsonFactory() {
+        return jsonMapper.getFactory();
+    }
+
+    public CBORFactory getCborFactory() {
+        return (CBORFactory) cborMapper.getFactory();
+    }
+
+    public SignalMessage decode(String json) throws IOException {
+        return jsonMapper.readValue(json, SignalMessage.class);
+    }
+
+    public SignalMessage decode(byte[] cbor) throws IOException {
+        return cborMapper.readValue(cbor, SignalMessage.class);
+    }
+
+    public String toJson(SignalMessage message) throws IOException {
+        long start = System.nanoTime();
+        String json = jsonMapper.writeValueAsString(message);
+        metrics.serialization(System.nanoTime() - start);
+        compressionSampler.sample(message.getType(), json);
+        return json;
+    }
+
+    public byte[] toCbor(SignalMessage message) throws IOException {
+        long start = System.nanoTime();
+        byte[] cbor = cborMapper.writeValueAsBytes(message);
+        metrics.serialization(System.nanoTime() - start);
+        compressionSampler.sample(message.getType(), cbor);
+        return cbor;
+    }
+
+    public WebSocketMessage<?> encode(SignalMessage message, WireFormat format) throws IOException {
+        return format == WireFormat.CBOR ? new BinaryMessage(toCbor(message)) : new TextMessage(toJson(message));
+    }
+
+    /**
+     * Wraps a server-generated message so that it is encoded at most once per format, however
+     * many recipients it has.
+     */
+    public SharedFrame share(SignalMessage message) {
+        return new SharedFrame(this, message, null);
+    }
+
+    /**
+     * Wraps a frame that is already JSON text, e.g. one forwarded by another node.
+     */
+    public SharedFrame share(String json) {
+        return new SharedFrame(this, null, json);
+    }
+
+    /**
+     * Relayed frame for a local target, with {@code senderId} set. JSON to JSON keeps the
+     * text splice of {@link RelayEnvelope#withSender}; every other pair is converted in one
+     * streaming pass.
+     */
+    public WebSocketMessage<?> relayFrame(RelayEnvelope envelope, String senderId, WireFormat target)
+            throws IOException {
+        if (target == WireFormat.CBOR) {
+            ByteArrayBuilder out = new ByteArrayBuilder(cborSizeHint(envelope));
+            try (JsonParser in = openSource(envelope); JsonGenerator gen = getCborFactory().createGenerator(out)) {
+                copyWithSender(in, gen, senderId);
+            }
+            byte[] frame = out.toByteArray();
+            compressionSampler.sample(envelope.getType(), frame);
+            return new BinaryMessage(frame);
+        }
+        return new TextMessage(relayJson(envelope, senderId));
+    }
+
+    /**
+     * Relayed frame as JSON text with {@code senderId} set, for local JSON sessions and for
+     * forwarding to other nodes.
+     */
+    public String relayJson(RelayEnvelope envelope, String senderId) throws IOException {
+        String json;
+        if (envelope.isBinary()) {
+            StringWriter out = new StringWriter(envelope.getBinary().length + 64);
+            try (JsonParser in = openSource(envelope); JsonGenerator gen = getJsonFactory().createGenerator(out)) {
+                copyWithSender(in, gen, senderId);
+            }
+            json = out.toString();
+        } else {
+            json = envelope.withSender(senderId);
+        }
+        compressionSampler.sample(envelope.getType(), json);
+        return json;
+    }
+
+    /**
+     * Reply to a relayed frame the {@link RelayGate} refused:
+     * {@code {"type":"relay-rejected","reason":...,"targetId":...}}, written field by field
+     * instead of through a {@link SignalMessage} and its null fields.
+     */
+    public WebSocketMessage<?> relayRejection(String reason, String targetId, WireFormat format) throws IOException {
+        if (format == WireFormat.CBOR) {
+            ByteArrayBuilder out = new ByteArrayBuilder(64);
+            try (JsonGenerator gen = getCborFactory().createGenerator(out)) {
+                writeRejection(gen, reason, targetId);
+            }
+            return new BinaryMessage(out.toByteArray());
+        }
+        StringWriter out = new StringWriter(64);
+        try (JsonGenerator gen = getJsonFactory().createGenerator(out)) {
+            writeRejection(gen, reason, targetId);
+        }
+        return new TextMessage(out.toString());
+    }
+
+    private static void writeRejection(JsonGenerator gen, String reason, String targetId) throws IOException {
+        gen.writeStartObject();
+        gen.writeStringField("type", "relay-rejected");
+        gen.writeStringField("reason", reason);
+        gen.writeStringField("targetId", targetId);
+        gen.writeEndObject();
+    }
+
+    byte[] jsonToCbor(String json) throws IOException {
+        ByteArrayBuilder out = new ByteArrayBuilder(json.length());
+        try (JsonParser in = getJsonFactory().createParser(json);
+             JsonGenerator gen = getCborFactory().createGenerator(out)) {
+            in.nextToken();
+            gen.copyCurrentStructure(in);
+        }
+        return out.toByteArray();
+    }
+
+    private JsonParser openSource(RelayEnvelope envelope) throws IOException {
+        return envelope.isBinary()
+                ? getCborFactory().createParser(envelope.getBinary())
+                : getJsonFactory().createParser(envelope.getJson());
+    }
+
+    // senderId goes first, like the splice does when the client sent none
+    private static void copyWithSender(JsonParser in, JsonGenerator out, String senderId) throws IOException {
+        in.nextToken();
+        out.writeStartObject();
+        out.writeStringField("senderId", senderId);
+        while (in.nextToken() == JsonToken.FIELD_NAME) {
+            String field = in.currentName();
+            in.nextToken();
+            if ("senderId".equals(field)) {
+                in.skipChildren();
+                continue;
+            }
+            out.writeFieldName(field);
+            out.copyCurrentStructure(in);
+        }
+        out.writeEndObject();
+    }
+
+    private static int cborSizeHint(RelayEnvelope envelope) {
+        return envelope.isBinary() ? envelope.getBinary().length + 48 : envelope.getJson().length();
+    }
+}
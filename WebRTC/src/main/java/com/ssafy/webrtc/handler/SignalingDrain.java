@@ -0,0 +1,160 @@
+package com.ssafy.webrtc.handler;
+
+import com.ssafy.webrtc.config.SignalingProperties;
+import com.ssafy.webrtc.dto.SignalMessage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Takes the node out of service without a reconnect storm. On shutdown, before the web
+ * server stops, it:
+ * <ol>
+ *   <li>flips readiness to {@link ReadinessState#REFUSING_TRAFFIC} and refuses new handshakes,</li>
+ *   <li>sends every session a {@code reconnect} hint with a randomized delay, spreading the
+ *       reconnects of all clients over the jitter window,</li>
+ *   <li>waits up to {@code signaling.drain.timeout} for queued frames to be written,</li>
+ *   <li>releases the remaining sessions and closes them with 1001 (going away). Clients rejoin
+ *       after the hint instead of resuming, so the sessions are not parked or journaled.</li>
+ * </ol>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SignalingDrain implements SmartLifecycle, HandshakeInterceptor {
+
+    private static final long FLUSH_POLL_MILLIS = 20;
+
+    private final SessionRegistry sessionRegistry;
+    private final SignalingHandler signalingHandler;
+    private final OutboundDispatcher outboundDispatcher;
+    private final SignalCodec codec;
+    private final ApplicationEventPublisher events;
+    private final SignalingProperties properties;
+
+    private volatile boolean running;
+    private volatile boolean draining;
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        drain();
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Stopped first, while the web server still delivers frames
+    @Override
+    public int getPhase() {
+        return Integer.MAX_VALUE;
+    }
+
+    public boolean isDraining() {
+        return draining;
+    }
+
+    public synchronized void drain() {
+        if (draining) {
+            return;
+        }
+        draining = true;
+        AvailabilityChangeEvent.publish(events, this, ReadinessState.REFUSING_TRAFFIC);
+
+        SignalingProperties.Drain settings = properties.getDrain();
+        List<String> sessionIds = List.copyOf(sessionRegistry.getSessions().keySet());
+        log.info("Draining {} signaling sessions", sessionIds.size());
+        for (String sessionId : sessionIds) {
+            sendReconnectHint(sessionId, settings);
+        }
+        awaitFlush(settings.getTimeout());
+        for (String sessionId : sessionIds) {
+            WebSocketSession session = sessionRegistry.getSessions().get(sessionId);
+            if (session != null) {
+                signalingHandler.release(session);
+                closeQuietly(session);
+            }
+        }
+        log.info("Signaling drain finished, {} frames left unsent, {} buffered for parked sessions",
+                outboundDispatcher.getQueuedFrames(), outboundDispatcher.getParkedFrames());
+    }
+
+    @Override
+    public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                   WebSocketHandler wsHandler, Map<String, Object> attributes) {
+        if (draining) {
+            response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                               WebSocketHandler wsHandler, Exception exception) {
+    }
+
+    private void sendReconnectHint(String sessionId, SignalingProperties.Drain settings) {
+        OutboundQueue queue = sessionRegistry.getOutboundQueue(sessionId);
+        if (queue == null || !queue.isOpen()) {
+            return;
+        }
+        long jitter = settings.getReconnectJitter().toMillis();
+        long delayMillis = settings.getReconnectDelay().toMillis()
+                + (jitter > 0 ? ThreadLocalRandom.current().nextLong(jitter + 1) : 0);
+        SignalMessage hint = SignalMessage.builder()
+                .type("reconnect")
+                .payload(Map.of("delayMs", delayMillis))
+                .build();
+        try {
+            queue.enqueue(codec.encode(hint, queue.getFormat()), false);
+        } catch (IOException e) {
+            log.warn("Cannot send reconnect hint to {}: {}", sessionId, e.getMessage());
+        }
+    }
+
+    // Frames of parked sessions are not waited for: nothing writes them unless the session resumes
+    private void awaitFlush(Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (outboundDispatcher.getQueuedFrames() > 0 && System.nanoTime() < deadline) {
+            try {
+                Thread.sleep(FLUSH_POLL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private static void closeQuietly(WebSocketSession session) {
+        try {
+            session.close(CloseStatus.GOING_AWAY);
+        } catch (IOException e) {
+            log.debug("Failed to close session {}: {}", session.getId(), e.getMessage());
+        }
+    }
+}
@@ -1,62 +1,141 @@
 package com.ssafy.webrtc.handler;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ssafy.webrtc.cluster.SignalingCluster;
 import com.ssafy.webrtc.dto.SignalMessage;
+import com.ssafy.webrtc.metrics.SignalingMetrics;
 import com.ssafy.webrtc.service.RoomService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
 import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.PongMessage;
 import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
 import org.springframework.web.socket.WebSocketSession;
-import org.springframework.web.socket.handler.TextWebSocketHandler;
+import org.springframework.web.socket.handler.AbstractWebSocketHandler;
 
 import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Set;
 
 @Slf4j
 @Component
 @RequiredArgsConstructor
-public class SignalingHandler extends TextWebSocketHandler {
+public class SignalingHandler extends AbstractWebSocketHandler {
 
-    private final ObjectMapper objectMapper;
+    private final SignalCodec codec;
     private final RoomService roomService;
-    private final Map<String, WebSocketSession> sessions = new ConcurrentHashMap<>();
+    private final SessionRegistry sessionRegistry;
+    private final SignalingCluster cluster;
+    private final IceBatcher iceBatcher;
+    private final JoinRateLimiter joinRateLimiter;
+    private final RelayGate relayGate;
+    private final SessionResumption resumption;
+    private final SessionHeartbeat heartbeat;
+    private final SignalingMetrics metrics;
 
     @Override
     public void afterConnectionEstablished(WebSocketSession session) {
-        String sessionId = session.getId();
-        sessions.put(sessionId, session);
-        log.info("WebSocket connected: {}", sessionId);
+        sessionRegistry.register(session);
+        heartbeat.watch(session, this::reapIdle);
+        metrics.sessionOpened(session.getExtensions().stream()
+                .anyMatch(extension -> "permessage-deflate".equals(extension.getName())));
+        log.info("WebSocket connected: {}", session.getId());
     }
 
     @Override
     public void handleTextMessage(WebSocketSession session, TextMessage message) throws Exception {
+        long receivedNanos = System.nanoTime();
+        heartbeat.touch(session, receivedNanos);
         String payload = message.getPayload();
         log.debug("Received message: {}", payload);
 
-        SignalMessage signalMessage = objectMapper.readValue(payload, SignalMessage.class);
-        signalMessage.setSenderId(session.getId());
+        // offer/answer/ice-candidate are forwarded as-is, without binding the SDP/ICE payload
+        RelayEnvelope envelope = RelayEnvelope.tryParse(codec.getJsonFactory(), payload);
+        if (envelope != null) {
+            metrics.messageReceived(envelope.getType());
+            relay(session, envelope, receivedNanos);
+            return;
+        }
+        handleSignal(session, codec.decode(payload));
+    }
+
+    /**
+     * CBOR frames from sessions that negotiated {@link WireFormat#CBOR}. Same messages as
+     * the JSON ones; relayed frames are converted for targets speaking JSON.
+     */
+    @Override
+    protected void handleBinaryMessage(WebSocketSession session, BinaryMessage message) throws Exception {
+        long receivedNanos = System.nanoTime();
+        heartbeat.touch(session, receivedNanos);
+        ByteBuffer buffer = message.getPayload();
+        byte[] payload = new byte[buffer.remaining()];
+        buffer.get(payload);
+        log.debug("Received binary message of {} bytes", payload.length);
+
+        RelayEnvelope envelope = RelayEnvelope.tryParse(codec.getCborFactory(), payload);
+        if (envelope != null) {
+            metrics.messageReceived(envelope.getType());
+            relay(session, envelope, receivedNanos);
+            return;
+        }
+        handleSignal(session, codec.decode(payload));
+    }
+
+    @Override
+    protected void handlePongMessage(WebSocketSession session, PongMessage message) {
+        heartbeat.touch(session, System.nanoTime());
+    }
+
+    private void handleSignal(WebSocketSession session, SignalMessage signalMessage) throws IOException {
+        signalMessage.setSenderId(sessionRegistry.sessionIdOf(session));
+        metrics.messageReceived(signalMessage.getType());
 
         switch (signalMessage.getType()) {
             case "join" -> handleJoin(session, signalMessage);
+            case "resume" -> handleResume(session, signalMessage);
             case "offer" -> handleOffer(signalMessage);
             case "answer" -> handleAnswer(signalMessage);
             case "ice-candidate" -> handleIceCandidate(signalMessage);
             case "leave" -> handleLeave(session, signalMessage);
-            default -> log.warn("Unknown message type: {}", signalMessage.getType());
+            default -> {
+                metrics.messageDropped(SignalingMetrics.DROP_UNKNOWN_TYPE);
+                log.warn("Unknown message type: {}", signalMessage.getType());
+            }
         }
     }
 
     private void handleJoin(WebSocketSession session, SignalMessage message) throws IOException {
         String roomId = message.getRoomId();
-        String sessionId = session.getId();
+        String sessionId = message.getSenderId();
+
+        // Refused before any room state is read or any frame is built
+        if (!joinRateLimiter.tryAcquire(clientAddress(session), roomId)) {
+            metrics.messageDropped(SignalingMetrics.DROP_RATE_LIMITED);
+            rejectJoin(sessionId, roomId, "rate-limited");
+            return;
+        }
 
         // Get existing participants BEFORE joining
         java.util.Set<String> existingParticipants = new java.util.HashSet<>(roomService.getRoomParticipants(roomId));
 
-        roomService.joinRoom(roomId, sessionId);
+        if (!cluster.joinRoom(roomId, sessionId)) {
+            metrics.messageDropped(SignalingMetrics.DROP_ROOM_FULL);
+            rejectJoin(sessionId, roomId, "room-full");
+            return;
+        }
+        // Batches are JSON text built from the raw payloads, so CBOR sessions don't get them
+        if (message.getCapabilities() != null && message.getCapabilities().contains(IceBatcher.CAPABILITY)
+                && WireFormat.of(session) == WireFormat.JSON) {
+            iceBatcher.enable(sessionId);
+        }
 
         // Send room-info to the new user with existing participants list
         SignalMessage roomInfo = SignalMessage.builder()
@@ -64,73 +143,299 @@ public class SignalingHandler extends TextWebSocketHandler {
                 .roomId(roomId)
                 .senderId(sessionId)
                 .participants(new java.util.ArrayList<>(existingParticipants))
+                .resumeToken(resumption.isEnabled() ? resumption.issueToken(sessionId) : null)
                 .build();
         sendMessage(sessionId, roomInfo);
 
         // Notify existing users in the room about the new user
-        for (String participantId : existingParticipants) {
-            SignalMessage notification = SignalMessage.builder()
-                    .type("user-joined")
-                    .roomId(roomId)
-                    .senderId(sessionId)
-                    .build();
-            sendMessage(participantId, notification);
-        }
+        SignalMessage notification = SignalMessage.builder()
+                .type("user-joined")
+                .roomId(roomId)
+                .senderId(sessionId)
+                .build();
+        broadcast(existingParticipants, notification);
 
         log.info("User {} joined room {} (existing participants: {})", sessionId, roomId, existingParticipants.size());
     }
 
+    /**
+     * Moves a session that lost its connection onto this one, keeping its ID and rooms, and
+     * replays what was buffered for it. Clients told {@code resume-failed} join from scratch.
+     * Only a connection that has not joined a room or resumed yet can resume: it gives up its
+     * own registration, so rooms it joined would keep a participant nobody can ever release.
+     */
+    private void handleResume(WebSocketSession session, SignalMessage message) throws IOException {
+        String sessionId = resumption.verify(message.getResumeToken());
+        boolean fresh = sessionRegistry.sessionIdOf(session).equals(session.getId())
+                && roomService.getSessionRooms(session.getId()).isEmpty();
+        boolean resumed = false;
+        if (sessionId != null && !sessionId.equals(session.getId()) && fresh) {
+            WebSocketSession stale = sessionRegistry.getSessions().get(sessionId);
+            boolean parked;
+            if (stale != null) {
+                // The client noticed the drop before the server did
+                parked = sessionRegistry.park(sessionId);
+                closeQuietly(stale);
+            } else {
+                parked = resumption.unpark(sessionId);
+            }
+            if (parked) {
+                SignalMessage reply = SignalMessage.builder()
+                        .type("resumed")
+                        .senderId(sessionId)
+                        .build();
+                WebSocketMessage<?> frame = codec.encode(reply, WireFormat.of(session));
+                // Sessions recovered from the room journal have no queue left to resume, they take over this one
+                resumed = sessionRegistry.getOutboundQueue(sessionId) != null
+                        ? sessionRegistry.resume(sessionId, session, frame)
+                        : sessionRegistry.adopt(sessionId, session, frame);
+            }
+            if (!resumed && (parked || stale != null)) {
+                release(sessionId);
+            }
+        }
+        metrics.resumption(resumed ? SignalingMetrics.RESUME_RESUMED : SignalingMetrics.RESUME_REJECTED);
+        if (resumed) {
+            log.info("Session {} resumed on connection {}", sessionId, session.getId());
+        } else {
+            sendMessage(session.getId(), SignalMessage.builder().type("resume-failed").build());
+            log.info("Resume on connection {} refused", session.getId());
+        }
+    }
+
+    /**
+     * Puts sessions recovered from the room journal back into their rooms, parked as if they
+     * had just dropped, so their clients can resume after a restart. Without resumption
+     * nobody could ever reclaim them, so nothing is restored.
+     */
+    public void restore(Map<String, Set<String>> rooms) {
+        if (!resumption.isEnabled()) {
+            log.warn("Session resumption is disabled, not restoring {} journaled rooms", rooms.size());
+            return;
+        }
+        Set<String> sessionIds = new HashSet<>();
+        rooms.forEach((roomId, participants) -> {
+            for (String sessionId : participants) {
+                roomService.applyJoin(roomId, sessionId);
+                sessionIds.add(sessionId);
+            }
+        });
+        for (String sessionId : sessionIds) {
+            resumption.park(sessionId, () -> {
+                release(sessionId);
+                metrics.resumption(SignalingMetrics.RESUME_EXPIRED);
+            });
+        }
+        log.info("Restored {} rooms with {} sessions, resumable for {}", rooms.size(), sessionIds.size(),
+                resumption.getWindow());
+    }
+
+    private static void closeQuietly(WebSocketSession session) {
+        try {
+            session.close(CloseStatus.SESSION_NOT_RELIABLE);
+        } catch (IOException e) {
+            log.debug("Failed to close replaced connection {}: {}", session.getId(), e.getMessage());
+        }
+    }
+
+    private void rejectJoin(String sessionId, String roomId, String reason) throws IOException {
+        sendMessage(sessionId, SignalMessage.builder()
+                .type(reason)
+                .roomId(roomId)
+                .build());
+        log.info("Join of {} to room {} refused: {}", sessionId, roomId, reason);
+    }
+
+    private static String clientAddress(WebSocketSession session) {
+        InetSocketAddress remote = session.getRemoteAddress();
+        return remote != null && remote.getAddress() != null ? remote.getAddress().getHostAddress() : null;
+    }
+
+    private void relay(WebSocketSession session, RelayEnvelope envelope, long receivedNanos) throws IOException {
+        String senderId = sessionRegistry.sessionIdOf(session);
+        String targetId = envelope.getTargetId();
+        if (!admitRelay(senderId, envelope.getType(), envelope.getRoomId(), targetId)) {
+            return;
+        }
+        OutboundQueue queue = sessionRegistry.getOutboundQueue(targetId);
+        if (queue == null) {
+            cluster.deliver(targetId, codec.relayJson(envelope, senderId), envelope.isIceCandidate());
+        } else if (envelope.isIceCandidate() && !envelope.isBinary() && iceBatcher.accepts(targetId)) {
+            iceBatcher.add(senderId, queue, envelope, receivedNanos);
+        } else if (queue.isOpen()) {
+            // Candidates still waiting in a batch must not be overtaken by this frame
+            iceBatcher.flush(senderId, targetId);
+            queue.enqueue(codec.relayFrame(envelope, senderId, queue.getFormat()), envelope.isIceCandidate(),
+                    receivedNanos);
+        }
+        log.debug("{} relayed from {} to {}", envelope.getType(), senderId, targetId);
+    }
+
+    /**
+     * Runs the {@link RelayGate} on a relayed frame. A refused frame is counted and answered
+     * with a {@code relay-rejected} frame; it is never serialized for the target.
+     */
+    private boolean admitRelay(String senderId, String type, String roomId, String targetId) throws IOException {
+        if (targetId == null) {
+            metrics.messageDropped(SignalingMetrics.DROP_MISSING_TARGET);
+            log.warn("Dropping {} from {} without targetId", type, senderId);
+            return false;
+        }
+        String rejection = relayGate.check(senderId, roomId, targetId);
+        if (rejection == null) {
+            return true;
+        }
+        metrics.messageDropped(rejection);
+        OutboundQueue queue = sessionRegistry.getOutboundQueue(senderId);
+        if (queue != null && queue.isOpen()) {
+            // Droppable, so a sender flooding refused frames cannot fill its own queue with the replies
+            queue.enqueue(codec.relayRejection(rejection, targetId, queue.getFormat()), true);
+        }
+        log.debug("{} from {} to {} refused: {}", type, senderId, targetId, rejection);
+        return false;
+    }
+
     private void handleOffer(SignalMessage message) throws IOException {
+        if (!admitRelay(message.getSenderId(), message.getType(), message.getRoomId(), message.getTargetId())) {
+            return;
+        }
+        iceBatcher.flush(message.getSenderId(), message.getTargetId());
         sendMessage(message.getTargetId(), message);
         log.debug("Offer sent from {} to {}", message.getSenderId(), message.getTargetId());
     }
 
     private void handleAnswer(SignalMessage message) throws IOException {
+        if (!admitRelay(message.getSenderId(), message.getType(), message.getRoomId(), message.getTargetId())) {
+            return;
+        }
+        iceBatcher.flush(message.getSenderId(), message.getTargetId());
         sendMessage(message.getTargetId(), message);
         log.debug("Answer sent from {} to {}", message.getSenderId(), message.getTargetId());
     }
 
     private void handleIceCandidate(SignalMessage message) throws IOException {
+        if (!admitRelay(message.getSenderId(), message.getType(), message.getRoomId(), message.getTargetId())) {
+            return;
+        }
+        iceBatcher.flush(message.getSenderId(), message.getTargetId());
         sendMessage(message.getTargetId(), message);
         log.debug("ICE candidate sent from {} to {}", message.getSenderId(), message.getTargetId());
     }
 
     private void handleLeave(WebSocketSession session, SignalMessage message) throws IOException {
         String roomId = message.getRoomId();
-        String sessionId = session.getId();
+        String sessionId = message.getSenderId();
 
-        roomService.leaveRoom(roomId, sessionId);
+        cluster.leaveRoom(roomId, sessionId);
 
         // Notify remaining users
-        for (String participantId : roomService.getRoomParticipants(roomId)) {
-            SignalMessage notification = SignalMessage.builder()
-                    .type("user-left")
-                    .roomId(roomId)
-                    .senderId(sessionId)
-                    .build();
-            sendMessage(participantId, notification);
-        }
+        SignalMessage notification = SignalMessage.builder()
+                .type("user-left")
+                .roomId(roomId)
+                .senderId(sessionId)
+                .build();
+        broadcast(roomService.getRoomParticipants(roomId), notification);
 
         log.info("User {} left room {}", sessionId, roomId);
     }
 
+    /**
+     * A session that is in a room and did not close normally is parked for the resumption
+     * window instead of being released right away.
+     */
     @Override
     public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
-        String sessionId = session.getId();
-        sessions.remove(sessionId);
-        roomService.removeUserFromAllRooms(sessionId);
+        heartbeat.unwatch(session);
+        String sessionId = sessionRegistry.sessionIdOf(session);
+        if (!sessionRegistry.detach(session)) {
+            // Already handled: its session moved to a resuming connection, was reaped as idle or released by a drain
+            log.info("WebSocket disconnected: {} (already released)", session.getId());
+            return;
+        }
+        if (resumption.isEnabled() && status.getCode() != CloseStatus.NORMAL.getCode()
+                && !roomService.getSessionRooms(sessionId).isEmpty() && sessionRegistry.park(sessionId)) {
+            resumption.park(sessionId, () -> {
+                release(sessionId);
+                metrics.resumption(SignalingMetrics.RESUME_EXPIRED);
+            });
+            log.info("WebSocket disconnected: {}, resumable for {}", sessionId, resumption.getWindow());
+            return;
+        }
+        release(sessionId);
         log.info("WebSocket disconnected: {}", sessionId);
     }
 
+    /**
+     * Releases the connection's session for good, leaving its rooms, before the connection is
+     * closed; the close that follows then finds it released instead of parking it.
+     */
+    public void release(WebSocketSession session) {
+        heartbeat.unwatch(session);
+        String sessionId = sessionRegistry.sessionIdOf(session);
+        if (sessionRegistry.detach(session)) {
+            release(sessionId);
+            log.info("WebSocket released: {}", sessionId);
+        }
+    }
+
+    /**
+     * Runs the regular close handling for a connection that stopped answering pings; the
+     * heartbeat closes it. Whichever of this and the container's close callback comes first
+     * handles the session, the other finds it detached.
+     */
+    private void reapIdle(WebSocketSession session) {
+        afterConnectionClosed(session, SessionHeartbeat.IDLE_TIMEOUT);
+    }
+
+    private void release(String sessionId) {
+        sessionRegistry.unregister(sessionId);
+        iceBatcher.forget(sessionId);
+        relayGate.forget(sessionId);
+        cluster.removeUserFromAllRooms(sessionId);
+    }
+
+    /**
+     * Sends the same message to every recipient. The message is serialized once per wire
+     * format in use and the resulting frames are shared by all outbound queues; recipients
+     * connected to other nodes get it forwarded in one bus message per node.
+     */
+    public void broadcast(Collection<String> recipientIds, SignalMessage message) throws IOException {
+        if (recipientIds.isEmpty()) {
+            return;
+        }
+        SharedFrame frame = codec.share(message);
+        boolean droppable = isDroppable(message);
+        List<String> remoteIds = null;
+        for (String recipientId : recipientIds) {
+            // The frame goes to the recipient's outbound queue; the socket write happens on a writer thread
+            if (!sessionRegistry.send(recipientId, frame, droppable)) {
+                if (remoteIds == null) {
+                    remoteIds = new ArrayList<>();
+                }
+                remoteIds.add(recipientId);
+            }
+        }
+        if (remoteIds != null) {
+            cluster.deliver(remoteIds, frame.json(), droppable);
+        }
+    }
+
     private void sendMessage(String sessionId, SignalMessage message) throws IOException {
-        WebSocketSession session = sessions.get(sessionId);
-        if (session != null && session.isOpen()) {
-            String json = objectMapper.writeValueAsString(message);
-            session.sendMessage(new TextMessage(json));
+        OutboundQueue queue = sessionRegistry.getOutboundQueue(sessionId);
+        if (queue == null) {
+            if (cluster.isRemote(sessionId)) {
+                cluster.deliver(sessionId, codec.toJson(message), isDroppable(message));
+            }
+        } else if (queue.isOpen()) {
+            queue.enqueue(codec.encode(message, queue.getFormat()), isDroppable(message));
         }
     }
 
+    private static boolean isDroppable(SignalMessage message) {
+        return "ice-candidate".equals(message.getType());
+    }
+
     public Map<String, WebSocketSession> getSessions() {
-        return sessions;
+        return sessionRegistry.getSessions();
     }
 }
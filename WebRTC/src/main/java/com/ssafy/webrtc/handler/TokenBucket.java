@@ -0,0 +1,49 @@
+package com.ssafy.webrtc.handler;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A token bucket on a nanosecond clock, refilled lazily when it is used. Shared by the
+ * join and relay limits; each bucket is guarded by its own monitor.
+ */
+final class TokenBucket {
+
+    private double tokens;
+    private long refilledAt;
+
+    TokenBucket(int tokens, long now) {
+        this.tokens = tokens;
+        this.refilledAt = now;
+    }
+
+    synchronized boolean tryTake(Limit limit, long now) {
+        refill(limit, now);
+        if (tokens < 1) {
+            return false;
+        }
+        tokens--;
+        return true;
+    }
+
+    synchronized boolean isFull(Limit limit, long now) {
+        refill(limit, now);
+        return tokens >= limit.burst();
+    }
+
+    private void refill(Limit limit, long now) {
+        if (now > refilledAt) {
+            tokens = Math.min(limit.burst(), tokens + (now - refilledAt) * limit.tokensPerNano());
+            refilledAt = now;
+        }
+    }
+
+    record Limit(double tokensPerNano, int burst) {
+
+        /**
+         * @return the limit, or {@code null} for a rate of 0, meaning no limit
+         */
+        static Limit of(double perSecond, int burst) {
+            return perSecond > 0 ? new Limit(perSecond / TimeUnit.SECONDS.toNanos(1), Math.max(1, burst)) : null;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.ssafy.webrtc.handler;
+
+import org.springframework.web.socket.WebSocketSession;
+
+/**
+ * Encoding spoken on a signaling connection, chosen through the WebSocket subprotocol.
+ * Connections that don't ask for one get JSON text frames, as browsers always have.
+ */
+public enum WireFormat {
+
+    JSON("signal.json"),
+
+    /** CBOR binary frames; same message shapes as JSON */
+    CBOR("signal.cbor");
+
+    private final String subprotocol;
+
+    WireFormat(String subprotocol) {
+        this.subprotocol = subprotocol;
+    }
+
+    public String getSubprotocol() {
+        return subprotocol;
+    }
+
+    public static String[] subprotocols() {
+        return new String[]{CBOR.subprotocol, JSON.subprotocol};
+    }
+
+    public static WireFormat of(WebSocketSession session) {
+        return CBOR.subprotocol.equals(session.getAcceptedProtocol()) ? CBOR : JSON;
+    }
+}
@@ -0,0 +1,168 @@
+package com.ssafy.webrtc.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+
+/**
+ * Estimates what permessage-deflate does to each outbound message type. Every Nth frame of a
+ * type has its size recorded on the sending thread; if it is at least {@code minSize} long it
+ * is then handed to a sampler thread, which deflates it and records the ratio and CPU time:
+ * <ul>
+ *   <li>{@code signaling.compression.frame.size{type}}: original size (UTF-16 units for text frames)</li>
+ *   <li>{@code signaling.compression.ratio{type}}: compressed / original size</li>
+ *   <li>{@code signaling.compression.cost{type}}: time spent deflating the frame</li>
+ * </ul>
+ * Each sample starts from an empty window, so the ratio is an upper bound for connections
+ * that keep context takeover, where repeated SDP lines compress further. Samples the sampler
+ * thread has no room for are dropped.
+ */
+@Slf4j
+public class CompressionSampler {
+
+    private static final String[] MESSAGE_TYPES = {"offer", "answer", "ice-candidate", "room-info", "user-joined", "user-left"};
+
+    private final int sampleEvery;
+    private final int minSize;
+    private final Executor executor;
+    private final Map<String, TypeSamples> samples;
+    // Only touched from the sampler thread
+    private final Deflater deflater;
+    private byte[] buffer = new byte[1024];
+
+    /**
+     * @param sampleEvery record one frame out of this many per type
+     * @param minSize     frames shorter than this are not deflated, only their size is recorded
+     * @param executor    single sampler thread that runs the deflates off the sending path
+     */
+    public CompressionSampler(MeterRegistry registry, int sampleEvery, int minSize, Executor executor) {
+        this.sampleEvery = sampleEvery;
+        this.minSize = minSize;
+        this.executor = executor;
+        this.samples = Map.copyOf(Stream.of(MESSAGE_TYPES)
+                .collect(Collectors.toMap(Function.identity(), type -> new TypeSamples(registry, type))));
+        // Raw deflate, as permessage-deflate puts on the wire
+        this.deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+    }
+
+    private CompressionSampler() {
+        this.sampleEvery = 0;
+        this.minSize = 0;
+        this.executor = null;
+        this.samples = Map.of();
+        this.deflater = null;
+    }
+
+    public static CompressionSampler disabled() {
+        return new CompressionSampler();
+    }
+
+    public void stop() {
+        if (executor instanceof ExecutorService executorService) {
+            executorService.shutdownNow();
+            try {
+                if (!executorService.awaitTermination(1, TimeUnit.SECONDS)) {
+                    return;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        if (deflater != null) {
+            deflater.end();
+        }
+    }
+
+    public void sample(String type, String frame) {
+        TypeSamples typeSamples = due(type, frame.length());
+        if (typeSamples != null) {
+            submit(() -> typeSamples.record(frame.getBytes(StandardCharsets.UTF_8)));
+        }
+    }
+
+    public void sample(String type, byte[] frame) {
+        TypeSamples typeSamples = due(type, frame.length);
+        if (typeSamples != null) {
+            submit(() -> typeSamples.record(frame));
+        }
+    }
+
+    /**
+     * @return the type's samples if this frame should be deflated
+     */
+    private TypeSamples due(String type, int length) {
+        TypeSamples typeSamples = type != null ? samples.get(type) : null;
+        if (typeSamples == null || length == 0 || typeSamples.seen.incrementAndGet() % sampleEvery != 0) {
+            return null;
+        }
+        typeSamples.size.record(length);
+        return length >= minSize ? typeSamples : null;
+    }
+
+    private void submit(Runnable sample) {
+        try {
+            executor.execute(sample);
+        } catch (RejectedExecutionException e) {
+            log.debug("Compression sampler rejected sample: {}", e.getMessage());
+        }
+    }
+
+    int deflatedSize(byte[] frame) {
+        if (buffer.length < frame.length) {
+            buffer = new byte[frame.length];
+        }
+        deflater.reset();
+        deflater.setInput(frame);
+        deflater.finish();
+        int size = 0;
+        while (!deflater.finished()) {
+            size += deflater.deflate(buffer);
+        }
+        return size;
+    }
+
+    private final class TypeSamples {
+
+        private final AtomicLong seen = new AtomicLong();
+        private final DistributionSummary ratio;
+        private final DistributionSummary size;
+        private final Timer cost;
+
+        TypeSamples(MeterRegistry registry, String type) {
+            ratio = DistributionSummary.builder("signaling.compression.ratio")
+                    .description("Sampled deflate output size relative to the original frame")
+                    .tag("type", type)
+                    .register(registry);
+            size = DistributionSummary.builder("signaling.compression.frame.size")
+                    .description("Size of sampled outbound frames before compression")
+                    .baseUnit("bytes")
+                    .tag("type", type)
+                    .register(registry);
+            cost = Timer.builder("signaling.compression.cost")
+                    .description("CPU time to deflate a sampled outbound frame")
+                    .tag("type", type)
+                    .register(registry);
+        }
+
+        void record(byte[] frame) {
+            long start = System.nanoTime();
+            int compressed = deflatedSize(frame);
+            cost.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            ratio.record((double) compressed / frame.length);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.ssafy.webrtc.metrics;
+
+import com.ssafy.webrtc.service.RoomListener;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Number of rooms per size bucket, kept current from membership changes so scraping never
+ * walks the rooms. It only counts right if it listens from the first membership change on,
+ * so it is registered together with the {@link com.ssafy.webrtc.service.RoomService}, before
+ * rooms are restored from the journal.
+ */
+public class RoomSizeDistribution implements RoomListener {
+
+    // Inclusive upper bound of each bucket; the last bucket is open-ended
+    static final int[] UPPER_BOUNDS = {1, 2, 4, 8, 16, 32, Integer.MAX_VALUE};
+
+    private final AtomicLongArray rooms = new AtomicLongArray(UPPER_BOUNDS.length);
+
+    @Override
+    public void onJoined(String roomId, String sessionId, int size) {
+        move(size - 1, size);
+    }
+
+    @Override
+    public void onLeft(String roomId, String sessionId, int size) {
+        move(size + 1, size);
+    }
+
+    long roomsInBucket(int bucket) {
+        return rooms.get(bucket);
+    }
+
+    static String label(int bucket) {
+        int lower = bucket == 0 ? 1 : UPPER_BOUNDS[bucket - 1] + 1;
+        int upper = UPPER_BOUNDS[bucket];
+        if (upper == Integer.MAX_VALUE) {
+            return lower + "+";
+        }
+        return lower == upper ? String.valueOf(lower) : lower + "-" + upper;
+    }
+
+    private void move(int from, int to) {
+        int fromBucket = bucket(from);
+        int toBucket = bucket(to);
+        if (fromBucket == toBucket) {
+            return;
+        }
+        if (fromBucket >= 0) {
+            rooms.decrementAndGet(fromBucket);
+        }
+        if (toBucket >= 0) {
+            rooms.incrementAndGet(toBucket);
+        }
+    }
+
+    private static int bucket(int size) {
+        if (size <= 0) {
+            return -1;
+        }
+        int bucket = 0;
+        while (size > UPPER_BOUNDS[bucket]) {
+            bucket++;
+        }
+        return bucket;
+    }
+}
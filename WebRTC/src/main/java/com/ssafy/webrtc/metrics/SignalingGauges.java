@@ -0,0 +1,78 @@
+package com.ssafy.webrtc.metrics;
+
+import com.ssafy.webrtc.handler.OutboundDispatcher;
+import com.ssafy.webrtc.handler.SessionHeartbeat;
+import com.ssafy.webrtc.handler.SessionRegistry;
+import com.ssafy.webrtc.handler.SessionResumption;
+import com.ssafy.webrtc.service.RoomJournal;
+import com.ssafy.webrtc.service.RoomService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Gauges and counters read from existing state at scrape time, plus the room-size
+ * distribution, which is fed by room membership changes from the moment the
+ * {@link RoomService} is built.
+ */
+@Component
+@RequiredArgsConstructor
+public class SignalingGauges implements MeterBinder {
+
+    private final SessionRegistry sessionRegistry;
+    private final RoomService roomService;
+    private final OutboundDispatcher outboundDispatcher;
+    private final SessionResumption resumption;
+    private final SessionHeartbeat heartbeat;
+    private final RoomJournal roomJournal;
+    private final RoomSizeDistribution roomSizes;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("signaling.sessions.active", sessionRegistry, sessions -> sessions.getSessions().size())
+                .description("WebSocket sessions connected to this node")
+                .register(registry);
+        Gauge.builder("signaling.sessions.parked", resumption, SessionResumption::getParkedCount)
+                .description("Disconnected sessions waiting to be resumed")
+                .register(registry);
+        FunctionCounter.builder("signaling.sessions.reaped", heartbeat, SessionHeartbeat::getReapedCount)
+                .description("Connections closed because they stopped answering pings")
+                .register(registry);
+        Gauge.builder("signaling.rooms.active", roomService, RoomService::getRoomCount)
+                .description("Rooms with at least one participant")
+                .register(registry);
+        Gauge.builder("signaling.outbound.queued", outboundDispatcher, OutboundDispatcher::getQueuedFrames)
+                .description("Frames waiting in session outbound queues")
+                .register(registry);
+        Gauge.builder("signaling.outbound.parked", outboundDispatcher, OutboundDispatcher::getParkedFrames)
+                .description("Frames buffered for parked sessions until they resume")
+                .register(registry);
+        FunctionCounter.builder("signaling.outbound.dropped", outboundDispatcher, OutboundDispatcher::getDroppedFrames)
+                .description("Frames evicted from full outbound queues")
+                .register(registry);
+        FunctionCounter.builder("signaling.outbound.overflow.closures", outboundDispatcher,
+                        OutboundDispatcher::getOverflowClosures)
+                .description("Sessions closed because their outbound queue overflowed")
+                .register(registry);
+        FunctionCounter.builder("signaling.outbound.send.failures", outboundDispatcher, OutboundDispatcher::getSendFailures)
+                .description("Writes to a session that failed")
+                .register(registry);
+        Gauge.builder("signaling.journal.pending", roomJournal, RoomJournal::getPendingCount)
+                .description("Room membership changes waiting for the next journal flush")
+                .register(registry);
+        FunctionCounter.builder("signaling.journal.dropped", roomJournal, RoomJournal::getDroppedCount)
+                .description("Membership changes the journal queue had no room for, covered by a snapshot")
+                .register(registry);
+
+        for (int bucket = 0; bucket < RoomSizeDistribution.UPPER_BOUNDS.length; bucket++) {
+            int index = bucket;
+            Gauge.builder("signaling.rooms.size", roomSizes, distribution -> distribution.roomsInBucket(index))
+                    .description("Rooms by number of participants")
+                    .tag("participants", RoomSizeDistribution.label(bucket))
+                    .register(registry);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.ssafy.webrtc.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Meters recorded on the signaling hot paths. Every meter is registered up front and looked
+ * up from immutable maps, so recording never allocates.
+ */
+@Component
+public class SignalingMetrics {
+
+    public static final String DROP_UNKNOWN_TYPE = "unknown-type";
+    public static final String DROP_MISSING_TARGET = "missing-target";
+    public static final String DROP_ROOM_FULL = "room-full";
+    public static final String DROP_RATE_LIMITED = "rate-limited";
+    public static final String DROP_UNKNOWN_TARGET = "unknown-target";
+    public static final String DROP_NOT_IN_ROOM = "not-in-room";
+
+    public static final String RESUME_RESUMED = "resumed";
+    public static final String RESUME_REJECTED = "rejected";
+    public static final String RESUME_EXPIRED = "expired";
+
+    private static final String[] MESSAGE_TYPES = {"join", "leave", "resume", "offer", "answer", "ice-candidate"};
+    private static final String[] DROP_REASONS = {DROP_UNKNOWN_TYPE, DROP_MISSING_TARGET, DROP_ROOM_FULL,
+            DROP_RATE_LIMITED, DROP_UNKNOWN_TARGET, DROP_NOT_IN_ROOM};
+    private static final String[] RESUME_OUTCOMES = {RESUME_RESUMED, RESUME_REJECTED, RESUME_EXPIRED};
+
+    private final Map<String, Counter> received;
+    private final Map<String, Counter> dropped;
+    private final Map<String, Counter> resumptions;
+    private final Timer relayLatency;
+    private final Timer serialization;
+    private final Counter sessionsDeflate;
+    private final Counter sessionsPlain;
+
+    public SignalingMetrics(MeterRegistry registry) {
+        received = counters(MESSAGE_TYPES, type -> Counter.builder("signaling.messages.received")
+                .description("Signaling messages received from clients")
+                .tag("type", type)
+                .register(registry));
+        dropped = counters(DROP_REASONS, reason -> Counter.builder("signaling.messages.dropped")
+                .description("Signaling messages discarded instead of being handled")
+                .tag("reason", reason)
+                .register(registry));
+        resumptions = counters(RESUME_OUTCOMES, outcome -> Counter.builder("signaling.sessions.resumptions")
+                .description("Disconnected sessions by how their resumption window ended")
+                .tag("outcome", outcome)
+                .register(registry));
+        relayLatency = Timer.builder("signaling.relay.latency")
+                .description("Time from receiving a relayed frame to finishing its write to the target")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofNanos(10_000))
+                .maximumExpectedValue(Duration.ofSeconds(5))
+                .register(registry);
+        serialization = Timer.builder("signaling.serialization")
+                .description("Time spent serializing server-generated signaling messages")
+                .register(registry);
+        sessionsDeflate = sessionsCounter(registry, true);
+        sessionsPlain = sessionsCounter(registry, false);
+    }
+
+    public void messageReceived(String type) {
+        Counter counter = type != null ? received.get(type) : null;
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+
+    /**
+     * @param reason one of the {@code DROP_*} constants
+     */
+    public void messageDropped(String reason) {
+        dropped.get(reason).increment();
+    }
+
+    /**
+     * @param outcome one of the {@code RESUME_*} constants
+     */
+    public void resumption(String outcome) {
+        resumptions.get(outcome).increment();
+    }
+
+    public void relayLatency(long nanos) {
+        relayLatency.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void serialization(long nanos) {
+        serialization.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Counts a new connection by whether it negotiated permessage-deflate.
+     */
+    public void sessionOpened(boolean deflate) {
+        (deflate ? sessionsDeflate : sessionsPlain).increment();
+    }
+
+    private static Counter sessionsCounter(MeterRegistry registry, boolean deflate) {
+        return Counter.builder("signaling.compression.sessions")
+                .description("WebSocket connections opened, by whether permessage-deflate was negotiated")
+                .tag("deflate", Boolean.toString(deflate))
+                .register(registry);
+    }
+
+    private static Map<String, Counter> counters(String[] keys, Function<String, Counter> factory) {
+        return Map.copyOf(Stream.of(keys).collect(Collectors.toMap(Function.identity(), factory)));
+    }
+}
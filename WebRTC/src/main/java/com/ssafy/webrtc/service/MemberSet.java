@@ -0,0 +1,158 @@
+package com.ssafy.webrtc.service;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Read-only view of a room's participants (or of a session's rooms) with a maintained size.
+ * Membership only changes through {@link RoomService}, from inside the owning map operation,
+ * so there is never more than one writer at a time and reads need no locking.
+ */
+abstract class MemberSet extends AbstractSet<String> {
+
+    static MemberSet create(RoomStore store) {
+        return store == RoomStore.COMPACT ? new Compact() : new Hashed();
+    }
+
+    abstract boolean join(String member);
+
+    abstract boolean leave(String member);
+
+    /**
+     * Hash set per room: constant-time membership at any room size.
+     */
+    private static final class Hashed extends MemberSet {
+
+        private final Set<String> members = ConcurrentHashMap.newKeySet();
+        private final Set<String> view = Collections.unmodifiableSet(members);
+        private volatile int size;
+
+        @Override
+        boolean join(String member) {
+            if (!members.add(member)) {
+                return false;
+            }
+            size++;
+            return true;
+        }
+
+        @Override
+        boolean leave(String member) {
+            if (!members.remove(member)) {
+                return false;
+            }
+            size--;
+            return true;
+        }
+
+        @Override
+        public boolean contains(Object member) {
+            return members.contains(member);
+        }
+
+        @Override
+        public Iterator<String> iterator() {
+            return view.iterator();
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    /**
+     * Copy-on-write array of the members' id strings: a few dozen bytes for the 2-6 person rooms
+     * that make up nearly all traffic, and iteration walks an immutable snapshot. Joins and
+     * leaves copy the array, so it suits small rooms only.
+     */
+    private static final class Compact extends MemberSet {
+
+        private static final String[] EMPTY = new String[0];
+
+        private volatile String[] members = EMPTY;
+
+        @Override
+        boolean join(String member) {
+            String[] current = members;
+            if (indexOf(current, member) >= 0) {
+                return false;
+            }
+            String[] next = Arrays.copyOf(current, current.length + 1);
+            next[current.length] = member;
+            members = next;
+            return true;
+        }
+
+        @Override
+        boolean leave(String member) {
+            String[] current = members;
+            int index = indexOf(current, member);
+            if (index < 0) {
+                return false;
+            }
+            if (current.length == 1) {
+                members = EMPTY;
+                return true;
+            }
+            String[] next = new String[current.length - 1];
+            System.arraycopy(current, 0, next, 0, index);
+            System.arraycopy(current, index + 1, next, index, next.length - index);
+            members = next;
+            return true;
+        }
+
+        @Override
+        public boolean contains(Object member) {
+            return member instanceof String id && indexOf(members, id) >= 0;
+        }
+
+        @Override
+        public void forEach(Consumer<? super String> action) {
+            for (String member : members) {
+                action.accept(member);
+            }
+        }
+
+        @Override
+        public Iterator<String> iterator() {
+            String[] snapshot = members;
+            return new Iterator<>() {
+                private int next;
+
+                @Override
+                public boolean hasNext() {
+                    return next < snapshot.length;
+                }
+
+                @Override
+                public String next() {
+                    if (next >= snapshot.length) {
+                        throw new NoSuchElementException();
+                    }
+                    return snapshot[next++];
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return members.length;
+        }
+
+        private static int indexOf(String[] members, String member) {
+            for (int i = 0; i < members.length; i++) {
+                if (members[i].equals(member)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+}
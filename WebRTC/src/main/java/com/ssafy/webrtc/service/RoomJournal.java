@@ -0,0 +1,418 @@
+package com.ssafy.webrtc.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Durable copy of room membership, so a restarted node gets its rooms back.
+ * <p>
+ * Joins and leaves are queued from the {@link RoomListener} callbacks, which only do a
+ * non-blocking offer. A single writer thread drains the queue every {@code flushInterval}
+ * into a memory-mapped log segment and forces it once per batch (group commit). Events still
+ * queued when the process dies are lost, so the loss window is one flush interval; a full
+ * queue drops events but forces a snapshot, which captures them.
+ * <p>
+ * Compaction starts generation {@code n+1}: a new empty log first, then a snapshot of the
+ * live rooms next to it. Every event that reaches the new log happened after the last one
+ * in the old log, and joins and leaves are idempotent, so replaying {@code log-(n+1)} over
+ * {@code snapshot-(n+1)} gives the current state even though the snapshot is not atomic
+ * with respect to concurrent joins. Recovery loads the newest intact snapshot and replays
+ * every log of that generation and later, stopping at the first torn or zeroed record.
+ */
+@Slf4j
+public class RoomJournal implements RoomListener {
+
+    private static final int SNAPSHOT_MAGIC = 0x524a534e;
+    private static final byte JOIN = 1;
+    private static final byte LEAVE = 2;
+    // crc (int) + payload length (short)
+    private static final int RECORD_HEADER = 6;
+    private static final String LOG_PREFIX = "log-";
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SUFFIX = ".bin";
+
+    private final Path dir;
+    private final int segmentBytes;
+    private final Duration flushInterval;
+    private final Duration compactInterval;
+    private final BlockingQueue<Event> pending;
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile boolean overflowed;
+
+    private ScheduledExecutorService writer;
+    private RoomService roomService;
+    private long generation;
+    private FileChannel logChannel;
+    private MappedByteBuffer segment;
+    private boolean unforced;
+    private long compactedNanos;
+
+    /**
+     * @param segmentBytes    size of one mapped log file; a full segment triggers compaction
+     * @param queueCapacity   events buffered between two flushes before they are dropped
+     * @param flushInterval   how often queued events are written and forced, the loss window
+     * @param compactInterval how often a snapshot replaces the log, at the latest
+     */
+    public RoomJournal(Path dir, int segmentBytes, int queueCapacity, Duration flushInterval,
+                       Duration compactInterval) {
+        this.dir = dir;
+        this.segmentBytes = segmentBytes;
+        this.flushInterval = flushInterval;
+        this.compactInterval = compactInterval;
+        this.pending = queueCapacity > 0 ? new ArrayBlockingQueue<>(queueCapacity) : null;
+    }
+
+    public static RoomJournal disabled() {
+        return new RoomJournal(null, 0, 0, Duration.ZERO, Duration.ZERO);
+    }
+
+    public boolean isEnabled() {
+        return dir != null;
+    }
+
+    /**
+     * Reads back the rooms as of the last flush before the previous process stopped.
+     *
+     * @return room ID to participants, empty for a new journal directory
+     */
+    public Map<String, Set<String>> recover() throws IOException {
+        Files.createDirectories(dir);
+        TreeMap<Long, Path> snapshots = files(SNAPSHOT_PREFIX);
+        TreeMap<Long, Path> logs = files(LOG_PREFIX);
+        Map<String, Set<String>> rooms = new HashMap<>();
+        long from = 0;
+        for (Map.Entry<Long, Path> snapshot : snapshots.descendingMap().entrySet()) {
+            Map<String, Set<String>> loaded = readSnapshot(snapshot.getValue());
+            if (loaded != null) {
+                rooms = loaded;
+                from = snapshot.getKey();
+                break;
+            }
+            log.warn("Skipping damaged journal snapshot {}", snapshot.getValue());
+        }
+        int events = 0;
+        for (Path logFile : logs.tailMap(from, true).values()) {
+            events += replay(logFile, rooms);
+        }
+        generation = Math.max(snapshots.isEmpty() ? 0 : snapshots.lastKey(), logs.isEmpty() ? 0 : logs.lastKey());
+        log.info("Recovered {} rooms from journal {} (snapshot generation {}, {} logged events)",
+                rooms.size(), dir, from, events);
+        return rooms;
+    }
+
+    /**
+     * Starts journaling, after {@link #recover}: snapshots the current rooms, including
+     * whatever was recovered into them, then logs their changes from the writer thread.
+     */
+    public void start(RoomService roomService) throws IOException {
+        this.roomService = roomService;
+        roomService.addListener(this);
+        compact();
+        writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "signal-room-journal");
+            thread.setDaemon(true);
+            return thread;
+        });
+        writer.scheduleWithFixedDelay(this::flushQuietly, flushInterval.toMillis(), flushInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Writes out what is still queued and closes the log.
+     */
+    public void stop() {
+        ScheduledExecutorService stopping = writer;
+        if (stopping == null) {
+            return;
+        }
+        writer = null;
+        stopping.shutdown();
+        try {
+            if (!stopping.awaitTermination(5, TimeUnit.SECONDS)) {
+                log.warn("Room journal writer did not stop in time");
+                return;
+            }
+            flush();
+            logChannel.close();
+        } catch (IOException e) {
+            log.warn("Failed to close room journal: {}", e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void onJoined(String roomId, String sessionId, int size) {
+        enqueue(new Event(JOIN, roomId, sessionId));
+    }
+
+    @Override
+    public void onLeft(String roomId, String sessionId, int size) {
+        enqueue(new Event(LEAVE, roomId, sessionId));
+    }
+
+    public int getPendingCount() {
+        return pending != null ? pending.size() : 0;
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    long getGeneration() {
+        return generation;
+    }
+
+    private void enqueue(Event event) {
+        if (!fits(event.roomId()) || !fits(event.sessionId())) {
+            log.warn("Not journaling {} of {} in room {}: ID too long", event.type() == JOIN ? "join" : "leave",
+                    event.sessionId(), event.roomId());
+            return;
+        }
+        if (!pending.offer(event)) {
+            dropped.incrementAndGet();
+            overflowed = true;
+        }
+    }
+
+    // Both the log records and the snapshot's writeUTF store lengths in 16 bits; 3 bytes per char at worst
+    private static boolean fits(String id) {
+        return id.length() <= 0xffff / 3;
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (IOException | RuntimeException e) {
+            // The next flush retries; events that fit in the queue meanwhile are not lost
+            log.warn("Room journal flush failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Runs on the writer thread only, or after it stopped.
+     */
+    synchronized void flush() throws IOException {
+        if (overflowed || System.nanoTime() - compactedNanos >= compactInterval.toNanos()) {
+            compact();
+        }
+        Event event;
+        while ((event = pending.poll()) != null) {
+            byte[] record = event.encode();
+            if (record.length > segment.remaining()) {
+                compact();
+            }
+            segment.put(record);
+            unforced = true;
+        }
+        if (unforced) {
+            segment.force();
+            unforced = false;
+        }
+    }
+
+    private synchronized void compact() throws IOException {
+        if (segment != null) {
+            segment.force();
+            logChannel.close();
+        }
+        long next = generation + 1;
+        // A new log before the snapshot: what is drained from now on lands after it on replay
+        logChannel = FileChannel.open(file(LOG_PREFIX, next), StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = logChannel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        generation = next;
+        overflowed = false;
+        writeSnapshot(next);
+        compactedNanos = System.nanoTime();
+        for (TreeMap<Long, Path> older : List.of(files(SNAPSHOT_PREFIX), files(LOG_PREFIX))) {
+            for (Path stale : older.headMap(next).values()) {
+                Files.deleteIfExists(stale);
+            }
+        }
+    }
+
+    private void writeSnapshot(long snapshotGeneration) throws IOException {
+        Path target = file(SNAPSHOT_PREFIX, snapshotGeneration);
+        Path temp = dir.resolve(target.getFileName() + ".tmp");
+        int roomCount = 0;
+        try (FileOutputStream file = new FileOutputStream(temp.toFile())) {
+            CRC32 crc = new CRC32();
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new CheckedOutputStream(file, crc)));
+            out.writeInt(SNAPSHOT_MAGIC);
+            for (String roomId : roomService.getRoomIdsAfter(null)) {
+                // Copied first: the size written must match the members that follow
+                List<String> members = new ArrayList<>(roomService.getRoomParticipants(roomId));
+                members.removeIf(member -> !fits(member));
+                if (members.isEmpty() || !fits(roomId)) {
+                    continue;
+                }
+                out.writeBoolean(true);
+                out.writeUTF(roomId);
+                out.writeInt(members.size());
+                for (String member : members) {
+                    out.writeUTF(member);
+                }
+                roomCount++;
+            }
+            out.writeBoolean(false);
+            out.flush();
+            file.write(ByteBuffer.allocate(Long.BYTES).putLong(crc.getValue()).array());
+            file.getChannel().force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        log.debug("Room journal snapshot {} written with {} rooms", snapshotGeneration, roomCount);
+    }
+
+    /**
+     * @return the rooms in the snapshot, or {@code null} if it is truncated or corrupt
+     */
+    private static Map<String, Set<String>> readSnapshot(Path file) throws IOException {
+        CRC32 crc = new CRC32();
+        try (InputStream raw = new BufferedInputStream(Files.newInputStream(file))) {
+            DataInputStream in = new DataInputStream(new CheckedInputStream(raw, crc));
+            if (in.readInt() != SNAPSHOT_MAGIC) {
+                return null;
+            }
+            Map<String, Set<String>> rooms = new HashMap<>();
+            while (in.readBoolean()) {
+                String roomId = in.readUTF();
+                int size = in.readInt();
+                Set<String> members = new LinkedHashSet<>();
+                for (int i = 0; i < size; i++) {
+                    members.add(in.readUTF());
+                }
+                rooms.put(roomId, members);
+            }
+            long expected = crc.getValue();
+            return new DataInputStream(raw).readLong() == expected ? rooms : null;
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Applies the intact prefix of a log to {@code rooms}.
+     *
+     * @return number of events applied
+     */
+    static int replay(Path file, Map<String, Set<String>> rooms) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        int applied = 0;
+        CRC32 crc = new CRC32();
+        try {
+            while (buffer.remaining() >= RECORD_HEADER) {
+                int checksum = buffer.getInt();
+                int length = Short.toUnsignedInt(buffer.getShort());
+                if (length == 0 || length > buffer.remaining()) {
+                    break;
+                }
+                crc.reset();
+                crc.update(buffer.slice(buffer.position(), length));
+                if ((int) crc.getValue() != checksum) {
+                    log.warn("Journal {} has a torn record after {} events, ignoring the rest", file, applied);
+                    break;
+                }
+                byte type = buffer.get();
+                String roomId = readString(buffer);
+                String sessionId = readString(buffer);
+                if (type == JOIN) {
+                    rooms.computeIfAbsent(roomId, id -> new HashSet<>()).add(sessionId);
+                } else {
+                    Set<String> members = rooms.get(roomId);
+                    if (members != null && members.remove(sessionId) && members.isEmpty()) {
+                        rooms.remove(roomId);
+                    }
+                }
+                applied++;
+            }
+        } catch (BufferUnderflowException e) {
+            log.warn("Journal {} ends in a truncated record after {} events", file, applied);
+        }
+        return applied;
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[Short.toUnsignedInt(buffer.getShort())];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private TreeMap<Long, Path> files(String prefix) throws IOException {
+        TreeMap<Long, Path> byGeneration = new TreeMap<>();
+        try (var entries = Files.newDirectoryStream(dir, prefix + "*" + SUFFIX)) {
+            for (Path entry : entries) {
+                String name = entry.getFileName().toString();
+                try {
+                    byGeneration.put(Long.parseLong(name.substring(prefix.length(), name.length() - SUFFIX.length())),
+                            entry);
+                } catch (NumberFormatException e) {
+                    log.debug("Ignoring {} in the journal directory", name);
+                }
+            }
+        }
+        return byGeneration;
+    }
+
+    private Path file(String prefix, long fileGeneration) {
+        return dir.resolve(prefix + String.format("%016d", fileGeneration) + SUFFIX);
+    }
+
+    private record Event(byte type, String roomId, String sessionId) {
+
+        /**
+         * {@code crc32 | length | type | room (u16 length + UTF-8) | session (u16 length + UTF-8)},
+         * where the CRC covers the bytes after the length.
+         */
+        byte[] encode() {
+            byte[] room = roomId.getBytes(StandardCharsets.UTF_8);
+            byte[] session = sessionId.getBytes(StandardCharsets.UTF_8);
+            int length = 1 + 2 + room.length + 2 + session.length;
+            ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER + length);
+            record.position(RECORD_HEADER);
+            record.put(type).putShort((short) room.length).put(room).putShort((short) session.length).put(session);
+            CRC32 crc = new CRC32();
+            crc.update(record.array(), RECORD_HEADER, length);
+            record.putInt(0, (int) crc.getValue()).putShort(4, (short) length);
+            return record.array();
+        }
+    }
+}
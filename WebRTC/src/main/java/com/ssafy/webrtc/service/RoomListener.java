@@ -0,0 +1,18 @@
+package com.ssafy.webrtc.service;
+
+/**
+ * Membership change callback. Invoked while the room is locked, so implementations must be
+ * quick and must not call back into {@link RoomService}.
+ */
+public interface RoomListener {
+
+    /**
+     * @param size participant count after the join
+     */
+    void onJoined(String roomId, String sessionId, int size);
+
+    /**
+     * @param size participant count after the leave; 0 means the room is gone
+     */
+    void onLeft(String roomId, String sessionId, int size);
+}
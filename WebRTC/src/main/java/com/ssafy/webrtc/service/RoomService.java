@@ -1,62 +1,193 @@
 package com.ssafy.webrtc.service;
 
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.stereotype.Service;
 
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.NavigableSet;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Slf4j
-@Service
 public class RoomService {
 
-    private final Map<String, Set<String>> rooms = new ConcurrentHashMap<>();
+    private final RoomStore store;
 
-    public void joinRoom(String roomId, String sessionId) {
-        rooms.computeIfAbsent(roomId, k -> ConcurrentHashMap.newKeySet())
-                .add(sessionId);
-        log.info("Session {} joined room {}. Room size: {}", sessionId, roomId, rooms.get(roomId).size());
+    // Largest number of participants joinRoom admits into a room, Integer.MAX_VALUE when unlimited
+    private final int maxRoomSize;
+
+    private final Map<String, MemberSet> rooms = new ConcurrentHashMap<>();
+
+    // Room ids in order for cursor paging, plus a counter; both only updated where a room is created or removed
+    private final NavigableSet<String> roomIds = new ConcurrentSkipListSet<>();
+    private final AtomicInteger roomCount = new AtomicInteger();
+
+    private final List<RoomListener> listeners = new CopyOnWriteArrayList<>();
+
+    // Reverse index (session -> rooms), only ever updated from inside a rooms.compute for the affected room
+    private final Map<String, MemberSet> sessionRooms = new ConcurrentHashMap<>();
+
+    public RoomService() {
+        this(RoomStore.HASH);
     }
 
-    public void leaveRoom(String roomId, String sessionId) {
-        Set<String> room = rooms.get(roomId);
-        if (room != null) {
-            room.remove(sessionId);
-            if (room.isEmpty()) {
-                rooms.remove(roomId);
-                log.info("Room {} is empty and removed", roomId);
+    public RoomService(RoomStore store) {
+        this(store, 0);
+    }
+
+    /**
+     * @param maxRoomSize participants a room admits through {@link #joinRoom}; 0 for no limit
+     */
+    public RoomService(RoomStore store, int maxRoomSize) {
+        this.store = store;
+        this.maxRoomSize = maxRoomSize > 0 ? maxRoomSize : Integer.MAX_VALUE;
+    }
+
+    public void addListener(RoomListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Adds the session to the room unless the room is full. The size check and the join are
+     * one atomic step, so concurrent joins never take a room past its limit.
+     *
+     * @return {@code false} if the room is full; a session already in the room always succeeds
+     */
+    public boolean joinRoom(String roomId, String sessionId) {
+        return join(roomId, sessionId, maxRoomSize);
+    }
+
+    /**
+     * Adds the session without the capacity check, for joins another node already admitted.
+     */
+    public void applyJoin(String roomId, String sessionId) {
+        join(roomId, sessionId, Integer.MAX_VALUE);
+    }
+
+    private boolean join(String roomId, String sessionId, int limit) {
+        boolean[] admitted = new boolean[1];
+        MemberSet room = rooms.compute(roomId, (id, participants) -> {
+            MemberSet members = participants;
+            if (members == null) {
+                members = MemberSet.create(store);
+                roomIds.add(id);
+                roomCount.incrementAndGet();
             }
+            if (members.contains(sessionId)) {
+                admitted[0] = true;
+            } else if (members.size() < limit) {
+                members.join(sessionId);
+                admitted[0] = true;
+                indexJoin(sessionId, id);
+                for (RoomListener listener : listeners) {
+                    listener.onJoined(id, sessionId, members.size());
+                }
+            }
+            return members;
+        });
+        if (admitted[0]) {
+            log.info("Session {} joined room {}. Room size: {}", sessionId, roomId, room.size());
+        } else {
+            log.info("Session {} refused, room {} is full ({})", sessionId, roomId, room.size());
         }
+        return admitted[0];
+    }
+
+    public void leaveRoom(String roomId, String sessionId) {
+        removeFromRoom(roomId, sessionId);
     }
 
     public Set<String> getRoomParticipants(String roomId) {
-        return rooms.getOrDefault(roomId, Collections.emptySet());
+        Set<String> room = rooms.get(roomId);
+        return room != null ? room : Collections.emptySet();
+    }
+
+    public Set<String> getSessionRooms(String sessionId) {
+        Set<String> joined = sessionRooms.get(sessionId);
+        return joined != null ? Collections.unmodifiableSet(joined) : Collections.emptySet();
     }
 
     public void removeUserFromAllRooms(String sessionId) {
-        rooms.forEach((roomId, participants) -> {
-            if (participants.remove(sessionId)) {
+        MemberSet joined = sessionRooms.remove(sessionId);
+        if (joined == null) {
+            return;
+        }
+        for (String roomId : joined) {
+            if (removeFromRoom(roomId, sessionId)) {
                 log.info("Session {} removed from room {}", sessionId, roomId);
-                if (participants.isEmpty()) {
-                    rooms.remove(roomId);
-                    log.info("Room {} is empty and removed", roomId);
-                }
             }
-        });
+        }
     }
 
     public Map<String, Set<String>> getAllRooms() {
         return Collections.unmodifiableMap(rooms);
     }
 
+    /**
+     * Ids of the rooms that sort after {@code afterRoomId} (all rooms when {@code null}), in
+     * order. This is a live view, not a copy: a room that exists for the whole walk shows up
+     * exactly once, so paging with the last id seen as the next cursor neither skips nor
+     * repeats rooms.
+     */
+    public NavigableSet<String> getRoomIdsAfter(String afterRoomId) {
+        NavigableSet<String> ids = afterRoomId != null ? roomIds.tailSet(afterRoomId, false) : roomIds;
+        return Collections.unmodifiableNavigableSet(ids);
+    }
+
+    /**
+     * @return participants a room admits through {@link #joinRoom}, {@link Integer#MAX_VALUE} for no limit
+     */
+    public int getMaxRoomSize() {
+        return maxRoomSize;
+    }
+
     public int getRoomCount() {
-        return rooms.size();
+        return roomCount.get();
     }
 
     public int getParticipantCount(String roomId) {
         Set<String> room = rooms.get(roomId);
         return room != null ? room.size() : 0;
     }
+
+    // Membership check and empty-room removal happen atomically under the room's map lock
+    private boolean removeFromRoom(String roomId, String sessionId) {
+        boolean[] removed = new boolean[1];
+        rooms.computeIfPresent(roomId, (id, participants) -> {
+            if (participants.leave(sessionId)) {
+                removed[0] = true;
+                indexLeave(sessionId, id);
+                for (RoomListener listener : listeners) {
+                    listener.onLeft(id, sessionId, participants.size());
+                }
+            }
+            if (participants.isEmpty()) {
+                roomIds.remove(id);
+                roomCount.decrementAndGet();
+                log.info("Room {} is empty and removed", id);
+                return null;
+            }
+            return participants;
+        });
+        return removed[0];
+    }
+
+    private void indexJoin(String sessionId, String roomId) {
+        sessionRooms.compute(sessionId, (id, joined) -> {
+            MemberSet result = joined != null ? joined : MemberSet.create(store);
+            result.join(roomId);
+            return result;
+        });
+    }
+
+    private void indexLeave(String sessionId, String roomId) {
+        sessionRooms.computeIfPresent(sessionId, (id, joined) -> {
+            joined.leave(roomId);
+            return joined.isEmpty() ? null : joined;
+        });
+    }
 }
@@ -0,0 +1,13 @@
+package com.ssafy.webrtc.service;
+
+/**
+ * How {@link RoomService} stores membership, both per room and per session.
+ */
+public enum RoomStore {
+
+    /** A concurrent hash set per room and per session */
+    HASH,
+
+    /** A copy-on-write array per room and per session; far smaller, meant for small rooms */
+    COMPACT
+}
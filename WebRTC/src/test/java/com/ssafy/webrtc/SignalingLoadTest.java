@@ -0,0 +1,232 @@
+package com.ssafy.webrtc;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.env.Environment;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Opens many signaling connections, pairs them into rooms and measures offer relay
+ * latency. Run through {@code ./gradlew loadTest}, which executes it once per thread mode.
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
+class SignalingLoadTest {
+
+    private static final Logger log = LoggerFactory.getLogger(SignalingLoadTest.class);
+
+    private static final int CONNECTIONS = Integer.getInteger("load.connections", 1000);
+    private static final int MESSAGES_PER_PAIR = Integer.getInteger("load.messages", 50);
+    private static final int SEND_INTERVAL_MILLIS = Integer.getInteger("load.intervalMillis", 20);
+    private static final long TIMEOUT_SECONDS = 60;
+    private static final String SDP_FILLER = "a=candidate:1 1 udp 2122260223 10.0.0.1 54321 typ host\\r\\n".repeat(16);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private Environment environment;
+
+    @Test
+    @DisplayName("should relay every offer between paired peers under load")
+    void relayUnderLoad() throws Exception {
+        String threads = Threading.VIRTUAL.isActive(environment) ? "virtual" : "platform";
+        String run = System.getProperty("load.run", threads);
+        URI uri = URI.create("ws://localhost:" + port + "/signal");
+        StandardWebSocketClient client = new StandardWebSocketClient();
+        LatencyRecorder latencies = new LatencyRecorder(CONNECTIONS / 2 * MESSAGES_PER_PAIR);
+
+        // given - connect everybody
+        long connectStart = System.nanoTime();
+        List<LoadPeer> peers = new ArrayList<>(CONNECTIONS);
+        List<CompletableFuture<WebSocketSession>> handshakes = new ArrayList<>(CONNECTIONS);
+        for (int i = 0; i < CONNECTIONS; i++) {
+            LoadPeer peer = new LoadPeer(latencies);
+            peers.add(peer);
+            handshakes.add(client.execute(peer, new WebSocketHttpHeaders(), uri));
+        }
+        int established = 0;
+        for (int i = 0; i < CONNECTIONS; i++) {
+            try {
+                peers.get(i).session = handshakes.get(i).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                established++;
+            } catch (Exception e) {
+                log.debug("Connection {} failed: {}", i, e.getMessage());
+            }
+        }
+        long connectMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - connectStart);
+
+        // given - pair connected peers into two-person rooms
+        List<LoadPeer[]> pairs = new ArrayList<>();
+        for (int i = 0; i + 1 < CONNECTIONS; i += 2) {
+            if (peers.get(i).session != null && peers.get(i + 1).session != null) {
+                pairs.add(new LoadPeer[]{peers.get(i), peers.get(i + 1)});
+            }
+        }
+        joinAll(pairs, 0);
+        joinAll(pairs, 1);
+
+        // when - the second peer of every pair trickles offers to the first at a fixed pace
+        ScheduledExecutorService senders = Executors.newScheduledThreadPool(4);
+        long relayStart = System.nanoTime();
+        try {
+            for (int i = 0; i < pairs.size(); i++) {
+                LoadPeer[] pair = pairs.get(i);
+                // Spread pairs across the interval so sends don't arrive in lockstep bursts
+                long offset = (long) i * SEND_INTERVAL_MILLIS * 1000 / pairs.size();
+                for (int m = 0; m < MESSAGES_PER_PAIR; m++) {
+                    senders.schedule(() -> pair[1].sendOffer(pair[0].peerId),
+                            offset + (long) m * SEND_INTERVAL_MILLIS * 1000, TimeUnit.MICROSECONDS);
+                }
+            }
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+            while (latencies.count() < pairs.size() * MESSAGES_PER_PAIR && System.nanoTime() < deadline) {
+                Thread.sleep(50);
+            }
+        } finally {
+            senders.shutdownNow();
+        }
+        long relayMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - relayStart));
+
+        // then
+        String report = String.format(
+                "run=%s threads=%s connections=%d/%d connect=%dms relayed=%d/%d throughput=%d msg/s p50=%dus p99=%dus max=%dus",
+                run, threads, established, CONNECTIONS, connectMillis,
+                latencies.count(), pairs.size() * MESSAGES_PER_PAIR, latencies.count() * 1000L / relayMillis,
+                latencies.percentileMicros(50), latencies.percentileMicros(99), latencies.percentileMicros(100));
+        log.info(report);
+        writeReport(run, report);
+
+        for (LoadPeer peer : peers) {
+            if (peer.session != null) {
+                peer.session.close();
+            }
+        }
+        assertThat(established).isPositive();
+        assertThat(latencies.count()).isEqualTo(pairs.size() * MESSAGES_PER_PAIR);
+    }
+
+    private void joinAll(List<LoadPeer[]> pairs, int index) throws Exception {
+        List<CompletableFuture<Void>> joined = new ArrayList<>(pairs.size());
+        for (int i = 0; i < pairs.size(); i++) {
+            joined.add(pairs.get(i)[index].join("load-room-" + i));
+        }
+        CompletableFuture.allOf(joined.toArray(CompletableFuture[]::new)).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    private void writeReport(String run, String report) throws IOException {
+        String reportDir = System.getProperty("load.reportDir");
+        if (reportDir != null) {
+            Path dir = Files.createDirectories(Path.of(reportDir));
+            Files.writeString(dir.resolve(run + ".txt"), report + System.lineSeparator());
+        }
+    }
+
+    private class LoadPeer extends TextWebSocketHandler {
+
+        private final LatencyRecorder latencies;
+        private final CompletableFuture<Void> roomInfo = new CompletableFuture<>();
+        private volatile WebSocketSession session;
+        private volatile String peerId;
+        private String roomId;
+
+        LoadPeer(LatencyRecorder latencies) {
+            this.latencies = latencies;
+        }
+
+        CompletableFuture<Void> join(String roomId) throws IOException {
+            this.roomId = roomId;
+            session.sendMessage(new TextMessage("{\"type\":\"join\",\"roomId\":\"" + roomId + "\"}"));
+            return roomInfo;
+        }
+
+        // A client session must not be written concurrently, hence synchronized
+        synchronized void sendOffer(String targetId) {
+            try {
+                session.sendMessage(new TextMessage("{\"type\":\"offer\",\"roomId\":\"" + roomId
+                        + "\",\"targetId\":\"" + targetId + "\",\"payload\":{\"sentAt\":" + System.nanoTime()
+                        + ",\"sdp\":\"" + SDP_FILLER + "\"}}"));
+            } catch (IOException e) {
+                log.debug("Sending offers failed: {}", e.getMessage());
+            }
+        }
+
+        @Override
+        protected void handleTextMessage(WebSocketSession session, TextMessage message) throws Exception {
+            long receivedAt = System.nanoTime();
+            JsonNode frame = objectMapper.readTree(message.getPayload());
+            switch (frame.path("type").asText()) {
+                case "room-info" -> {
+                    peerId = frame.path("senderId").asText();
+                    roomInfo.complete(null);
+                }
+                case "offer" -> latencies.record(receivedAt - frame.path("payload").path("sentAt").asLong());
+                default -> {
+                }
+            }
+        }
+    }
+
+    private static class LatencyRecorder {
+
+        private final long[] samples;
+        private final AtomicInteger count = new AtomicInteger();
+
+        LatencyRecorder(int capacity) {
+            samples = new long[Math.max(1, capacity)];
+        }
+
+        void record(long nanos) {
+            int index = count.getAndIncrement();
+            if (index < samples.length) {
+                samples[index] = nanos;
+            }
+        }
+
+        int count() {
+            return Math.min(count.get(), samples.length);
+        }
+
+        long percentileMicros(double percentile) {
+            int n = count();
+            if (n == 0) {
+                return 0;
+            }
+            long[] sorted = Arrays.copyOf(samples, n);
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(percentile / 100 * n) - 1;
+            return TimeUnit.NANOSECONDS.toMicros(sorted[Math.max(0, index)]);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.ssafy.webrtc.cluster;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ssafy.webrtc.config.SignalingProperties;
+import com.ssafy.webrtc.handler.IceBatcher;
+import com.ssafy.webrtc.handler.JoinRateLimiter;
+import com.ssafy.webrtc.handler.OutboundDispatcher;
+import com.ssafy.webrtc.handler.RelayGate;
+import com.ssafy.webrtc.handler.SessionHeartbeat;
+import com.ssafy.webrtc.handler.SessionRegistry;
+import com.ssafy.webrtc.handler.SessionResumption;
+import com.ssafy.webrtc.handler.SignalCodec;
+import com.ssafy.webrtc.handler.SignalingHandler;
+import com.ssafy.webrtc.metrics.CompressionSampler;
+import com.ssafy.webrtc.metrics.SignalingMetrics;
+import com.ssafy.webrtc.service.RoomService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+class SignalingClusterTest {
+
+    private InMemorySignalingBus.Network network;
+
+    @BeforeEach
+    void setUp() {
+        network = new InMemorySignalingBus.Network();
+    }
+
+    @Test
+    @DisplayName("should replicate joins and route notifications and relays to the owning node")
+    void joinAndRelay_acrossNodes() throws Exception {
+        // given
+        Node nodeA = startNode("node-a");
+        Node nodeB = startNode("node-b");
+        WebSocketSession alice = nodeA.connect("alice");
+        WebSocketSession bob = nodeB.connect("bob");
+
+        // when
+        nodeA.send(alice, "{\"type\":\"join\",\"roomId\":\"room-1\"}");
+        nodeB.send(bob, "{\"type\":\"join\",\"roomId\":\"room-1\"}");
+        nodeB.send(bob, "{\"type\":\"offer\",\"roomId\":\"room-1\",\"targetId\":\"alice\",\"payload\":{\"sdp\":\"v=0\"}}");
+
+        // then
+        assertThat(nodeA.roomService.getRoomParticipants("room-1")).containsExactlyInAnyOrder("alice", "bob");
+        assertThat(nodeB.roomService.getRoomParticipants("room-1")).containsExactlyInAnyOrder("alice", "bob");
+        verify(bob).sendMessage(frameContaining("\"participants\":[\"alice\"]"));
+        verify(alice).sendMessage(frameContaining("\"type\":\"user-joined\""));
+        verify(alice).sendMessage(frameContaining("\"type\":\"offer\""));
+        assertThat(nodeA.cluster.isRemote("bob")).isTrue();
+        assertThat(nodeB.cluster.isRemote("bob")).isFalse();
+    }
+
+    @Test
+    @DisplayName("should replicate leave and disconnect")
+    void leaveAndDisconnect_shouldReplicate() throws Exception {
+        // given
+        Node nodeA = startNode("node-a");
+        Node nodeB = startNode("node-b");
+        WebSocketSession bob = nodeB.connect("bob");
+        nodeB.send(bob, "{\"type\":\"join\",\"roomId\":\"room-1\"}");
+        nodeB.send(bob, "{\"type\":\"join\",\"roomId\":\"room-2\"}");
+
+        // when
+        nodeB.send(bob, "{\"type\":\"leave\",\"roomId\":\"room-1\"}");
+
+        // then
+        assertThat(nodeA.roomService.getSessionRooms("bob")).containsExactly("room-2");
+
+        // when
+        nodeB.handler.afterConnectionClosed(bob, CloseStatus.NORMAL);
+
+        // then
+        assertThat(nodeA.roomService.getSessionRooms("bob")).isEmpty();
+        assertThat(nodeA.cluster.isRemote("bob")).isFalse();
+    }
+
+    @Test
+    @DisplayName("should hand existing membership to a node that starts later")
+    void lateNode_shouldReceiveExistingMembership() throws Exception {
+        // given
+        Node nodeA = startNode("node-a");
+        WebSocketSession alice = nodeA.connect("alice");
+        nodeA.send(alice, "{\"type\":\"join\",\"roomId\":\"room-1\"}");
+
+        // when
+        Node nodeB = startNode("node-b");
+
+        // then
+        assertThat(nodeB.roomService.getRoomParticipants("room-1")).containsExactly("alice");
+        assertThat(nodeB.cluster.isRemote("alice")).isTrue();
+    }
+
+    @Test
+    @DisplayName("should drop sessions of a node that goes down")
+    void nodeDown_shouldDropItsSessions() throws Exception {
+        // given
+        Node nodeA = startNode("node-a");
+        Node nodeB = startNode("node-b");
+        WebSocketSession alice = nodeA.connect("alice");
+        WebSocketSession bob = nodeB.connect("bob");
+        nodeA.send(alice, "{\"type\":\"join\",\"roomId\":\"room-1\"}");
+        nodeB.send(bob, "{\"type\":\"join\",\"roomId\":\"room-1\"}");
+
+        // when
+        nodeB.bus.stop();
+
+        // then
+        assertThat(nodeA.roomService.getRoomParticipants("room-1")).containsExactly("alice");
+        assertThat(nodeA.cluster.isRemote("bob")).isFalse();
+    }
+
+    private Node startNode(String nodeId) {
+        return Node.start(new InMemorySignalingBus(network, nodeId));
+    }
+
+    static WebSocketMessage<?> frameContaining(String fragment) {
+        return argThat(message -> message.getPayload().toString().contains(fragment));
+    }
+
+    record Node(SignalingBus bus, RoomService roomService, SignalingCluster cluster, SignalingHandler handler) {
+
+        static Node start(SignalingBus bus) {
+            RoomService roomService = new RoomService();
+            SessionRegistry sessionRegistry = new SessionRegistry(
+                    new OutboundDispatcher(Runnable::run, new SignalingProperties.Outbound()));
+            SignalingMetrics metrics = new SignalingMetrics(new SimpleMeterRegistry());
+            SignalCodec codec = new SignalCodec(new ObjectMapper(), metrics, CompressionSampler.disabled());
+            SignalingCluster cluster = new SignalingCluster(bus, roomService, sessionRegistry, codec);
+            SignalingHandler handler = new SignalingHandler(codec, roomService, sessionRegistry, cluster,
+                    IceBatcher.disabled(), JoinRateLimiter.unlimited(), RelayGate.withoutQuota(roomService),
+                    SessionResumption.disabled(), SessionHeartbeat.disabled(), metrics);
+            cluster.start();
+            return new Node(bus, roomService, cluster, handler);
+        }
+
+        WebSocketSession connect(String sessionId) {
+            WebSocketSession session = mock(WebSocketSession.class);
+            when(session.getId()).thenReturn(sessionId);
+            when(session.isOpen()).thenReturn(true);
+            handler.afterConnectionEstablished(session);
+            return session;
+        }
+
+        void send(WebSocketSession session, String json) throws Exception {
+            handler.handleTextMessage(session, new TextMessage(json));
+        }
+    }
+}
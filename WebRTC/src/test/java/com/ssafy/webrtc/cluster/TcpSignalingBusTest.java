@@ -0,0 +1,166 @@
+package com.ssafy.webrtc.cluster;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.ssafy.webrtc.cluster.SignalingClusterTest.Node;
+import com.ssafy.webrtc.controller.RoomController;
+import com.ssafy.webrtc.controller.RoomController.RoomExistsResponse;
+import com.ssafy.webrtc.controller.RoomEventStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+import static com.ssafy.webrtc.cluster.SignalingClusterTest.frameContaining;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+class TcpSignalingBusTest {
+
+    private static final long TIMEOUT_MILLIS = 5_000;
+
+    private final List<SignalingBus> buses = new ArrayList<>();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @AfterEach
+    void tearDown() {
+        buses.forEach(SignalingBus::stop);
+    }
+
+    @Test
+    @DisplayName("should route signaling between two nodes over TCP and forget a stopped node")
+    void twoNodes_shouldRelayOverTcp() throws Exception {
+        // given
+        int portA = freePort();
+        int portB = freePort();
+        Node nodeA = Node.start(bus("node-a", portA, portB));
+        Node nodeB = Node.start(bus("node-b", portB, portA));
+        WebSocketSession alice = nodeA.connect("alice");
+        WebSocketSession bob = nodeB.connect("bob");
+        nodeA.send(alice, "{\"type\":\"join\",\"roomId\":\"room-1\"}");
+        awaitTrue(() -> nodeB.roomService().getRoomParticipants("room-1").contains("alice"));
+
+        // when
+        nodeB.send(bob, "{\"type\":\"join\",\"roomId\":\"room-1\"}");
+        awaitTrue(() -> nodeA.cluster().isRemote("bob"));
+        nodeB.send(bob, "{\"type\":\"ice-candidate\",\"roomId\":\"room-1\",\"targetId\":\"alice\",\"payload\":{\"candidate\":\"c\"}}");
+
+        // then
+        verify(alice, timeout(TIMEOUT_MILLIS)).sendMessage(frameContaining("\"type\":\"user-joined\""));
+        verify(alice, timeout(TIMEOUT_MILLIS)).sendMessage(frameContaining("\"type\":\"ice-candidate\""));
+        verify(bob).sendMessage(frameContaining("\"participants\":[\"alice\"]"));
+
+        // when
+        nodeB.bus().stop();
+
+        // then
+        awaitTrue(() -> !nodeA.roomService().getRoomParticipants("room-1").contains("bob"));
+        assertThat(nodeA.roomService().getRoomParticipants("room-1")).containsExactly("alice");
+    }
+
+    @Test
+    @DisplayName("should answer invite-link exists checks on a node the room's members are not connected to")
+    void twoNodes_shouldAnswerExistsForRemoteRooms() throws Exception {
+        // given
+        int portA = freePort();
+        int portB = freePort();
+        Node nodeA = Node.start(bus("node-a", portA, portB));
+        Node nodeB = Node.start(bus("node-b", portB, portA));
+        RoomController controllerB = new RoomController(nodeB.roomService(), objectMapper, RoomEventStream.disabled());
+        WebSocketSession alice = nodeA.connect("alice");
+
+        // when
+        nodeA.send(alice, "{\"type\":\"join\",\"roomId\":\"room-1\"}");
+        awaitTrue(() -> nodeB.roomService().getParticipantCount("room-1") == 1);
+
+        // then
+        assertThat(objectMapper.readValue(controllerB.checkRoomExists("room-1").getBody(), RoomExistsResponse.class))
+                .isEqualTo(new RoomExistsResponse(true, 1, false));
+
+        // when
+        nodeA.send(alice, "{\"type\":\"leave\",\"roomId\":\"room-1\"}");
+        awaitTrue(() -> nodeB.roomService().getParticipantCount("room-1") == 0);
+
+        // then
+        assertThat(objectMapper.readValue(controllerB.checkRoomExists("room-1").getBody(), RoomExistsResponse.class))
+                .isEqualTo(new RoomExistsResponse(false, 0, false));
+    }
+
+    @Test
+    @DisplayName("should drop relayed frames to a peer that fell behind, but never membership changes")
+    void fullQueue_shouldKeepMembershipChanges() throws Exception {
+        // given - node-a's queue to node-b counts as full from the start
+        int portA = freePort();
+        int portB = freePort();
+        TcpSignalingBus busA = new TcpSignalingBus("node-a", new InetSocketAddress("127.0.0.1", portA),
+                List.of(new InetSocketAddress("127.0.0.1", portB)), new CBORMapper(), 0);
+        buses.add(busA);
+        List<ClusterMessage> received = new CopyOnWriteArrayList<>();
+        bus("node-b", portB, portA).start(recorder(received));
+        busA.start(recorder(new CopyOnWriteArrayList<>()));
+        awaitTrue(() -> received.stream().anyMatch(message -> message.type() == ClusterMessage.Type.SYNC));
+
+        // when
+        for (int i = 0; i < 20; i++) {
+            busA.publish(ClusterMessage.deliver("node-a", List.of("bob"), "{}", true));
+            busA.publish(ClusterMessage.joined("node-a", "room-1", "session-" + i));
+        }
+        busA.publish(ClusterMessage.disconnected("node-a", "session-0"));
+
+        // then - messages arrive in order, so every frame would have shown up by the last membership change
+        awaitTrue(() -> received.stream().anyMatch(message -> message.type() == ClusterMessage.Type.DISCONNECTED));
+        assertThat(received).extracting(ClusterMessage::type)
+                .doesNotContain(ClusterMessage.Type.DELIVER)
+                .filteredOn(type -> type == ClusterMessage.Type.JOINED)
+                .hasSize(20);
+    }
+
+    private static SignalingBus.Listener recorder(List<ClusterMessage> received) {
+        return new SignalingBus.Listener() {
+            @Override
+            public void onMessage(ClusterMessage message) {
+                received.add(message);
+            }
+
+            @Override
+            public void syncTo(Consumer<ClusterMessage> sink) {
+                sink.accept(ClusterMessage.sync("node-a"));
+            }
+
+            @Override
+            public void onNodeDown(String nodeId) {
+            }
+        };
+    }
+
+    private SignalingBus bus(String nodeId, int port, int peerPort) {
+        TcpSignalingBus bus = new TcpSignalingBus(nodeId, new InetSocketAddress("127.0.0.1", port),
+                List.of(new InetSocketAddress("127.0.0.1", peerPort)), new CBORMapper());
+        buses.add(bus);
+        return bus;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).as("condition not met in time").isLessThan(deadline);
+            Thread.sleep(20);
+        }
+    }
+}
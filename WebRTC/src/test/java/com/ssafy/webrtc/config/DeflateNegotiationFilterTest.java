@@ -0,0 +1,80 @@
+package com.ssafy.webrtc.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class DeflateNegotiationFilterTest {
+
+    private static final String BROWSER_OFFER = "permessage-deflate; client_max_window_bits";
+
+    @Test
+    @DisplayName("should leave offers untouched with the default settings")
+    void defaults_shouldNotFilter() {
+        // given
+        DeflateNegotiationFilter filter = new DeflateNegotiationFilter(new SignalingProperties.Compression());
+        MockHttpServletRequest request = handshake(BROWSER_OFFER);
+
+        // when / then
+        assertThat(filter.shouldNotFilter(request)).isTrue();
+    }
+
+    @Test
+    @DisplayName("should hide permessage-deflate offers when compression is disabled")
+    void disabled_shouldRemoveDeflateOffer() throws Exception {
+        // given
+        SignalingProperties.Compression compression = new SignalingProperties.Compression();
+        compression.setEnabled(false);
+        DeflateNegotiationFilter filter = new DeflateNegotiationFilter(compression);
+        FilterChain chain = mock(FilterChain.class);
+
+        // when
+        filter.doFilter(handshake(BROWSER_OFFER), new MockHttpServletResponse(), chain);
+
+        // then
+        ArgumentCaptor<HttpServletRequest> forwarded = ArgumentCaptor.forClass(HttpServletRequest.class);
+        verify(chain).doFilter(forwarded.capture(), any());
+        HttpServletRequest request = forwarded.getValue();
+        assertThat(request.getHeader(DeflateNegotiationFilter.EXTENSIONS_HEADER)).isNull();
+        assertThat(Collections.list(request.getHeaders(DeflateNegotiationFilter.EXTENSIONS_HEADER))).isEmpty();
+        assertThat(Collections.list(request.getHeaderNames()))
+                .noneMatch(DeflateNegotiationFilter.EXTENSIONS_HEADER::equalsIgnoreCase)
+                .contains("Upgrade");
+    }
+
+    @Test
+    @DisplayName("should ask for a per-message window reset when context takeover is off")
+    void noContextTakeover_shouldAddServerNoContextTakeover() {
+        // given
+        SignalingProperties.Compression compression = new SignalingProperties.Compression();
+        compression.setContextTakeover(false);
+        DeflateNegotiationFilter filter = new DeflateNegotiationFilter(compression);
+
+        // when
+        String offers = filter.rewrite(List.of(BROWSER_OFFER + ", x-other",
+                "permessage-deflate; server_no_context_takeover"));
+
+        // then
+        assertThat(offers).isEqualTo("permessage-deflate; client_max_window_bits; server_no_context_takeover, "
+                + "x-other, permessage-deflate; server_no_context_takeover");
+    }
+
+    private static MockHttpServletRequest handshake(String extensions) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/signal");
+        request.addHeader("Upgrade", "websocket");
+        request.addHeader(DeflateNegotiationFilter.EXTENSIONS_HEADER, extensions);
+        return request;
+    }
+}
@@ -0,0 +1,64 @@
+package com.ssafy.webrtc.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class PageControllerTest {
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        StaticPage indexPage = new StaticPage(new ClassPathResource("static/index.html"), false);
+        mockMvc = MockMvcBuilders.standaloneSetup(new PageController(indexPage)).build();
+    }
+
+    @Test
+    @DisplayName("should serve the page with an ETag and revalidation headers")
+    void index_shouldSetCachingHeaders() throws Exception {
+        // when / then
+        mockMvc.perform(get("/room/abc"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/html"))
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(content().string(containsString("<html")));
+    }
+
+    @Test
+    @DisplayName("should answer 304 without a body when If-None-Match matches")
+    void index_shouldReturnNotModified() throws Exception {
+        // given
+        MvcResult first = mockMvc.perform(get("/").header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andReturn();
+        String etag = first.getResponse().getHeader(HttpHeaders.ETAG);
+
+        // when
+        MvcResult second = mockMvc.perform(get("/index.html")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andReturn();
+
+        // then
+        assertThat(second.getResponse().getContentAsByteArray()).isEmpty();
+        mockMvc.perform(get("/").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+    }
+}
@@ -1,63 +1,133 @@
 package com.ssafy.webrtc.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ssafy.webrtc.service.RoomService;
+import com.ssafy.webrtc.service.RoomStore;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.HashMap;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
+import java.util.TreeSet;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(MockitoExtension.class)
 class RoomControllerTest {
 
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
     @Mock
     private RoomService roomService;
 
-    @InjectMocks
     private RoomController roomController;
 
+    @BeforeEach
+    void setUp() {
+        roomController = new RoomController(roomService, objectMapper, RoomEventStream.disabled());
+    }
+
     @Test
-    @DisplayName("should return empty list when no rooms exist")
-    void getRooms_shouldReturnEmptyList() {
+    @DisplayName("should return empty page when no rooms exist")
+    void getRooms_shouldReturnEmptyList() throws Exception {
         // given
-        when(roomService.getAllRooms()).thenReturn(Map.of());
+        when(roomService.getRoomIdsAfter(null)).thenReturn(new TreeSet<>());
 
         // when
-        ResponseEntity<List<RoomController.RoomInfo>> response = roomController.getRooms();
+        ResponseEntity<StreamingResponseBody> response = roomController.getRooms(null, 50, null, null);
 
         // then
         assertThat(response.getStatusCode().value()).isEqualTo(200);
-        assertThat(response.getBody()).isEmpty();
+        RoomController.RoomPage page = read(response);
+        assertThat(page.rooms()).isEmpty();
+        assertThat(page.nextCursor()).isNull();
     }
 
     @Test
     @DisplayName("should return room list with participant counts")
-    void getRooms_shouldReturnRoomList() {
+    void getRooms_shouldReturnRoomList() throws Exception {
         // given
-        Map<String, Set<String>> rooms = new HashMap<>();
-        rooms.put("room-1", Set.of("user-1", "user-2"));
-        rooms.put("room-2", Set.of("user-3"));
-        when(roomService.getAllRooms()).thenReturn(rooms);
+        when(roomService.getRoomIdsAfter(null)).thenReturn(new TreeSet<>(List.of("room-1", "room-2")));
+        when(roomService.getParticipantCount("room-1")).thenReturn(2);
+        when(roomService.getParticipantCount("room-2")).thenReturn(1);
 
         // when
-        ResponseEntity<List<RoomController.RoomInfo>> response = roomController.getRooms();
+        ResponseEntity<StreamingResponseBody> response = roomController.getRooms(null, 50, null, null);
 
         // then
         assertThat(response.getStatusCode().value()).isEqualTo(200);
-        assertThat(response.getBody()).hasSize(2);
+        RoomController.RoomPage page = read(response);
+        assertThat(page.rooms()).containsExactly(
+                new RoomController.RoomInfo("room-1", 2),
+                new RoomController.RoomInfo("room-2", 1));
+        assertThat(page.nextCursor()).isNull();
+    }
+
+    @Test
+    @DisplayName("should page through rooms with an opaque cursor")
+    void getRooms_shouldPageWithCursor() throws Exception {
+        // given
+        RoomService realRoomService = new RoomService();
+        for (int i = 0; i < 5; i++) {
+            realRoomService.joinRoom("room-" + i, "session-" + i);
+        }
+        RoomController controller = new RoomController(realRoomService, objectMapper, RoomEventStream.disabled());
+
+        // when
+        List<String> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            RoomController.RoomPage page = read(controller.getRooms(cursor, 2, null, null));
+            page.rooms().forEach(room -> seen.add(room.roomId()));
+            cursor = page.nextCursor();
+            pages++;
+        } while (cursor != null);
+
+        // then
+        assertThat(seen).containsExactly("room-0", "room-1", "room-2", "room-3", "room-4");
+        assertThat(pages).isEqualTo(3);
+    }
 
-        List<RoomController.RoomInfo> roomInfos = response.getBody();
-        assertThat(roomInfos).extracting("roomId").containsExactlyInAnyOrder("room-1", "room-2");
+    @Test
+    @DisplayName("should filter rooms by participant count")
+    void getRooms_shouldFilterByParticipantCount() throws Exception {
+        // given
+        when(roomService.getRoomIdsAfter(null)).thenReturn(new TreeSet<>(List.of("big", "pair", "solo")));
+        when(roomService.getParticipantCount("big")).thenReturn(8);
+        when(roomService.getParticipantCount("pair")).thenReturn(2);
+        when(roomService.getParticipantCount("solo")).thenReturn(1);
+
+        // when
+        RoomController.RoomPage page = read(roomController.getRooms(null, 50, 2, 4));
+
+        // then
+        assertThat(page.rooms()).extracting(RoomController.RoomInfo::roomId).containsExactly("pair");
+    }
+
+    @Test
+    @DisplayName("should reject an invalid limit or cursor")
+    void getRooms_shouldRejectBadParameters() {
+        assertThat(roomController.getRooms(null, 0, null, null).getStatusCode().value()).isEqualTo(400);
+        assertThat(roomController.getRooms(null, RoomController.MAX_LIMIT + 1, null, null).getStatusCode().value())
+                .isEqualTo(400);
+        assertThat(roomController.getRooms("not base64!", 10, null, null).getStatusCode().value()).isEqualTo(400);
     }
 
     @Test
@@ -73,4 +143,85 @@ class RoomControllerTest {
         assertThat(response.getStatusCode().value()).isEqualTo(200);
         assertThat(response.getBody()).isEqualTo(5);
     }
+
+    @Test
+    @DisplayName("should answer 404 for the event stream when room events are disabled")
+    void streamRooms_shouldBeNotFoundWhenDisabled() {
+        // when
+        ResponseEntity<SseEmitter> response = roomController.streamRooms();
+
+        // then
+        assertThat(response.getStatusCode().value()).isEqualTo(404);
+    }
+
+    @Test
+    @DisplayName("should answer exists with the participant count and whether the room is full")
+    void checkRoomExists_shouldReportCountAndFull() throws Exception {
+        // given
+        RoomService realRoomService = new RoomService(RoomStore.HASH, 2);
+        realRoomService.joinRoom("open", "session-1");
+        realRoomService.joinRoom("full", "session-2");
+        realRoomService.joinRoom("full", "session-3");
+        RoomController controller = new RoomController(realRoomService, objectMapper, RoomEventStream.disabled());
+
+        // when / then
+        assertThat(readExists(controller.checkRoomExists("missing")))
+                .isEqualTo(new RoomController.RoomExistsResponse(false, 0, false));
+        assertThat(readExists(controller.checkRoomExists("open")))
+                .isEqualTo(new RoomController.RoomExistsResponse(true, 1, false));
+        assertThat(readExists(controller.checkRoomExists("full")))
+                .isEqualTo(new RoomController.RoomExistsResponse(true, 2, true));
+    }
+
+    @Test
+    @DisplayName("should share one serialized exists answer per participant count")
+    void checkRoomExists_shouldReuseAnswers() throws Exception {
+        // given
+        when(roomService.getParticipantCount("room-1")).thenReturn(3);
+        when(roomService.getParticipantCount("room-2")).thenReturn(3);
+        when(roomService.getParticipantCount("huge")).thenReturn(RoomController.CACHED_EXISTS_ANSWERS + 1);
+
+        // when
+        ResponseEntity<byte[]> first = roomController.checkRoomExists("room-1");
+        ResponseEntity<byte[]> second = roomController.checkRoomExists("room-2");
+        ResponseEntity<byte[]> huge = roomController.checkRoomExists("huge");
+
+        // then
+        assertThat(second.getBody()).isSameAs(first.getBody());
+        assertThat(second.getHeaders().getETag()).isEqualTo("\"3\"");
+        assertThat(readExists(huge).participantCount()).isEqualTo(RoomController.CACHED_EXISTS_ANSWERS + 1);
+    }
+
+    @Test
+    @DisplayName("should answer 304 to an exists check revalidating an unchanged count")
+    void checkRoomExists_shouldAnswerNotModified() throws Exception {
+        // given
+        RoomService realRoomService = new RoomService();
+        realRoomService.joinRoom("room-1", "session-1");
+        MockMvc mockMvc = MockMvcBuilders
+                .standaloneSetup(new RoomController(realRoomService, objectMapper, RoomEventStream.disabled()))
+                .build();
+        String etag = mockMvc.perform(get("/api/rooms/room-1/exists"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // when / then
+        mockMvc.perform(get("/api/rooms/room-1/exists").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        realRoomService.joinRoom("room-1", "session-2");
+        mockMvc.perform(get("/api/rooms/room-1/exists").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.participantCount").value(2));
+    }
+
+    private RoomController.RoomExistsResponse readExists(ResponseEntity<byte[]> response) throws Exception {
+        return objectMapper.readValue(response.getBody(), RoomController.RoomExistsResponse.class);
+    }
+
+    private RoomController.RoomPage read(ResponseEntity<StreamingResponseBody> response) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+        return objectMapper.readValue(out.toByteArray(), RoomController.RoomPage.class);
+    }
 }
@@ -0,0 +1,225 @@
+package com.ssafy.webrtc.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ssafy.webrtc.service.RoomService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class RoomEventStreamTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private ScheduledExecutorService scheduler;
+    private ExecutorService writers;
+    private RoomService roomService;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        writers = Executors.newSingleThreadExecutor();
+        roomService = new RoomService();
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdownNow();
+        writers.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("should send a snapshot, then one coalesced delta per touched room and tick")
+    void subscribe_shouldSendSnapshotThenDeltas() throws Exception {
+        // given - never started, ticks are run by hand
+        RoomEventStream stream = stream(Duration.ofHours(1));
+        roomService.joinRoom("room-a", "s1");
+        roomService.joinRoom("room-a", "s2");
+        roomService.joinRoom("room-b", "s3");
+        MvcResult result = subscribe(stream);
+
+        // when
+        roomService.joinRoom("room-a", "s4");
+        roomService.leaveRoom("room-a", "s1");
+        roomService.joinRoom("room-a", "s5");
+        roomService.leaveRoom("room-b", "s3");
+        roomService.joinRoom("room-c", "s6");
+        roomService.joinRoom("room-d", "s7");
+        roomService.leaveRoom("room-d", "s7");
+        tick(stream);
+
+        // then
+        assertThat(content(result).split("\n\n")).containsExactlyInAnyOrder(
+                "event:snapshot\ndata:{\"rooms\":[{\"roomId\":\"room-a\",\"participantCount\":2},"
+                        + "{\"roomId\":\"room-b\",\"participantCount\":1}],\"more\":false}",
+                "event:room-size-changed\ndata:{\"roomId\":\"room-a\",\"participantCount\":3}",
+                "event:room-removed\ndata:{\"roomId\":\"room-b\"}",
+                "event:room-created\ndata:{\"roomId\":\"room-c\",\"participantCount\":1}",
+                "event:room-removed\ndata:{\"roomId\":\"room-d\"}");
+        assertThat(content(result)).startsWith("event:snapshot\n");
+    }
+
+    @Test
+    @DisplayName("should send a large snapshot in pages")
+    void subscribe_shouldPageSnapshot() throws Exception {
+        // given
+        int roomCount = RoomEventStream.SNAPSHOT_PAGE_SIZE + 20;
+        for (int i = 0; i < roomCount; i++) {
+            roomService.joinRoom("room-%03d".formatted(i), "s" + i);
+        }
+
+        // when
+        MvcResult result = subscribe(stream(Duration.ofHours(1)));
+
+        // then
+        String[] events = content(result).split("\n\n");
+        assertThat(events).hasSize(2);
+        assertThat(events[0]).startsWith("event:" + RoomEventStream.SNAPSHOT + "\n");
+        assertThat(events[1]).startsWith("event:" + RoomEventStream.SNAPSHOT_CONTINUED + "\n");
+        JsonNode first = objectMapper.readTree(events[0].substring(events[0].indexOf("data:") + 5));
+        JsonNode second = objectMapper.readTree(events[1].substring(events[1].indexOf("data:") + 5));
+        assertThat(first.get("rooms")).hasSize(RoomEventStream.SNAPSHOT_PAGE_SIZE);
+        assertThat(first.get("more").asBoolean()).isTrue();
+        assertThat(second.get("rooms")).hasSize(20);
+        assertThat(second.get("rooms").get(0).get("roomId").asText())
+                .isEqualTo("room-%03d".formatted(RoomEventStream.SNAPSHOT_PAGE_SIZE));
+        assertThat(second.get("more").asBoolean()).isFalse();
+    }
+
+    @Test
+    @DisplayName("should drop a subscriber that stopped reading, without holding up the tick or the others")
+    void flush_shouldDropStalledSubscriber() throws Exception {
+        // given - the first drain task never runs, as if its write were stuck; the rest run inline
+        AtomicBoolean stallNext = new AtomicBoolean(true);
+        List<Runnable> stalled = new ArrayList<>();
+        Executor inline = task -> {
+            if (stallNext.getAndSet(false)) {
+                stalled.add(task);
+            } else {
+                task.run();
+            }
+        };
+        RoomEventStream stream = new RoomEventStream(roomService, objectMapper.getFactory(), Duration.ofHours(1),
+                Duration.ofHours(1), Duration.ofMinutes(1), 2, scheduler, inline);
+        roomService.addListener(stream);
+        MvcResult stuck = perform(stream);
+        MvcResult healthy = perform(stream);
+        scheduler.submit(() -> { }).get();
+
+        // when
+        for (int i = 0; i < 3; i++) {
+            roomService.joinRoom("room-" + i, "s" + i);
+            stream.flush();
+        }
+
+        // then
+        assertThat(stalled).hasSize(1);
+        assertThat(stream.getSubscriberCount()).isEqualTo(1);
+        assertThat(content(stuck)).isEmpty();
+        assertThat(content(healthy)).contains("\"room-0\"", "\"room-1\"", "\"room-2\"");
+    }
+
+    @Test
+    @DisplayName("should send nothing on a quiet tick, and a keep-alive comment once the stream was idle long enough")
+    void flush_shouldKeepIdleStreamsAlive() throws Exception {
+        // given
+        RoomEventStream quiet = stream(Duration.ofHours(1));
+        RoomEventStream eager = stream(Duration.ZERO);
+        MvcResult quietResult = subscribe(quiet);
+        MvcResult eagerResult = subscribe(eager);
+        int snapshotLength = content(quietResult).length();
+
+        // when
+        tick(quiet);
+        tick(eager);
+
+        // then
+        assertThat(content(quietResult)).hasSize(snapshotLength);
+        assertThat(content(eagerResult)).endsWith(":keep-alive\n\n");
+    }
+
+    @Test
+    @DisplayName("should not track subscribers that completed")
+    void subscribe_shouldForgetCompletedSubscribers() throws Exception {
+        // given
+        RoomEventStream stream = stream(Duration.ofHours(1));
+        MvcResult result = subscribe(stream);
+        assertThat(stream.getSubscriberCount()).isEqualTo(1);
+
+        // when
+        stream.stop();
+
+        // then
+        assertThat(stream.getSubscriberCount()).isZero();
+        assertThat(result.getResponse().getContentAsString()).startsWith("event:snapshot");
+    }
+
+    @Test
+    @DisplayName("should end subscriptions that arrive after the stream stopped")
+    void subscribe_shouldCompleteAfterStop() throws Exception {
+        // given
+        RoomEventStream stream = stream(Duration.ofHours(1));
+        stream.stop();
+
+        // when
+        MvcResult result = perform(stream);
+
+        // then
+        assertThatCode(() -> result.getAsyncResult(1_000)).doesNotThrowAnyException();
+        assertThat(stream.getSubscriberCount()).isZero();
+        assertThat(content(result)).isEmpty();
+    }
+
+    private RoomEventStream stream(Duration keepAlive) {
+        RoomEventStream stream = new RoomEventStream(roomService, objectMapper.getFactory(), Duration.ofHours(1),
+                keepAlive, Duration.ofMinutes(1), 32, scheduler, writers);
+        roomService.addListener(stream);
+        return stream;
+    }
+
+    private MvcResult subscribe(RoomEventStream stream) throws Exception {
+        MvcResult result = perform(stream);
+        // The subscriber joins on the tick thread, and the snapshot is sent from the writer pool
+        scheduler.submit(() -> { }).get();
+        writers.submit(() -> { }).get();
+        return result;
+    }
+
+    private MvcResult perform(RoomEventStream stream) throws Exception {
+        MockMvc mockMvc = MockMvcBuilders
+                .standaloneSetup(new RoomController(roomService, objectMapper, stream))
+                .build();
+        return mockMvc.perform(get("/api/rooms/events"))
+                .andExpect(status().isOk())
+                .andExpect(request().asyncStarted())
+                .andReturn();
+    }
+
+    private void tick(RoomEventStream stream) throws Exception {
+        scheduler.submit(stream::flush).get();
+        writers.submit(() -> { }).get();
+    }
+
+    private static String content(MvcResult result) throws Exception {
+        return result.getResponse().getContentAsString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,90 @@
+package com.ssafy.webrtc.controller;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.FileSystemResource;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StaticPageTest {
+
+    private static final String HTML = "<html><body>" + "signaling ".repeat(200) + "</body></html>";
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("should serve gzip to clients accepting it and the page as is otherwise")
+    void select_shouldNegotiateGzip() throws Exception {
+        // given
+        StaticPage page = new StaticPage(new FileSystemResource(write("index.html", HTML)), false);
+
+        // when
+        StaticPage.Variant gzip = page.select("gzip, deflate, br");
+        StaticPage.Variant identity = page.select(null);
+
+        // then
+        assertThat(gzip.encoding()).isEqualTo("gzip");
+        assertThat(gzip.body().length).isLessThan(HTML.length() / 5);
+        assertThat(new GZIPInputStream(new ByteArrayInputStream(gzip.body())).readAllBytes())
+                .isEqualTo(HTML.getBytes(StandardCharsets.UTF_8));
+        assertThat(identity.encoding()).isNull();
+        assertThat(identity.body()).isEqualTo(HTML.getBytes(StandardCharsets.UTF_8));
+        assertThat(gzip.etag()).isNotEqualTo(identity.etag());
+        assertThat(page.select("gzip")).isSameAs(gzip);
+    }
+
+    @Test
+    @DisplayName("should prefer a precompressed Brotli sibling when the client accepts br")
+    void select_shouldPreferBrotliSibling() throws Exception {
+        // given
+        write("index.html", HTML);
+        write("index.html.br", "brotli bytes");
+        StaticPage page = new StaticPage(new FileSystemResource(dir.resolve("index.html")), false);
+
+        // when / then
+        assertThat(page.select("gzip, br").encoding()).isEqualTo("br");
+        assertThat(page.select("gzip").encoding()).isEqualTo("gzip");
+    }
+
+    @Test
+    @DisplayName("should re-read the page after it changes only when reloading")
+    void select_shouldReloadChangedPage() throws Exception {
+        // given
+        Path file = write("index.html", HTML);
+        StaticPage reloading = new StaticPage(new FileSystemResource(file), true);
+        StaticPage fixed = new StaticPage(new FileSystemResource(file), false);
+        String etag = reloading.select(null).etag();
+
+        // when
+        Files.writeString(file, "<html>changed</html>");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 2_000));
+
+        // then
+        assertThat(new String(reloading.select(null).body(), StandardCharsets.UTF_8)).isEqualTo("<html>changed</html>");
+        assertThat(reloading.select(null).etag()).isNotEqualTo(etag);
+        assertThat(fixed.select(null).etag()).isEqualTo(etag);
+    }
+
+    @Test
+    @DisplayName("should honour q=0 and wildcards in Accept-Encoding")
+    void accepts_shouldParseQualities() {
+        assertThat(StaticPage.accepts("gzip;q=0.5, br", "gzip")).isTrue();
+        assertThat(StaticPage.accepts("gzip;q=0, *", "gzip")).isFalse();
+        assertThat(StaticPage.accepts("*", "br")).isTrue();
+        assertThat(StaticPage.accepts("identity", "gzip")).isFalse();
+        assertThat(StaticPage.accepts("", "gzip")).isFalse();
+    }
+
+    private Path write(String name, String content) throws Exception {
+        return Files.writeString(dir.resolve(name), content);
+    }
+}
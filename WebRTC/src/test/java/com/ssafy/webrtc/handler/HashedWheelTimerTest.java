@@ -0,0 +1,116 @@
+package com.ssafy.webrtc.handler;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HashedWheelTimerTest {
+
+    private HashedWheelTimer timer;
+
+    @AfterEach
+    void tearDown() {
+        if (timer != null) {
+            timer.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("should run a task no earlier than its delay")
+    void schedule_shouldFireAfterDelay() throws Exception {
+        // given
+        timer = new HashedWheelTimer(Executors.defaultThreadFactory(), Duration.ofMillis(5), 64);
+        CountDownLatch fired = new CountDownLatch(1);
+        long started = System.nanoTime();
+
+        // when
+        timer.schedule(fired::countDown, 50, TimeUnit.MILLISECONDS);
+
+        // then
+        assertThat(fired.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started)).isGreaterThanOrEqualTo(50);
+        assertThat(timer.getPendingCount()).isZero();
+        assertThat(timer.getExpiredCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("should fire delays longer than one revolution only after the remaining rounds")
+    void schedule_shouldHonourRounds() throws Exception {
+        // given - 4 buckets of 5 ms, so one revolution is 20 ms
+        timer = new HashedWheelTimer(Executors.defaultThreadFactory(), Duration.ofMillis(5), 4);
+        List<Integer> order = new CopyOnWriteArrayList<>();
+        CountDownLatch fired = new CountDownLatch(3);
+        long started = System.nanoTime();
+
+        // when
+        timer.schedule(() -> { order.add(90); fired.countDown(); }, 90, TimeUnit.MILLISECONDS);
+        timer.schedule(() -> { order.add(10); fired.countDown(); }, 10, TimeUnit.MILLISECONDS);
+        timer.schedule(() -> { order.add(45); fired.countDown(); }, 45, TimeUnit.MILLISECONDS);
+
+        // then
+        assertThat(fired.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(order).containsExactly(10, 45, 90);
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started)).isGreaterThanOrEqualTo(90);
+    }
+
+    @Test
+    @DisplayName("should not run cancelled tasks")
+    void cancel_shouldPreventExecution() throws Exception {
+        // given
+        timer = new HashedWheelTimer(Executors.defaultThreadFactory(), Duration.ofMillis(5), 8);
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch later = new CountDownLatch(1);
+        HashedWheelTimer.Timeout timeout = timer.schedule(runs::incrementAndGet, 20, TimeUnit.MILLISECONDS);
+
+        // when
+        boolean cancelled = timeout.cancel();
+        timer.schedule(later::countDown, 60, TimeUnit.MILLISECONDS);
+
+        // then
+        assertThat(later.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(cancelled).isTrue();
+        assertThat(timeout.cancel()).isFalse();
+        assertThat(runs).hasValue(0);
+        assertThat(timer.getPendingCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("should keep ticking after a task throws")
+    void schedule_shouldSurviveFailingTask() throws Exception {
+        // given
+        timer = new HashedWheelTimer(Executors.defaultThreadFactory(), Duration.ofMillis(5), 8);
+        CountDownLatch fired = new CountDownLatch(1);
+
+        // when
+        timer.schedule(() -> { throw new IllegalStateException("boom"); }, 5, TimeUnit.MILLISECONDS);
+        timer.schedule(fired::countDown, 20, TimeUnit.MILLISECONDS);
+
+        // then
+        assertThat(fired.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    @DisplayName("should refuse new tasks once stopped")
+    void stop_shouldRefuseNewTasks() {
+        // given
+        timer = new HashedWheelTimer(Executors.defaultThreadFactory(), Duration.ofMillis(5), 8);
+
+        // when
+        timer.stop();
+
+        // then
+        assertThatThrownBy(() -> timer.schedule(() -> { }, 1, TimeUnit.MILLISECONDS))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
@@ -0,0 +1,112 @@
+package com.ssafy.webrtc.handler;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ssafy.webrtc.config.SignalingProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IceBatcherTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Mock
+    private ScheduledExecutorService scheduler;
+
+    @Mock
+    private WebSocketSession targetSession;
+
+    private OutboundQueue target;
+    private IceBatcher batcher;
+
+    @BeforeEach
+    void setUp() {
+        target = new OutboundDispatcher(Runnable::run, new SignalingProperties.Outbound()).open(targetSession);
+        batcher = new IceBatcher(Duration.ofMillis(10), scheduler);
+        batcher.enable("session-2");
+    }
+
+    @Test
+    @DisplayName("should send candidates of one window as a single batch in arrival order")
+    void add_shouldCoalesceCandidatesUntilWindowEnds() throws Exception {
+        // given
+        when(targetSession.isOpen()).thenReturn(true);
+        ArgumentCaptor<Runnable> windowEnd = ArgumentCaptor.forClass(Runnable.class);
+
+        // when
+        batcher.add("session-1", target, candidate("c1"), System.nanoTime());
+        batcher.add("session-1", target, candidate("c2"), System.nanoTime());
+        batcher.add("session-1", target, candidate("c3"), System.nanoTime());
+
+        // then
+        verify(scheduler).schedule(windowEnd.capture(), eq(TimeUnit.MILLISECONDS.toNanos(10)), eq(TimeUnit.NANOSECONDS));
+        verify(targetSession, never()).sendMessage(any());
+
+        windowEnd.getValue().run();
+
+        JsonNode batch = objectMapper.readTree(sentPayloads().get(0));
+        assertThat(batch.get("type").asText()).isEqualTo("ice-candidates");
+        assertThat(batch.get("senderId").asText()).isEqualTo("session-1");
+        assertThat(batch.get("roomId").asText()).isEqualTo("test-room");
+        assertThat(batch.get("candidates").findValuesAsText("candidate")).containsExactly("c1", "c2", "c3");
+    }
+
+    @Test
+    @DisplayName("should send a pending batch before another frame of the same pair")
+    void flush_shouldSendPendingBatchImmediately() throws Exception {
+        // given
+        when(targetSession.isOpen()).thenReturn(true);
+        ArgumentCaptor<Runnable> windowEnd = ArgumentCaptor.forClass(Runnable.class);
+        batcher.add("session-1", target, candidate("c1"), System.nanoTime());
+        verify(scheduler).schedule(windowEnd.capture(), anyLong(), any());
+
+        // when
+        batcher.flush("session-1", "session-2");
+        windowEnd.getValue().run();
+
+        // then - the expired window finds nothing left to send
+        assertThat(sentPayloads()).hasSize(1).first().asString().contains("\"c1\"");
+    }
+
+    @Test
+    @DisplayName("should only batch for targets that advertised the capability")
+    void accepts_shouldRequireCapability() {
+        // when & then
+        assertThat(batcher.accepts("session-2")).isTrue();
+        assertThat(batcher.accepts("session-3")).isFalse();
+
+        batcher.forget("session-2");
+        assertThat(batcher.accepts("session-2")).isFalse();
+        assertThat(IceBatcher.disabled().accepts("session-2")).isFalse();
+    }
+
+    private List<String> sentPayloads() throws Exception {
+        ArgumentCaptor<TextMessage> captor = ArgumentCaptor.forClass(TextMessage.class);
+        verify(targetSession, atLeastOnce()).sendMessage(captor.capture());
+        return captor.getAllValues().stream().map(TextMessage::getPayload).toList();
+    }
+
+    private RelayEnvelope candidate(String candidate) throws Exception {
+        return RelayEnvelope.tryParse(objectMapper.getFactory(), "{\"type\":\"ice-candidate\",\"roomId\":\"test-room\","
+                + "\"targetId\":\"session-2\",\"payload\":{\"candidate\":\"" + candidate + "\",\"sdpMLineIndex\":0}}");
+    }
+}
@@ -0,0 +1,98 @@
+package com.ssafy.webrtc.handler;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JoinRateLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000);
+
+    @Test
+    @DisplayName("should allow a burst per address, then refill at the configured rate")
+    void tryAcquire_shouldLimitPerAddress() {
+        // given - 2 joins per second, bursts of 3
+        JoinRateLimiter limiter = new JoinRateLimiter(2, 3, 0, 0, clock::get);
+
+        // when / then
+        assertThat(limiter.tryAcquire("10.0.0.1", "room-1")).isTrue();
+        assertThat(limiter.tryAcquire("10.0.0.1", "room-2")).isTrue();
+        assertThat(limiter.tryAcquire("10.0.0.1", "room-3")).isTrue();
+        assertThat(limiter.tryAcquire("10.0.0.1", "room-4")).isFalse();
+        assertThat(limiter.tryAcquire("10.0.0.2", "room-4")).isTrue();
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+        assertThat(limiter.tryAcquire("10.0.0.1", "room-4")).isTrue();
+        assertThat(limiter.tryAcquire("10.0.0.1", "room-4")).isFalse();
+    }
+
+    @Test
+    @DisplayName("should limit joins per room across addresses, and skip unknown addresses")
+    void tryAcquire_shouldLimitPerRoom() {
+        // given
+        JoinRateLimiter limiter = new JoinRateLimiter(100, 100, 1, 2, clock::get);
+
+        // when / then
+        assertThat(limiter.tryAcquire("10.0.0.1", "room-1")).isTrue();
+        assertThat(limiter.tryAcquire(null, "room-1")).isTrue();
+        assertThat(limiter.tryAcquire("10.0.0.3", "room-1")).isFalse();
+        assertThat(limiter.tryAcquire("10.0.0.3", "room-2")).isTrue();
+    }
+
+    @Test
+    @DisplayName("should admit everything when unlimited")
+    void unlimited_shouldAlwaysAdmit() {
+        // given
+        JoinRateLimiter limiter = JoinRateLimiter.unlimited();
+
+        // when / then
+        for (int i = 0; i < 1_000; i++) {
+            assertThat(limiter.tryAcquire("10.0.0.1", "room-1")).isTrue();
+        }
+        assertThat(limiter.trackedBuckets()).isZero();
+    }
+
+    @Test
+    @DisplayName("should drop refilled buckets once many addresses have been seen")
+    void tryAcquire_shouldSweepIdleBuckets() {
+        // given
+        JoinRateLimiter limiter = new JoinRateLimiter(1, 1, 0, 0, clock::get);
+        for (int i = 0; i < JoinRateLimiter.SWEEP_THRESHOLD; i++) {
+            limiter.tryAcquire("address-" + i, "room");
+        }
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(2));
+
+        // when
+        limiter.tryAcquire("newcomer", "room");
+
+        // then
+        assertThat(limiter.trackedBuckets()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("should not sweep again until the map has doubled since the last sweep")
+    void tryAcquire_shouldAmortizeSweeps() {
+        // given - a sweep that frees nothing because every bucket was just used
+        JoinRateLimiter limiter = new JoinRateLimiter(1, 1, 0, 0, clock::get);
+        for (int i = 0; i <= JoinRateLimiter.SWEEP_THRESHOLD; i++) {
+            limiter.tryAcquire("address-" + i, "room");
+        }
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(2));
+
+        // when
+        limiter.tryAcquire("newcomer", "room");
+
+        // then - the buckets are full now but stay until the map reaches twice its swept size
+        assertThat(limiter.trackedBuckets()).isEqualTo(JoinRateLimiter.SWEEP_THRESHOLD + 2);
+        for (int i = JoinRateLimiter.SWEEP_THRESHOLD + 2; i < 2 * JoinRateLimiter.SWEEP_THRESHOLD; i++) {
+            limiter.tryAcquire("address-" + i, "room");
+        }
+        limiter.tryAcquire("latecomer", "room");
+        // only the refilled first batch goes; the newcomer and everything after it used their token
+        assertThat(limiter.trackedBuckets()).isEqualTo(JoinRateLimiter.SWEEP_THRESHOLD);
+    }
+}
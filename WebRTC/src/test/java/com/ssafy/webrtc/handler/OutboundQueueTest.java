@@ -0,0 +1,232 @@
+package com.ssafy.webrtc.handler;
+
+import com.ssafy.webrtc.config.SignalingProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboundQueueTest {
+
+    // Tasks are only run when the test says so, simulating a busy writer pool
+    private final Deque<Runnable> pendingTasks = new ArrayDeque<>();
+    private SignalingProperties.Outbound settings;
+
+    @Mock
+    private WebSocketSession session;
+
+    @BeforeEach
+    void setUp() {
+        settings = new SignalingProperties.Outbound();
+        settings.setBufferLimit(3);
+    }
+
+    @Test
+    @DisplayName("should write queued frames in order on the writer pool")
+    void enqueue_shouldWriteInOrder() throws Exception {
+        // given
+        when(session.isOpen()).thenReturn(true);
+        OutboundQueue queue = dispatcher().open(session);
+
+        // when
+        queue.enqueue(new TextMessage("first"), false);
+        queue.enqueue(new TextMessage("second"), false);
+
+        // then
+        verify(session, never()).sendMessage(any());
+        assertThat(queue.depth()).isEqualTo(2);
+
+        runPendingTasks();
+
+        ArgumentCaptor<TextMessage> captor = ArgumentCaptor.forClass(TextMessage.class);
+        verify(session, times(2)).sendMessage(captor.capture());
+        assertThat(captor.getAllValues()).extracting(TextMessage::getPayload)
+                .containsExactly("first", "second");
+        assertThat(queue.depth()).isZero();
+    }
+
+    @Test
+    @DisplayName("should drop the oldest ICE candidate when the buffer is full")
+    void enqueue_dropOldestIce_shouldEvictIceCandidate() throws Exception {
+        // given
+        when(session.isOpen()).thenReturn(true);
+        OutboundDispatcher dispatcher = dispatcher();
+        OutboundQueue queue = dispatcher.open(session);
+        queue.enqueue(new TextMessage("offer"), false);
+        queue.enqueue(new TextMessage("ice-1"), true);
+        queue.enqueue(new TextMessage("ice-2"), true);
+
+        // when
+        queue.enqueue(new TextMessage("ice-3"), true);
+        runPendingTasks();
+
+        // then
+        ArgumentCaptor<TextMessage> captor = ArgumentCaptor.forClass(TextMessage.class);
+        verify(session, times(3)).sendMessage(captor.capture());
+        assertThat(captor.getAllValues()).extracting(TextMessage::getPayload)
+                .containsExactly("offer", "ice-2", "ice-3");
+        assertThat(dispatcher.getDroppedFrames()).isEqualTo(1);
+        verify(session, never()).close(any(CloseStatus.class));
+    }
+
+    @Test
+    @DisplayName("should close the session when nothing can be dropped")
+    void enqueue_noDroppableFrame_shouldCloseSession() throws Exception {
+        // given
+        OutboundDispatcher dispatcher = dispatcher();
+        OutboundQueue queue = dispatcher.open(session);
+        queue.enqueue(new TextMessage("offer"), false);
+        queue.enqueue(new TextMessage("answer"), false);
+        queue.enqueue(new TextMessage("user-joined"), false);
+
+        // when
+        queue.enqueue(new TextMessage("user-left"), false);
+        runPendingTasks();
+
+        // then
+        verify(session).close(CloseStatus.SESSION_NOT_RELIABLE);
+        verify(session, never()).sendMessage(any());
+        assertThat(dispatcher.getOverflowClosures()).isEqualTo(1);
+        assertThat(dispatcher.getQueuedFrames()).isZero();
+    }
+
+    @Test
+    @DisplayName("should close the session on overflow with CLOSE policy")
+    void enqueue_closePolicy_shouldCloseSession() throws Exception {
+        // given
+        settings.setOverflowPolicy(OverflowPolicy.CLOSE);
+        OutboundQueue queue = dispatcher().open(session);
+        for (int i = 0; i < 3; i++) {
+            queue.enqueue(new TextMessage("ice-" + i), true);
+        }
+
+        // when
+        queue.enqueue(new TextMessage("ice-3"), true);
+        runPendingTasks();
+
+        // then
+        verify(session).close(CloseStatus.SESSION_NOT_RELIABLE);
+        assertThat(queue.isOpen()).isFalse();
+    }
+
+    @Test
+    @DisplayName("should discard queued frames once closed")
+    void close_shouldDiscardQueuedFrames() throws Exception {
+        // given
+        OutboundDispatcher dispatcher = dispatcher();
+        OutboundQueue queue = dispatcher.open(session);
+        queue.enqueue(new TextMessage("offer"), false);
+
+        // when
+        queue.close();
+        queue.enqueue(new TextMessage("answer"), false);
+        runPendingTasks();
+
+        // then
+        verify(session, never()).sendMessage(any());
+        assertThat(dispatcher.getQueuedFrames()).isZero();
+    }
+
+    @Test
+    @DisplayName("should buffer while detached and replay on the resuming connection after its first frame")
+    void attach_shouldReplayBufferedFrames() throws Exception {
+        // given
+        WebSocketSession resumed = mock(WebSocketSession.class);
+        when(resumed.isOpen()).thenReturn(true);
+        OutboundQueue queue = dispatcher().open(session);
+        queue.detach();
+
+        // when
+        queue.enqueue(new TextMessage("offer"), false);
+        queue.enqueue(new TextMessage("ice"), true);
+        runPendingTasks();
+        boolean attached = queue.attach(resumed, new TextMessage("resumed"));
+        runPendingTasks();
+
+        // then
+        assertThat(attached).isTrue();
+        verify(session, never()).sendMessage(any());
+        ArgumentCaptor<TextMessage> captor = ArgumentCaptor.forClass(TextMessage.class);
+        verify(resumed, times(3)).sendMessage(captor.capture());
+        assertThat(captor.getAllValues()).extracting(TextMessage::getPayload)
+                .containsExactly("resumed", "offer", "ice");
+    }
+
+    @Test
+    @DisplayName("should count frames buffered while detached as parked rather than queued")
+    void detach_shouldCountFramesAsParked() throws Exception {
+        // given
+        OutboundDispatcher dispatcher = dispatcher();
+        OutboundQueue queue = dispatcher.open(session);
+        queue.enqueue(new TextMessage("offer"), false);
+
+        // when
+        queue.detach();
+        queue.enqueue(new TextMessage("ice"), true);
+
+        // then
+        assertThat(dispatcher.getQueuedFrames()).isZero();
+        assertThat(dispatcher.getParkedFrames()).isEqualTo(2);
+
+        // when
+        queue.attach(mock(WebSocketSession.class), new TextMessage("resumed"));
+
+        // then
+        assertThat(dispatcher.getQueuedFrames()).isEqualTo(3);
+        assertThat(dispatcher.getParkedFrames()).isZero();
+
+        // when
+        queue.detach();
+        queue.close();
+
+        // then
+        assertThat(dispatcher.getQueuedFrames()).isZero();
+        assertThat(dispatcher.getParkedFrames()).isZero();
+    }
+
+    @Test
+    @DisplayName("should refuse to attach once the detached buffer overflowed")
+    void attach_shouldFailAfterDetachedOverflow() throws Exception {
+        // given
+        settings.setOverflowPolicy(OverflowPolicy.CLOSE);
+        OutboundDispatcher dispatcher = dispatcher();
+        OutboundQueue queue = dispatcher.open(session);
+        queue.detach();
+
+        // when
+        for (int i = 0; i < 4; i++) {
+            queue.enqueue(new TextMessage("frame-" + i), false);
+        }
+        runPendingTasks();
+
+        // then
+        assertThat(queue.attach(mock(WebSocketSession.class), new TextMessage("resumed"))).isFalse();
+        assertThat(dispatcher.getQueuedFrames()).isZero();
+        verify(session, never()).close(any());
+    }
+
+    private OutboundDispatcher dispatcher() {
+        return new OutboundDispatcher(pendingTasks::add, settings);
+    }
+
+    private void runPendingTasks() {
+        Runnable task;
+        while ((task = pendingTasks.poll()) != null) {
+            task.run();
+        }
+    }
+}
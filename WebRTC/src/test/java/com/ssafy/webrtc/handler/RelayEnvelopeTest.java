@@ -0,0 +1,130 @@
+package com.ssafy.webrtc.handler;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RelayEnvelopeTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final JsonFactory jsonFactory = objectMapper.getFactory();
+
+    @Test
+    @DisplayName("should read the routing header of a relay frame")
+    void tryParse_shouldReadHeader() throws Exception {
+        // given
+        String json = """
+                {"type":"offer","roomId":"test-room","targetId":"session-2",
+                 "payload":{"type":"offer","sdp":"v=0\\r\\no=- 123456 2 IN IP4 127.0.0.1\\r\\n"}}
+                """;
+
+        // when
+        RelayEnvelope envelope = RelayEnvelope.tryParse(jsonFactory, json);
+
+        // then
+        assertThat(envelope).isNotNull();
+        assertThat(envelope.getType()).isEqualTo("offer");
+        assertThat(envelope.getRoomId()).isEqualTo("test-room");
+        assertThat(envelope.getTargetId()).isEqualTo("session-2");
+        assertThat(envelope.isIceCandidate()).isFalse();
+    }
+
+    @Test
+    @DisplayName("should insert senderId and keep the payload text untouched")
+    void withSender_shouldInsertSenderId() throws Exception {
+        // given
+        String payload = "{\"candidate\":\"candidate:1 1 udp 2122260223 10.0.0.1 54321 typ host\",\"sdpMLineIndex\":0}";
+        String json = "{\"type\":\"ice-candidate\",\"targetId\":\"session-2\",\"payload\":" + payload + "}";
+
+        // when
+        String forwarded = RelayEnvelope.tryParse(jsonFactory, json).withSender("session-1");
+
+        // then
+        assertThat(forwarded).contains(payload);
+        JsonNode node = objectMapper.readTree(forwarded);
+        assertThat(node.get("senderId").asText()).isEqualTo("session-1");
+        assertThat(node.get("type").asText()).isEqualTo("ice-candidate");
+    }
+
+    @Test
+    @DisplayName("should overwrite a senderId supplied by the client")
+    void withSender_shouldOverwriteSpoofedSenderId() throws Exception {
+        // given
+        String json = """
+                {"type":"answer", "senderId" : "spoofed", "targetId":"session-2","payload":{"sdp":"v=0"}}
+                """;
+
+        // when
+        String forwarded = RelayEnvelope.tryParse(jsonFactory, json).withSender("session-1");
+
+        // then
+        JsonNode node = objectMapper.readTree(forwarded);
+        assertThat(node.get("senderId").asText()).isEqualTo("session-1");
+        assertThat(forwarded).doesNotContain("spoofed");
+        assertThat(node.get("payload").get("sdp").asText()).isEqualTo("v=0");
+    }
+
+    @Test
+    @DisplayName("should copy the raw payload text")
+    void appendPayload_shouldCopyRawPayload() throws Exception {
+        // given
+        String payload = "{\"candidate\":\"candidate:1 1 udp 2122260223 10.0.0.1 54321 typ host\", \"sdpMLineIndex\":0}";
+        RelayEnvelope envelope = RelayEnvelope.tryParse(jsonFactory,
+                "{\"type\":\"ice-candidate\",\"payload\":" + payload + ",\"targetId\":\"session-2\"}");
+        RelayEnvelope withoutPayload = RelayEnvelope.tryParse(jsonFactory, "{\"type\":\"ice-candidate\"}");
+
+        // when
+        StringBuilder copied = new StringBuilder();
+        envelope.appendPayload(copied);
+        copied.append('|');
+        withoutPayload.appendPayload(copied);
+
+        // then
+        assertThat(copied).hasToString(payload + "|null");
+    }
+
+    @Test
+    @DisplayName("should leave non-relay frames to data binding")
+    void tryParse_nonRelayType_shouldReturnNull() throws Exception {
+        assertThat(RelayEnvelope.tryParse(jsonFactory, "{\"type\":\"join\",\"roomId\":\"r\"}")).isNull();
+        assertThat(RelayEnvelope.tryParse(jsonFactory, "{\"roomId\":\"r\"}")).isNull();
+        assertThat(RelayEnvelope.tryParse(jsonFactory, "{\"type\":{\"nested\":\"offer\"}}")).isNull();
+        assertThat(RelayEnvelope.tryParse(jsonFactory, "[\"offer\"]")).isNull();
+    }
+
+    @Test
+    @DisplayName("should reject malformed JSON")
+    void tryParse_malformedJson_shouldThrow() {
+        assertThatThrownBy(() -> RelayEnvelope.tryParse(jsonFactory, "{\"type\":\"offer\",\"payload\":{"))
+                .isInstanceOf(JsonParseException.class);
+    }
+
+    @Test
+    @DisplayName("should read the routing header of a CBOR frame")
+    void tryParse_shouldReadBinaryHeader() throws Exception {
+        // given
+        CBORMapper cborMapper = new CBORMapper();
+        byte[] frame = cborMapper.writeValueAsBytes(Map.of(
+                "type", "ice-candidate", "roomId", "test-room", "targetId", "session-2",
+                "payload", Map.of("candidate", "c1")));
+
+        // when
+        RelayEnvelope envelope = RelayEnvelope.tryParse(cborMapper.getFactory(), frame);
+
+        // then
+        assertThat(envelope).isNotNull();
+        assertThat(envelope.isBinary()).isTrue();
+        assertThat(envelope.isIceCandidate()).isTrue();
+        assertThat(envelope.getRoomId()).isEqualTo("test-room");
+        assertThat(envelope.getTargetId()).isEqualTo("session-2");
+    }
+}
@@ -0,0 +1,119 @@
+package com.ssafy.webrtc.handler;
+
+import com.ssafy.webrtc.metrics.SignalingMetrics;
+import com.ssafy.webrtc.service.RoomService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RelayGateTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000);
+    private RoomService roomService;
+
+    @BeforeEach
+    void setUp() {
+        roomService = new RoomService();
+        roomService.joinRoom("room-1", "alice");
+        roomService.joinRoom("room-1", "bob");
+        roomService.joinRoom("room-2", "bob");
+        roomService.joinRoom("room-2", "carol");
+    }
+
+    @Test
+    @DisplayName("should admit frames between members of the named room")
+    void check_shouldAdmitRoomMembers() {
+        // given
+        RelayGate gate = RelayGate.withoutQuota(roomService);
+
+        // when / then
+        assertThat(gate.check("alice", "room-1", "bob")).isNull();
+        assertThat(gate.check("carol", "room-2", "bob")).isNull();
+    }
+
+    @Test
+    @DisplayName("should refuse targets outside the named room, and senders outside it")
+    void check_shouldRefuseOtherRooms() {
+        // given
+        RelayGate gate = RelayGate.withoutQuota(roomService);
+
+        // when / then
+        assertThat(gate.check("alice", "room-2", "carol")).isEqualTo(SignalingMetrics.DROP_NOT_IN_ROOM);
+        assertThat(gate.check("alice", "room-1", "carol")).isEqualTo(SignalingMetrics.DROP_NOT_IN_ROOM);
+        assertThat(gate.check("alice", "room-2", "bob")).isEqualTo(SignalingMetrics.DROP_NOT_IN_ROOM);
+    }
+
+    @Test
+    @DisplayName("should refuse sessions that are in no room at all")
+    void check_shouldRefuseUnknownTargets() {
+        // given
+        RelayGate gate = RelayGate.withoutQuota(roomService);
+
+        // when / then
+        assertThat(gate.check("alice", "room-1", "mallory")).isEqualTo(SignalingMetrics.DROP_UNKNOWN_TARGET);
+        assertThat(gate.check("alice", null, "mallory")).isEqualTo(SignalingMetrics.DROP_UNKNOWN_TARGET);
+    }
+
+    @Test
+    @DisplayName("should look for any shared room when the frame names none")
+    void check_withoutRoom_shouldMatchAnySharedRoom() {
+        // given
+        RelayGate gate = RelayGate.withoutQuota(roomService);
+
+        // when / then
+        assertThat(gate.check("alice", null, "bob")).isNull();
+        assertThat(gate.check("carol", null, "bob")).isNull();
+        assertThat(gate.check("alice", null, "carol")).isEqualTo(SignalingMetrics.DROP_NOT_IN_ROOM);
+    }
+
+    @Test
+    @DisplayName("should allow a burst per sender, then refill at the configured rate")
+    void check_shouldLimitPerSession() {
+        // given - 10 frames per second, bursts of 2
+        RelayGate gate = new RelayGate(roomService, 10, 2, clock::get);
+
+        // when / then
+        assertThat(gate.check("alice", "room-1", "bob")).isNull();
+        assertThat(gate.check("alice", "room-1", "bob")).isNull();
+        assertThat(gate.check("alice", "room-1", "bob")).isEqualTo(SignalingMetrics.DROP_RATE_LIMITED);
+        assertThat(gate.check("bob", "room-1", "alice")).isNull();
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+        assertThat(gate.check("alice", "room-1", "bob")).isNull();
+        assertThat(gate.check("alice", "room-1", "bob")).isEqualTo(SignalingMetrics.DROP_RATE_LIMITED);
+    }
+
+    @Test
+    @DisplayName("should charge refused frames to the sender's quota too")
+    void check_shouldChargeRefusedFrames() {
+        // given
+        RelayGate gate = new RelayGate(roomService, 1, 2, clock::get);
+
+        // when
+        gate.check("alice", "room-1", "mallory");
+        gate.check("alice", "room-1", "mallory");
+
+        // then
+        assertThat(gate.check("alice", "room-1", "bob")).isEqualTo(SignalingMetrics.DROP_RATE_LIMITED);
+    }
+
+    @Test
+    @DisplayName("should drop the bucket of a forgotten session")
+    void forget_shouldDropBucket() {
+        // given
+        RelayGate gate = new RelayGate(roomService, 1, 1, clock::get);
+        gate.check("alice", "room-1", "bob");
+
+        // when
+        gate.forget("alice");
+
+        // then
+        assertThat(gate.trackedBuckets()).isZero();
+        assertThat(gate.check("alice", "room-1", "bob")).isNull();
+    }
+}
@@ -0,0 +1,140 @@
+package com.ssafy.webrtc.handler;
+
+import com.ssafy.webrtc.config.SignalingProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.PingMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.time.Duration;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class SessionHeartbeatTest {
+
+    private HashedWheelTimer timer;
+    private SessionRegistry sessionRegistry;
+    private OutboundDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        timer = new HashedWheelTimer(Executors.defaultThreadFactory(), Duration.ofMillis(5), 64);
+        dispatcher = new OutboundDispatcher(Runnable::run, new SignalingProperties.Outbound());
+        sessionRegistry = new SessionRegistry(dispatcher);
+    }
+
+    @AfterEach
+    void tearDown() {
+        timer.stop();
+    }
+
+    @Test
+    @DisplayName("should ping a connection that has been quiet for a ping interval")
+    void watch_shouldPingQuietConnection() throws Exception {
+        // given
+        SessionHeartbeat heartbeat = heartbeat(Duration.ofMillis(30), Duration.ofSeconds(10));
+        WebSocketSession connection = connection("session-1");
+
+        // when
+        heartbeat.watch(connection, idle -> { });
+
+        // then
+        verify(connection, timeout(2000).atLeastOnce()).sendMessage(any(PingMessage.class));
+        assertThat(heartbeat.getReapedCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("should not ping a connection that keeps sending")
+    void touch_shouldPostponePing() throws Exception {
+        // given
+        SessionHeartbeat heartbeat = heartbeat(Duration.ofMillis(100), Duration.ofSeconds(10));
+        WebSocketSession connection = connection("session-1");
+        heartbeat.watch(connection, idle -> { });
+
+        // when
+        for (int i = 0; i < 15; i++) {
+            heartbeat.touch(connection, System.nanoTime());
+            Thread.sleep(20);
+        }
+
+        // then
+        verify(connection, never()).sendMessage(any(PingMessage.class));
+    }
+
+    @Test
+    @DisplayName("should reap a connection that stays quiet past the idle timeout")
+    void watch_shouldReapIdleConnection() throws Exception {
+        // given
+        SessionHeartbeat heartbeat = heartbeat(Duration.ofMillis(20), Duration.ofMillis(60));
+        WebSocketSession connection = connection("session-1");
+        CountDownLatch reaped = new CountDownLatch(1);
+
+        // when
+        heartbeat.watch(connection, idle -> reaped.countDown());
+
+        // then
+        assertThat(reaped.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(heartbeat.getReapedCount()).isEqualTo(1);
+        assertThat(heartbeat.getWatchedCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("should close a reaped connection on the closer, not on the timer thread")
+    void watch_shouldCloseOnCloser() throws Exception {
+        // given
+        BlockingQueue<Runnable> closes = new LinkedBlockingQueue<>();
+        SessionHeartbeat heartbeat = new SessionHeartbeat(timer, sessionRegistry, dispatcher, closes::add,
+                Duration.ofMillis(20), Duration.ofMillis(60));
+        WebSocketSession connection = connection("session-1");
+        CountDownLatch reaped = new CountDownLatch(1);
+
+        // when
+        heartbeat.watch(connection, idle -> reaped.countDown());
+
+        // then
+        assertThat(reaped.await(5, TimeUnit.SECONDS)).isTrue();
+        Runnable close = closes.poll(5, TimeUnit.SECONDS);
+        assertThat(close).isNotNull();
+        verify(connection, never()).close(any());
+        close.run();
+        verify(connection).close(SessionHeartbeat.IDLE_TIMEOUT);
+    }
+
+    @Test
+    @DisplayName("should stop watching a connection once it is unwatched")
+    void unwatch_shouldCancel() throws Exception {
+        // given
+        SessionHeartbeat heartbeat = heartbeat(Duration.ofMillis(20), Duration.ofMillis(40));
+        WebSocketSession connection = connection("session-1");
+        CountDownLatch reaped = new CountDownLatch(1);
+        heartbeat.watch(connection, idle -> reaped.countDown());
+
+        // when
+        heartbeat.unwatch(connection);
+
+        // then
+        assertThat(reaped.await(200, TimeUnit.MILLISECONDS)).isFalse();
+        assertThat(timer.getPendingCount()).isZero();
+    }
+
+    private SessionHeartbeat heartbeat(Duration pingInterval, Duration idleTimeout) {
+        return new SessionHeartbeat(timer, sessionRegistry, dispatcher, Runnable::run, pingInterval, idleTimeout);
+    }
+
+    private WebSocketSession connection(String id) {
+        WebSocketSession connection = mock(WebSocketSession.class);
+        when(connection.getId()).thenReturn(id);
+        when(connection.isOpen()).thenReturn(true);
+        sessionRegistry.register(connection);
+        return connection;
+    }
+}
@@ -0,0 +1,79 @@
+package com.ssafy.webrtc.handler;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SessionResumptionTest {
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("should accept its own tokens and reject forged or foreign ones")
+    void verify_shouldCheckSignature() {
+        // given
+        SessionResumption resumption = resumption(Duration.ofSeconds(15), "secret");
+        SessionResumption otherNode = resumption(Duration.ofSeconds(15), "other-secret");
+        String token = resumption.issueToken("session-1");
+
+        // when & then
+        assertThat(resumption.verify(token)).isEqualTo("session-1");
+        assertThat(resumption.verify(token.replace("session-1", "session-2"))).isNull();
+        assertThat(resumption.verify(otherNode.issueToken("session-1"))).isNull();
+        assertThat(resumption.verify("session-1")).isNull();
+        assertThat(resumption.verify(null)).isNull();
+    }
+
+    @Test
+    @DisplayName("should release a parked session once its window expires")
+    void park_shouldExpire() throws Exception {
+        // given
+        SessionResumption resumption = resumption(Duration.ofMillis(20), "secret");
+        CountDownLatch released = new CountDownLatch(1);
+
+        // when
+        resumption.park("session-1", released::countDown);
+
+        // then
+        assertThat(released.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(resumption.unpark("session-1")).isFalse();
+        assertThat(resumption.getParkedCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("should not release a session that was resumed within its window")
+    void unpark_shouldCancelExpiry() throws Exception {
+        // given
+        SessionResumption resumption = resumption(Duration.ofMillis(50), "secret");
+        AtomicInteger released = new AtomicInteger();
+        resumption.park("session-1", released::incrementAndGet);
+
+        // when
+        boolean resumed = resumption.unpark("session-1");
+        Thread.sleep(150);
+
+        // then
+        assertThat(resumed).isTrue();
+        assertThat(released).hasValue(0);
+        assertThat(resumption.unpark("session-1")).isFalse();
+    }
+
+    private SessionResumption resumption(Duration window, String secret) {
+        return new SessionResumption(window, secret.getBytes(StandardCharsets.UTF_8), scheduler);
+    }
+}
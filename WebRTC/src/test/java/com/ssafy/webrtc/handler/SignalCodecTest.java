@@ -0,0 +1,138 @@
+package com.ssafy.webrtc.handler;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.ssafy.webrtc.dto.SignalMessage;
+import com.ssafy.webrtc.metrics.CompressionSampler;
+import com.ssafy.webrtc.metrics.SignalingMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SignalCodecTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final CBORMapper cborMapper = new CBORMapper();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final SignalCodec codec = new SignalCodec(objectMapper, new SignalingMetrics(registry),
+            new CompressionSampler(registry, 1, 0, Runnable::run));
+
+    @Test
+    @DisplayName("should convert a CBOR relay frame to JSON with the sender set")
+    void relayJson_shouldConvertBinaryFrame() throws Exception {
+        // given
+        byte[] frame = cborMapper.writeValueAsBytes(Map.of(
+                "type", "offer", "targetId", "session-2", "senderId", "spoofed",
+                "payload", Map.of("sdp", "v=0\r\no=- 1 2 IN IP4 127.0.0.1\r\n")));
+        RelayEnvelope envelope = RelayEnvelope.tryParse(codec.getCborFactory(), frame);
+
+        // when
+        String json = codec.relayJson(envelope, "session-1");
+
+        // then
+        JsonNode node = objectMapper.readTree(json);
+        assertThat(node.get("senderId").asText()).isEqualTo("session-1");
+        assertThat(node.get("type").asText()).isEqualTo("offer");
+        assertThat(node.at("/payload/sdp").asText()).isEqualTo("v=0\r\no=- 1 2 IN IP4 127.0.0.1\r\n");
+    }
+
+    @Test
+    @DisplayName("should convert a JSON relay frame to CBOR for binary targets")
+    void relayFrame_shouldEncodeCborForBinaryTarget() throws Exception {
+        // given
+        String json = "{\"type\":\"ice-candidate\",\"targetId\":\"session-2\",\"payload\":{\"candidate\":\"c1\",\"sdpMLineIndex\":0}}";
+        RelayEnvelope envelope = RelayEnvelope.tryParse(codec.getJsonFactory(), json);
+
+        // when
+        WebSocketMessage<?> frame = codec.relayFrame(envelope, "session-1", WireFormat.CBOR);
+
+        // then
+        assertThat(frame).isInstanceOf(BinaryMessage.class);
+        JsonNode node = cborMapper.readTree(bytes((BinaryMessage) frame));
+        assertThat(node.get("senderId").asText()).isEqualTo("session-1");
+        assertThat(node.at("/payload/candidate").asText()).isEqualTo("c1");
+        assertThat(node.at("/payload/sdpMLineIndex").asInt()).isZero();
+    }
+
+    @Test
+    @DisplayName("should keep the text splice when both ends speak JSON")
+    void relayFrame_shouldSpliceJsonForJsonTarget() throws Exception {
+        // given
+        String json = "{\"type\":\"answer\",\"targetId\":\"session-2\",\"payload\":{\"sdp\":\"v=0\"}}";
+        RelayEnvelope envelope = RelayEnvelope.tryParse(codec.getJsonFactory(), json);
+
+        // when
+        WebSocketMessage<?> frame = codec.relayFrame(envelope, "session-1", WireFormat.JSON);
+
+        // then
+        assertThat(frame).isInstanceOf(TextMessage.class);
+        assertThat(((TextMessage) frame).getPayload()).isEqualTo(envelope.withSender("session-1"));
+    }
+
+    @Test
+    @DisplayName("should write a relay rejection with nothing but type, reason and target")
+    void relayRejection_shouldBeCompact() throws Exception {
+        // when
+        WebSocketMessage<?> json = codec.relayRejection("not-in-room", "session-2", WireFormat.JSON);
+        WebSocketMessage<?> cbor = codec.relayRejection("not-in-room", "session-2", WireFormat.CBOR);
+
+        // then
+        assertThat(((TextMessage) json).getPayload())
+                .isEqualTo("{\"type\":\"relay-rejected\",\"reason\":\"not-in-room\",\"targetId\":\"session-2\"}");
+        assertThat(cborMapper.readTree(bytes((BinaryMessage) cbor)))
+                .isEqualTo(objectMapper.readTree(((TextMessage) json).getPayload()));
+    }
+
+    @Test
+    @DisplayName("should encode a shared frame once per format and hand out independent binary buffers")
+    void sharedFrame_shouldEncodeOncePerFormat() throws Exception {
+        // given
+        SharedFrame frame = codec.share(SignalMessage.builder().type("user-joined").roomId("room-1").senderId("session-1").build());
+
+        // when
+        WebSocketMessage<?> text1 = frame.forFormat(WireFormat.JSON);
+        WebSocketMessage<?> text2 = frame.forFormat(WireFormat.JSON);
+        BinaryMessage binary1 = (BinaryMessage) frame.forFormat(WireFormat.CBOR);
+        BinaryMessage binary2 = (BinaryMessage) frame.forFormat(WireFormat.CBOR);
+        binary1.getPayload().position(binary1.getPayloadLength());
+
+        // then
+        assertThat(text1).isSameAs(text2);
+        assertThat(binary2.getPayload().remaining()).isEqualTo(binary2.getPayloadLength());
+        SignalMessage decoded = codec.decode(bytes(binary2));
+        assertThat(decoded.getType()).isEqualTo("user-joined");
+        assertThat(decoded.getSenderId()).isEqualTo("session-1");
+    }
+
+    @Test
+    @DisplayName("should convert JSON forwarded by another node to CBOR")
+    void sharedFrame_shouldConvertForwardedJson() throws Exception {
+        // given
+        SharedFrame frame = codec.share("{\"type\":\"user-left\",\"roomId\":\"room-1\",\"senderId\":\"bob\"}");
+
+        // when
+        BinaryMessage binary = (BinaryMessage) frame.forFormat(WireFormat.CBOR);
+
+        // then
+        JsonNode node = cborMapper.readTree(bytes(binary));
+        assertThat(node.get("type").asText()).isEqualTo("user-left");
+        assertThat(node.get("senderId").asText()).isEqualTo("bob");
+        assertThat(bytes(binary).length).isLessThan(frame.json().length());
+    }
+
+    private static byte[] bytes(BinaryMessage message) {
+        ByteBuffer buffer = message.getPayload().duplicate();
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,167 @@
+package com.ssafy.webrtc.handler;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ssafy.webrtc.config.SignalingProperties;
+import com.ssafy.webrtc.metrics.CompressionSampler;
+import com.ssafy.webrtc.metrics.SignalingMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.concurrent.Executor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class SignalingDrainTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private SignalingProperties properties;
+    private ApplicationEventPublisher events;
+    private SessionRegistry sessionRegistry;
+    private SignalingHandler signalingHandler;
+
+    @BeforeEach
+    void setUp() {
+        properties = new SignalingProperties();
+        properties.getDrain().setReconnectDelay(Duration.ofMillis(500));
+        properties.getDrain().setReconnectJitter(Duration.ofMillis(1000));
+        properties.getDrain().setTimeout(Duration.ofMillis(200));
+        events = mock(ApplicationEventPublisher.class);
+        signalingHandler = mock(SignalingHandler.class);
+    }
+
+    @Test
+    @DisplayName("should send a jittered reconnect hint, then release and close every session as going away")
+    void drain_shouldHintAndClose() throws Exception {
+        // given
+        SignalingDrain drain = drain(Runnable::run);
+        WebSocketSession alice = session("alice");
+        WebSocketSession bob = session("bob");
+        drain.start();
+
+        // when
+        drain.stop();
+
+        // then
+        for (WebSocketSession session : new WebSocketSession[]{alice, bob}) {
+            ArgumentCaptor<WebSocketMessage<?>> sent = ArgumentCaptor.forClass(WebSocketMessage.class);
+            verify(session).sendMessage(sent.capture());
+            var hint = objectMapper.readTree(sent.getValue().getPayload().toString());
+            assertThat(hint.get("type").asText()).isEqualTo("reconnect");
+            assertThat(hint.get("payload").get("delayMs").asLong()).isBetween(500L, 1500L);
+            InOrder closing = inOrder(signalingHandler, session);
+            closing.verify(signalingHandler).release(session);
+            closing.verify(session).close(CloseStatus.GOING_AWAY);
+        }
+        assertThat(drain.isRunning()).isFalse();
+    }
+
+    @Test
+    @DisplayName("should mark the application as refusing traffic when the drain starts")
+    void drain_shouldFlipReadiness() {
+        // given
+        SignalingDrain drain = drain(Runnable::run);
+
+        // when
+        drain.drain();
+
+        // then
+        ArgumentCaptor<AvailabilityChangeEvent<?>> event = ArgumentCaptor.forClass(AvailabilityChangeEvent.class);
+        verify(events).publishEvent(event.capture());
+        assertThat(event.getValue().getState()).isEqualTo(ReadinessState.REFUSING_TRAFFIC);
+        assertThat(drain.isDraining()).isTrue();
+    }
+
+    @Test
+    @DisplayName("should refuse new handshakes with 503 once draining")
+    void beforeHandshake_shouldRefuseWhileDraining() {
+        // given
+        SignalingDrain drain = drain(Runnable::run);
+        ServerHttpResponse response = mock(ServerHttpResponse.class);
+        ServerHttpRequest request = mock(ServerHttpRequest.class);
+        WebSocketHandler handler = mock(WebSocketHandler.class);
+
+        // when
+        boolean before = drain.beforeHandshake(request, response, handler, new HashMap<>());
+        drain.drain();
+        boolean during = drain.beforeHandshake(request, response, handler, new HashMap<>());
+
+        // then
+        assertThat(before).isTrue();
+        assertThat(during).isFalse();
+        verify(response).setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    @Test
+    @DisplayName("should stop waiting for unsent frames after the drain timeout")
+    void drain_shouldBeBoundedByTimeout() throws Exception {
+        // given - a writer pool that never runs, so the hint stays queued
+        SignalingDrain drain = drain(task -> { });
+        WebSocketSession alice = session("alice");
+
+        // when
+        long started = System.nanoTime();
+        drain.drain();
+        long elapsedMillis = Duration.ofNanos(System.nanoTime() - started).toMillis();
+
+        // then
+        assertThat(elapsedMillis).isBetween(200L, 2000L);
+        verify(alice, never()).sendMessage(any());
+        verify(alice).close(CloseStatus.GOING_AWAY);
+    }
+
+    @Test
+    @DisplayName("should not wait for frames buffered for a parked session")
+    void drain_shouldIgnoreParkedSessions() throws Exception {
+        // given
+        properties.getDrain().setTimeout(Duration.ofSeconds(10));
+        SignalingDrain drain = drain(Runnable::run);
+        WebSocketSession alice = session("alice");
+        session("bob");
+        sessionRegistry.park("bob");
+        sessionRegistry.getOutboundQueue("bob").enqueue(new TextMessage("offer"), false);
+
+        // when
+        long started = System.nanoTime();
+        drain.drain();
+        long elapsedMillis = Duration.ofNanos(System.nanoTime() - started).toMillis();
+
+        // then
+        assertThat(elapsedMillis).isLessThan(2000L);
+        verify(alice).close(CloseStatus.GOING_AWAY);
+    }
+
+    private SignalingDrain drain(Executor writer) {
+        OutboundDispatcher dispatcher = new OutboundDispatcher(writer, new SignalingProperties.Outbound());
+        sessionRegistry = new SessionRegistry(dispatcher);
+        SignalCodec codec = new SignalCodec(objectMapper, new SignalingMetrics(new SimpleMeterRegistry()),
+                CompressionSampler.disabled());
+        return new SignalingDrain(sessionRegistry, signalingHandler, dispatcher, codec, events, properties);
+    }
+
+    private WebSocketSession session(String sessionId) {
+        WebSocketSession session = mock(WebSocketSession.class);
+        when(session.getId()).thenReturn(sessionId);
+        when(session.isOpen()).thenReturn(true);
+        sessionRegistry.register(session);
+        return session;
+    }
+}
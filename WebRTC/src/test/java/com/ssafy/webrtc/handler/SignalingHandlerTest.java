@@ -1,8 +1,15 @@
 package com.ssafy.webrtc.handler;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.ssafy.webrtc.cluster.InMemorySignalingBus;
+import com.ssafy.webrtc.cluster.SignalingCluster;
+import com.ssafy.webrtc.config.SignalingProperties;
 import com.ssafy.webrtc.dto.SignalMessage;
+import com.ssafy.webrtc.metrics.CompressionSampler;
+import com.ssafy.webrtc.metrics.SignalingMetrics;
 import com.ssafy.webrtc.service.RoomService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -10,14 +17,25 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.socket.BinaryMessage;
 import org.springframework.web.socket.CloseStatus;
 import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketSession;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -38,7 +56,15 @@ class SignalingHandlerTest {
     @BeforeEach
     void setUp() {
         objectMapper = new ObjectMapper();
-        signalingHandler = new SignalingHandler(objectMapper, roomService);
+        SessionRegistry sessionRegistry = new SessionRegistry(
+                new OutboundDispatcher(Runnable::run, new SignalingProperties.Outbound()));
+        SignalCodec codec = new SignalCodec(objectMapper, new SignalingMetrics(new SimpleMeterRegistry()),
+                CompressionSampler.disabled());
+        SignalingCluster cluster = new SignalingCluster(InMemorySignalingBus.standalone("node-1"), roomService,
+                sessionRegistry, codec);
+        signalingHandler = new SignalingHandler(codec, roomService, sessionRegistry, cluster, IceBatcher.disabled(),
+                JoinRateLimiter.unlimited(), RelayGate.withoutQuota(roomService), SessionResumption.disabled(),
+                SessionHeartbeat.disabled(), new SignalingMetrics(new SimpleMeterRegistry()));
     }
 
     @Test
@@ -82,6 +108,7 @@ class SignalingHandlerTest {
 
         when(roomService.getRoomParticipants("test-room"))
                 .thenReturn(Set.of("session-1", "session-2"));
+        when(roomService.joinRoom("test-room", "session-1")).thenReturn(true);
 
         SignalMessage joinMessage = SignalMessage.builder()
                 .type("join")
@@ -101,6 +128,7 @@ class SignalingHandlerTest {
     @DisplayName("should forward offer message to target user")
     void handleTextMessage_offerMessage_shouldForwardToTarget() throws Exception {
         // given
+        when(roomService.getSessionRooms(any())).thenReturn(Set.of("test-room"));
         when(session1.getId()).thenReturn("session-1");
         when(session2.getId()).thenReturn("session-2");
         when(session2.isOpen()).thenReturn(true);
@@ -133,6 +161,7 @@ class SignalingHandlerTest {
     @DisplayName("should forward answer message to target user")
     void handleTextMessage_answerMessage_shouldForwardToTarget() throws Exception {
         // given
+        when(roomService.getSessionRooms(any())).thenReturn(Set.of("test-room"));
         when(session1.getId()).thenReturn("session-1");
         when(session2.getId()).thenReturn("session-2");
         when(session2.isOpen()).thenReturn(true);
@@ -159,6 +188,7 @@ class SignalingHandlerTest {
     @DisplayName("should forward ICE candidate message to target user")
     void handleTextMessage_iceCandidateMessage_shouldForwardToTarget() throws Exception {
         // given
+        when(roomService.getSessionRooms(any())).thenReturn(Set.of("test-room"));
         when(session1.getId()).thenReturn("session-1");
         when(session2.getId()).thenReturn("session-2");
         when(session2.isOpen()).thenReturn(true);
@@ -213,6 +243,7 @@ class SignalingHandlerTest {
     @DisplayName("should not send message to closed session")
     void handleTextMessage_closedSession_shouldNotSendMessage() throws Exception {
         // given
+        when(roomService.getSessionRooms(any())).thenReturn(Set.of("test-room"));
         when(session1.getId()).thenReturn("session-1");
         when(session2.getId()).thenReturn("session-2");
         when(session2.isOpen()).thenReturn(false);
@@ -234,4 +265,485 @@ class SignalingHandlerTest {
         // then
         verify(session2, never()).sendMessage(any(TextMessage.class));
     }
+
+    @Test
+    @DisplayName("should serialize a broadcast once and share the frame between recipients")
+    void broadcast_shouldShareOneFrame() throws Exception {
+        // given
+        when(session1.getId()).thenReturn("session-1");
+        when(session2.getId()).thenReturn("session-2");
+        when(session1.isOpen()).thenReturn(true);
+        when(session2.isOpen()).thenReturn(true);
+
+        signalingHandler.afterConnectionEstablished(session1);
+        signalingHandler.afterConnectionEstablished(session2);
+
+        SignalMessage notification = SignalMessage.builder()
+                .type("user-joined")
+                .roomId("test-room")
+                .senderId("session-3")
+                .build();
+
+        // when
+        signalingHandler.broadcast(List.of("session-1", "session-2", "unknown"), notification);
+
+        // then
+        ArgumentCaptor<TextMessage> first = ArgumentCaptor.forClass(TextMessage.class);
+        ArgumentCaptor<TextMessage> second = ArgumentCaptor.forClass(TextMessage.class);
+        verify(session1).sendMessage(first.capture());
+        verify(session2).sendMessage(second.capture());
+        assertThat(first.getValue()).isSameAs(second.getValue());
+        assertThat(objectMapper.readValue(first.getValue().getPayload(), SignalMessage.class).getSenderId())
+                .isEqualTo("session-3");
+    }
+
+    @Test
+    @DisplayName("should batch candidates for a capable target and flush them before the next frame")
+    void handleTextMessage_iceCandidates_shouldBatchForCapableTarget() throws Exception {
+        // given
+        when(roomService.getSessionRooms(any())).thenReturn(Set.of("test-room"));
+        ScheduledExecutorService scheduler = mock(ScheduledExecutorService.class);
+        SessionRegistry sessionRegistry = new SessionRegistry(
+                new OutboundDispatcher(Runnable::run, new SignalingProperties.Outbound()));
+        SignalCodec codec = new SignalCodec(objectMapper, new SignalingMetrics(new SimpleMeterRegistry()),
+                CompressionSampler.disabled());
+        SignalingHandler handler = new SignalingHandler(codec, roomService, sessionRegistry,
+                new SignalingCluster(InMemorySignalingBus.standalone("node-1"), roomService, sessionRegistry, codec),
+                new IceBatcher(Duration.ofMillis(10), scheduler), JoinRateLimiter.unlimited(),
+                RelayGate.withoutQuota(roomService), SessionResumption.disabled(), SessionHeartbeat.disabled(),
+                new SignalingMetrics(new SimpleMeterRegistry()));
+        when(session1.getId()).thenReturn("session-1");
+        when(session2.getId()).thenReturn("session-2");
+        when(session1.isOpen()).thenReturn(true);
+        when(session2.isOpen()).thenReturn(true);
+        when(roomService.joinRoom(any(), any())).thenReturn(true);
+        handler.afterConnectionEstablished(session1);
+        handler.afterConnectionEstablished(session2);
+        handler.handleTextMessage(session2,
+                new TextMessage("{\"type\":\"join\",\"roomId\":\"test-room\",\"capabilities\":[\"ice-batch\"]}"));
+        handler.handleTextMessage(session1, new TextMessage("{\"type\":\"join\",\"roomId\":\"test-room\"}"));
+
+        // when
+        handler.handleTextMessage(session1, new TextMessage(
+                "{\"type\":\"ice-candidate\",\"roomId\":\"test-room\",\"targetId\":\"session-2\",\"payload\":{\"candidate\":\"c1\"}}"));
+        handler.handleTextMessage(session1, new TextMessage(
+                "{\"type\":\"ice-candidate\",\"roomId\":\"test-room\",\"targetId\":\"session-2\",\"payload\":{\"candidate\":\"c2\"}}"));
+        handler.handleTextMessage(session2, new TextMessage(
+                "{\"type\":\"ice-candidate\",\"roomId\":\"test-room\",\"targetId\":\"session-1\",\"payload\":{\"candidate\":\"c3\"}}"));
+        handler.handleTextMessage(session1, new TextMessage(
+                "{\"type\":\"offer\",\"roomId\":\"test-room\",\"targetId\":\"session-2\",\"payload\":{\"sdp\":\"v=0\"}}"));
+
+        // then - session-2 gets one batch ahead of the offer, session-1 (no capability) a plain frame
+        ArgumentCaptor<TextMessage> toSession2 = ArgumentCaptor.forClass(TextMessage.class);
+        verify(session2, atLeastOnce()).sendMessage(toSession2.capture());
+        assertThat(toSession2.getAllValues()).extracting(TextMessage::getPayload)
+                .filteredOn(payload -> !payload.contains("room-info"))
+                .satisfiesExactly(
+                        batch -> assertThat(batch).startsWith("{\"type\":\"ice-candidates\"")
+                                .contains("[{\"candidate\":\"c1\"},{\"candidate\":\"c2\"}]"),
+                        offer -> assertThat(offer).contains("\"type\":\"offer\""));
+        ArgumentCaptor<TextMessage> toSession1 = ArgumentCaptor.forClass(TextMessage.class);
+        verify(session1, atLeastOnce()).sendMessage(toSession1.capture());
+        assertThat(toSession1.getAllValues()).extracting(TextMessage::getPayload)
+                .anySatisfy(payload -> assertThat(payload).contains("\"type\":\"ice-candidate\"").contains("c3"));
+    }
+
+    @Test
+    @DisplayName("should translate relayed frames between a CBOR peer and a JSON peer")
+    void relay_shouldTranslateBetweenCborAndJsonPeers() throws Exception {
+        // given
+        when(roomService.getSessionRooms(any())).thenReturn(Set.of("test-room"));
+        CBORMapper cborMapper = new CBORMapper();
+        when(session1.getId()).thenReturn("session-1");
+        when(session2.getId()).thenReturn("session-2");
+        when(session1.getAcceptedProtocol()).thenReturn(WireFormat.CBOR.getSubprotocol());
+        when(session1.isOpen()).thenReturn(true);
+        when(session2.isOpen()).thenReturn(true);
+        signalingHandler.afterConnectionEstablished(session1);
+        signalingHandler.afterConnectionEstablished(session2);
+
+        // when
+        signalingHandler.handleBinaryMessage(session1, new BinaryMessage(cborMapper.writeValueAsBytes(Map.of(
+                "type", "offer", "roomId", "test-room", "targetId", "session-2", "payload", Map.of("sdp", "v=0")))));
+        signalingHandler.handleTextMessage(session2, new TextMessage(
+                "{\"type\":\"answer\",\"roomId\":\"test-room\",\"targetId\":\"session-1\",\"payload\":{\"sdp\":\"v=1\"}}"));
+
+        // then
+        ArgumentCaptor<TextMessage> toJsonPeer = ArgumentCaptor.forClass(TextMessage.class);
+        verify(session2).sendMessage(toJsonPeer.capture());
+        SignalMessage offer = objectMapper.readValue(toJsonPeer.getValue().getPayload(), SignalMessage.class);
+        assertThat(offer.getType()).isEqualTo("offer");
+        assertThat(offer.getSenderId()).isEqualTo("session-1");
+
+        ArgumentCaptor<BinaryMessage> toCborPeer = ArgumentCaptor.forClass(BinaryMessage.class);
+        verify(session1).sendMessage(toCborPeer.capture());
+        SignalMessage answer = cborMapper.readValue(toCborPeer.getValue().getPayload().array(), SignalMessage.class);
+        assertThat(answer.getType()).isEqualTo("answer");
+        assertThat(answer.getSenderId()).isEqualTo("session-2");
+    }
+
+    @Test
+    @DisplayName("should reply room-full and notify nobody when the room is at capacity")
+    void handleTextMessage_join_shouldRejectWhenRoomFull() throws Exception {
+        // given
+        when(session1.getId()).thenReturn("session-1");
+        when(session1.isOpen()).thenReturn(true);
+        signalingHandler.afterConnectionEstablished(session1);
+        when(roomService.getRoomParticipants("test-room")).thenReturn(Set.of("session-2"));
+        when(roomService.joinRoom("test-room", "session-1")).thenReturn(false);
+
+        // when
+        signalingHandler.handleTextMessage(session1, new TextMessage("{\"type\":\"join\",\"roomId\":\"test-room\"}"));
+
+        // then
+        ArgumentCaptor<TextMessage> reply = ArgumentCaptor.forClass(TextMessage.class);
+        verify(session1).sendMessage(reply.capture());
+        SignalMessage message = objectMapper.readValue(reply.getValue().getPayload(), SignalMessage.class);
+        assertThat(message.getType()).isEqualTo("room-full");
+        assertThat(message.getRoomId()).isEqualTo("test-room");
+        verify(session2, never()).sendMessage(any());
+    }
+
+    @Test
+    @DisplayName("should reply rate-limited without touching the room once the room's bucket is empty")
+    void handleTextMessage_join_shouldRejectWhenRateLimited() throws Exception {
+        // given - one join per second per room, no burst
+        SessionRegistry sessionRegistry = new SessionRegistry(
+                new OutboundDispatcher(Runnable::run, new SignalingProperties.Outbound()));
+        SignalCodec codec = new SignalCodec(objectMapper, new SignalingMetrics(new SimpleMeterRegistry()),
+                CompressionSampler.disabled());
+        SignalingHandler handler = new SignalingHandler(codec, roomService, sessionRegistry,
+                new SignalingCluster(InMemorySignalingBus.standalone("node-1"), roomService, sessionRegistry, codec),
+                IceBatcher.disabled(), new JoinRateLimiter(0, 0, 1, 1), RelayGate.withoutQuota(roomService),
+                SessionResumption.disabled(), SessionHeartbeat.disabled(),
+                new SignalingMetrics(new SimpleMeterRegistry()));
+        when(session1.getId()).thenReturn("session-1");
+        when(session2.getId()).thenReturn("session-2");
+        when(session2.isOpen()).thenReturn(true);
+        when(roomService.joinRoom("test-room", "session-1")).thenReturn(true);
+        handler.afterConnectionEstablished(session1);
+        handler.afterConnectionEstablished(session2);
+        handler.handleTextMessage(session1, new TextMessage("{\"type\":\"join\",\"roomId\":\"test-room\"}"));
+
+        // when
+        handler.handleTextMessage(session2, new TextMessage("{\"type\":\"join\",\"roomId\":\"test-room\"}"));
+
+        // then
+        ArgumentCaptor<TextMessage> reply = ArgumentCaptor.forClass(TextMessage.class);
+        verify(session2).sendMessage(reply.capture());
+        assertThat(reply.getValue().getPayload()).contains("\"type\":\"rate-limited\"");
+        verify(roomService, never()).joinRoom("test-room", "session-2");
+    }
+
+    @Test
+    @DisplayName("should refuse a frame to a session outside the sender's room before serializing it")
+    void relay_shouldRejectTargetOutsideRoom() throws Exception {
+        // given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        SessionRegistry sessionRegistry = new SessionRegistry(
+                new OutboundDispatcher(Runnable::run, new SignalingProperties.Outbound()));
+        SignalCodec codec = new SignalCodec(objectMapper, new SignalingMetrics(registry),
+                CompressionSampler.disabled());
+        SignalingHandler handler = new SignalingHandler(codec, roomService, sessionRegistry,
+                new SignalingCluster(InMemorySignalingBus.standalone("node-1"), roomService, sessionRegistry, codec),
+                IceBatcher.disabled(), JoinRateLimiter.unlimited(), RelayGate.withoutQuota(roomService),
+                SessionResumption.disabled(), SessionHeartbeat.disabled(),
+                new SignalingMetrics(registry));
+        when(session1.getId()).thenReturn("session-1");
+        when(session2.getId()).thenReturn("session-2");
+        when(session1.isOpen()).thenReturn(true);
+        when(roomService.getSessionRooms("session-1")).thenReturn(Set.of("test-room"));
+        when(roomService.getSessionRooms("session-2")).thenReturn(Set.of("other-room"));
+        handler.afterConnectionEstablished(session1);
+        handler.afterConnectionEstablished(session2);
+
+        // when
+        handler.handleTextMessage(session1, new TextMessage(
+                "{\"type\":\"offer\",\"roomId\":\"test-room\",\"targetId\":\"session-2\",\"payload\":{\"sdp\":\"v=0\"}}"));
+        handler.handleTextMessage(session1, new TextMessage(
+                "{\"type\":\"ice-candidate\",\"targetId\":\"nobody\",\"payload\":{\"candidate\":\"c1\"}}"));
+
+        // then
+        verify(session2, never()).sendMessage(any());
+        ArgumentCaptor<TextMessage> replies = ArgumentCaptor.forClass(TextMessage.class);
+        verify(session1, times(2)).sendMessage(replies.capture());
+        assertThat(replies.getAllValues()).extracting(TextMessage::getPayload).containsExactly(
+                "{\"type\":\"relay-rejected\",\"reason\":\"not-in-room\",\"targetId\":\"session-2\"}",
+                "{\"type\":\"relay-rejected\",\"reason\":\"unknown-target\",\"targetId\":\"nobody\"}");
+        assertThat(registry.get("signaling.messages.dropped").tag("reason", "not-in-room").counter().count())
+                .isEqualTo(1);
+        assertThat(registry.get("signaling.messages.dropped").tag("reason", "unknown-target").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("should keep a dropped session in its rooms and replay what it missed on resume")
+    void resume_shouldKeepIdentityAndReplay() throws Exception {
+        // given
+        ScheduledExecutorService scheduler = mock(ScheduledExecutorService.class);
+        RoomService rooms = new RoomService();
+        SignalingHandler handler = resumableHandler(rooms, scheduler);
+        WebSocketSession session3 = mock(WebSocketSession.class);
+        when(session1.getId()).thenReturn("session-1");
+        when(session2.getId()).thenReturn("session-2");
+        when(session3.getId()).thenReturn("session-3");
+        when(session1.isOpen()).thenReturn(true);
+        when(session2.isOpen()).thenReturn(true);
+        when(session3.isOpen()).thenReturn(true);
+        handler.afterConnectionEstablished(session1);
+        handler.afterConnectionEstablished(session2);
+        handler.handleTextMessage(session1, new TextMessage("{\"type\":\"join\",\"roomId\":\"test-room\"}"));
+        handler.handleTextMessage(session2, new TextMessage("{\"type\":\"join\",\"roomId\":\"test-room\"}"));
+        String token = resumeToken(session1);
+
+        // when - session-1 drops, misses an offer, and comes back on a new connection
+        handler.afterConnectionClosed(session1, CloseStatus.GOING_AWAY);
+        handler.handleTextMessage(session2, new TextMessage(
+                "{\"type\":\"offer\",\"roomId\":\"test-room\",\"targetId\":\"session-1\",\"payload\":{\"sdp\":\"v=0\"}}"));
+        handler.afterConnectionEstablished(session3);
+        handler.handleTextMessage(session3, new TextMessage("{\"type\":\"resume\",\"resumeToken\":\"" + token + "\"}"));
+        handler.handleTextMessage(session3, new TextMessage(
+                "{\"type\":\"answer\",\"roomId\":\"test-room\",\"targetId\":\"session-2\",\"payload\":{\"sdp\":\"v=0\"}}"));
+
+        // then
+        assertThat(rooms.getRoomParticipants("test-room")).containsExactlyInAnyOrder("session-1", "session-2");
+        ArgumentCaptor<TextMessage> toSession3 = ArgumentCaptor.forClass(TextMessage.class);
+        verify(session3, times(2)).sendMessage(toSession3.capture());
+        assertThat(toSession3.getAllValues()).extracting(TextMessage::getPayload).satisfiesExactly(
+                resumed -> assertThat(resumed).contains("\"type\":\"resumed\"", "\"senderId\":\"session-1\""),
+                offer -> assertThat(offer).contains("\"type\":\"offer\"", "\"senderId\":\"session-2\""));
+        verify(session2).sendMessage(argThat(message ->
+                message.getPayload().toString().contains("\"senderId\":\"session-1\"")
+                        && message.getPayload().toString().contains("\"type\":\"answer\"")));
+        assertThat(handler.getSessions()).containsEntry("session-1", session3).doesNotContainKey("session-3");
+    }
+
+    @Test
+    @DisplayName("should refuse a forged token and release the session when its window expires")
+    void resume_shouldRefuseForgedTokenAndExpire() throws Exception {
+        // given
+        ScheduledExecutorService scheduler = mock(ScheduledExecutorService.class);
+        RoomService rooms = new RoomService();
+        SignalingHandler handler = resumableHandler(rooms, scheduler);
+        when(session1.getId()).thenReturn("session-1");
+        when(session2.getId()).thenReturn("session-2");
+        when(session1.isOpen()).thenReturn(true);
+        when(session2.isOpen()).thenReturn(true);
+        handler.afterConnectionEstablished(session1);
+        handler.handleTextMessage(session1, new TextMessage("{\"type\":\"join\",\"roomId\":\"test-room\"}"));
+        handler.afterConnectionClosed(session1, CloseStatus.GOING_AWAY);
+        handler.afterConnectionEstablished(session2);
+
+        // when
+        handler.handleTextMessage(session2, new TextMessage(
+                "{\"type\":\"resume\",\"resumeToken\":\"session-1.Zm9yZ2Vk\"}"));
+        ArgumentCaptor<Runnable> expiry = ArgumentCaptor.forClass(Runnable.class);
+        verify(scheduler).schedule(expiry.capture(), eq(15_000L), eq(TimeUnit.MILLISECONDS));
+        assertThat(rooms.getRoomParticipants("test-room")).containsExactly("session-1");
+        expiry.getValue().run();
+
+        // then
+        verify(session2).sendMessage(argThat(message ->
+                message.getPayload().toString().contains("\"type\":\"resume-failed\"")));
+        assertThat(rooms.getRoomParticipants("test-room")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("should refuse a resume on a connection that already joined a room, leaving no ghost behind")
+    void resume_shouldRefuseConnectionInRooms() throws Exception {
+        // given
+        ScheduledExecutorService scheduler = mock(ScheduledExecutorService.class);
+        RoomService rooms = new RoomService();
+        SignalingHandler handler = resumableHandler(rooms, scheduler);
+        when(session1.getId()).thenReturn("session-1");
+        when(session2.getId()).thenReturn("session-2");
+        when(session1.isOpen()).thenReturn(true);
+        when(session2.isOpen()).thenReturn(true);
+        handler.afterConnectionEstablished(session1);
+        handler.handleTextMessage(session1, new TextMessage("{\"type\":\"join\",\"roomId\":\"test-room\"}"));
+        String token = resumeToken(session1);
+        handler.afterConnectionClosed(session1, CloseStatus.GOING_AWAY);
+        handler.afterConnectionEstablished(session2);
+        handler.handleTextMessage(session2, new TextMessage("{\"type\":\"join\",\"roomId\":\"other-room\"}"));
+
+        // when
+        handler.handleTextMessage(session2, new TextMessage("{\"type\":\"resume\",\"resumeToken\":\"" + token + "\"}"));
+        handler.afterConnectionClosed(session2, CloseStatus.NORMAL);
+
+        // then
+        verify(session2).sendMessage(argThat(message ->
+                message.getPayload().toString().contains("\"type\":\"resume-failed\"")));
+        assertThat(rooms.getRoomParticipants("other-room")).isEmpty();
+        assertThat(rooms.getRoomParticipants("test-room")).containsExactly("session-1");
+        assertThat(handler.getSessions()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("should park sessions restored from the journal and let them resume on a new connection")
+    void restore_shouldLetRecoveredSessionsResume() throws Exception {
+        // given - the node restarted; session-1 and session-2 were in test-room before
+        ScheduledExecutorService scheduler = mock(ScheduledExecutorService.class);
+        RoomService rooms = new RoomService();
+        SignalingHandler handler = resumableHandler(rooms, scheduler);
+        handler.restore(Map.of("test-room", Set.of("session-1", "session-2")));
+        String token = new SessionResumption(Duration.ofSeconds(15), "secret".getBytes(), null).issueToken("session-1");
+        WebSocketSession session3 = mock(WebSocketSession.class);
+        when(session3.getId()).thenReturn("session-3");
+        when(session3.isOpen()).thenReturn(true);
+        handler.afterConnectionEstablished(session3);
+
+        // when
+        handler.handleTextMessage(session3, new TextMessage("{\"type\":\"resume\",\"resumeToken\":\"" + token + "\"}"));
+
+        // then
+        verify(scheduler, times(2)).schedule(any(Runnable.class), eq(15_000L), eq(TimeUnit.MILLISECONDS));
+        verify(session3).sendMessage(argThat(message ->
+                message.getPayload().toString().contains("\"type\":\"resumed\"")
+                        && message.getPayload().toString().contains("\"senderId\":\"session-1\"")));
+        assertThat(handler.getSessions()).containsEntry("session-1", session3).doesNotContainKey("session-3");
+        assertThat(rooms.getRoomParticipants("test-room")).containsExactlyInAnyOrder("session-1", "session-2");
+    }
+
+    @Test
+    @DisplayName("should release right away on a normal close")
+    void afterConnectionClosed_normal_shouldNotPark() throws Exception {
+        // given
+        ScheduledExecutorService scheduler = mock(ScheduledExecutorService.class);
+        RoomService rooms = new RoomService();
+        SignalingHandler handler = resumableHandler(rooms, scheduler);
+        when(session1.getId()).thenReturn("session-1");
+        when(session1.isOpen()).thenReturn(true);
+        handler.afterConnectionEstablished(session1);
+        handler.handleTextMessage(session1, new TextMessage("{\"type\":\"join\",\"roomId\":\"test-room\"}"));
+
+        // when
+        handler.afterConnectionClosed(session1, CloseStatus.NORMAL);
+
+        // then
+        assertThat(rooms.getRoomParticipants("test-room")).isEmpty();
+        verifyNoInteractions(scheduler);
+    }
+
+    @Test
+    @DisplayName("should not park a session released before its connection closes")
+    void release_shouldLeaveRoomsForGood() throws Exception {
+        // given
+        ScheduledExecutorService scheduler = mock(ScheduledExecutorService.class);
+        RoomService rooms = new RoomService();
+        SignalingHandler handler = resumableHandler(rooms, scheduler);
+        when(session1.getId()).thenReturn("session-1");
+        when(session1.isOpen()).thenReturn(true);
+        handler.afterConnectionEstablished(session1);
+        handler.handleTextMessage(session1, new TextMessage("{\"type\":\"join\",\"roomId\":\"test-room\"}"));
+
+        // when - a drain releases the session, then the container reports the going-away close
+        handler.release(session1);
+        handler.afterConnectionClosed(session1, CloseStatus.GOING_AWAY);
+
+        // then
+        assertThat(rooms.getRoomParticipants("test-room")).isEmpty();
+        assertThat(handler.getSessions()).isEmpty();
+        verifyNoInteractions(scheduler);
+    }
+
+    @Test
+    @DisplayName("should handle a connection closed from two threads at once exactly once")
+    void afterConnectionClosed_shouldRunOnce() throws Exception {
+        for (int attempt = 0; attempt < 200; attempt++) {
+            // given - the reaper and the container report the same close
+            ScheduledExecutorService scheduler = mock(ScheduledExecutorService.class);
+            RoomService rooms = new RoomService();
+            SignalingHandler handler = resumableHandler(rooms, scheduler);
+            WebSocketSession connection = mock(WebSocketSession.class);
+            when(connection.getId()).thenReturn("session-1");
+            when(connection.isOpen()).thenReturn(true);
+            handler.afterConnectionEstablished(connection);
+            handler.handleTextMessage(connection, new TextMessage("{\"type\":\"join\",\"roomId\":\"test-room\"}"));
+            CyclicBarrier barrier = new CyclicBarrier(2);
+            Runnable close = () -> {
+                try {
+                    barrier.await();
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+                handler.afterConnectionClosed(connection, CloseStatus.GOING_AWAY);
+            };
+
+            // when
+            CompletableFuture<Void> reaper = CompletableFuture.runAsync(close);
+            close.run();
+            reaper.get(5, TimeUnit.SECONDS);
+
+            // then - parked once, not parked by one and released by the other
+            assertThat(rooms.getRoomParticipants("test-room")).containsExactly("session-1");
+            verify(scheduler, times(1)).schedule(any(Runnable.class), anyLong(), any());
+        }
+    }
+
+    private SignalingHandler resumableHandler(RoomService rooms, ScheduledExecutorService scheduler) {
+        SessionRegistry sessionRegistry = new SessionRegistry(
+                new OutboundDispatcher(Runnable::run, new SignalingProperties.Outbound()));
+        SignalCodec codec = new SignalCodec(objectMapper, new SignalingMetrics(new SimpleMeterRegistry()),
+                CompressionSampler.disabled());
+        return new SignalingHandler(codec, rooms, sessionRegistry,
+                new SignalingCluster(InMemorySignalingBus.standalone("node-1"), rooms, sessionRegistry, codec),
+                IceBatcher.disabled(), JoinRateLimiter.unlimited(), RelayGate.withoutQuota(rooms),
+                new SessionResumption(Duration.ofSeconds(15), "secret".getBytes(), scheduler),
+                SessionHeartbeat.disabled(),
+                new SignalingMetrics(new SimpleMeterRegistry()));
+    }
+
+    private String resumeToken(WebSocketSession session) throws Exception {
+        ArgumentCaptor<TextMessage> sent = ArgumentCaptor.forClass(TextMessage.class);
+        verify(session, atLeastOnce()).sendMessage(sent.capture());
+        return sent.getAllValues().stream()
+                .map(message -> readMessage(message.getPayload()))
+                .filter(message -> "room-info".equals(message.getType()))
+                .findFirst()
+                .orElseThrow()
+                .getResumeToken();
+    }
+
+    private SignalMessage readMessage(String json) {
+        try {
+            return objectMapper.readValue(json, SignalMessage.class);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Test
+    @DisplayName("should clean up a connection that stops answering pings")
+    void heartbeat_shouldReapIdleConnection() throws Exception {
+        // given
+        HashedWheelTimer timer = new HashedWheelTimer(java.util.concurrent.Executors.defaultThreadFactory(),
+                Duration.ofMillis(5), 64);
+        RoomService rooms = new RoomService();
+        OutboundDispatcher dispatcher = new OutboundDispatcher(Runnable::run, new SignalingProperties.Outbound());
+        SessionRegistry sessionRegistry = new SessionRegistry(dispatcher);
+        SignalCodec codec = new SignalCodec(objectMapper, new SignalingMetrics(new SimpleMeterRegistry()),
+                CompressionSampler.disabled());
+        SignalingHandler handler = new SignalingHandler(codec, rooms, sessionRegistry,
+                new SignalingCluster(InMemorySignalingBus.standalone("node-1"), rooms, sessionRegistry, codec),
+                IceBatcher.disabled(), JoinRateLimiter.unlimited(), RelayGate.withoutQuota(roomService),
+                SessionResumption.disabled(),
+                new SessionHeartbeat(timer, sessionRegistry, dispatcher, Runnable::run, Duration.ofMillis(20),
+                        Duration.ofMillis(60)),
+                new SignalingMetrics(new SimpleMeterRegistry()));
+        when(session1.getId()).thenReturn("session-1");
+        when(session1.isOpen()).thenReturn(true);
+
+        try {
+            // when - joins, then never sends a frame or a pong again
+            handler.afterConnectionEstablished(session1);
+            handler.handleTextMessage(session1, new TextMessage("{\"type\":\"join\",\"roomId\":\"test-room\"}"));
+
+            // then
+            verify(session1, timeout(2000)).close(SessionHeartbeat.IDLE_TIMEOUT);
+            assertThat(rooms.getRoomParticipants("test-room")).isEmpty();
+            assertThat(handler.getSessions()).isEmpty();
+        } finally {
+            timer.stop();
+        }
+    }
 }
@@ -0,0 +1,100 @@
+package com.ssafy.webrtc.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompressionSamplerTest {
+
+    private static final String SDP = "{\"type\":\"offer\",\"payload\":{\"sdp\":\""
+            + "a=rtpmap:111 opus/48000/2\\r\\na=rtcp-fb:111 transport-cc\\r\\n".repeat(20) + "\"}}";
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final List<Runnable> sampled = new ArrayList<>();
+
+    @Test
+    @DisplayName("should deflate one frame in N per type and record its ratio, size and cost")
+    void sample_shouldRecordEveryNthFramePerType() {
+        // given
+        CompressionSampler sampler = new CompressionSampler(registry, 2, 0, Runnable::run);
+
+        // when
+        sampler.sample("offer", SDP);
+        sampler.sample("offer", SDP);
+        sampler.sample("offer", SDP);
+        sampler.sample("ice-candidate", "{\"type\":\"ice-candidate\"}");
+        sampler.sample("bogus", SDP);
+
+        // then
+        assertThat(registry.get("signaling.compression.ratio").tag("type", "offer").summary().count()).isEqualTo(1);
+        assertThat(registry.get("signaling.compression.ratio").tag("type", "offer").summary().max()).isLessThan(0.5);
+        assertThat(registry.get("signaling.compression.frame.size").tag("type", "offer").summary().totalAmount())
+                .isEqualTo(SDP.length());
+        assertThat(registry.get("signaling.compression.cost").tag("type", "offer").timer().count()).isEqualTo(1);
+        assertThat(registry.get("signaling.compression.ratio").tag("type", "ice-candidate").summary().count()).isZero();
+    }
+
+    @Test
+    @DisplayName("should record sizes on the sending thread and leave the deflate to the sampler thread")
+    void sample_shouldDeflateOnSamplerThread() {
+        // given
+        CompressionSampler sampler = new CompressionSampler(registry, 1, 0, sampled::add);
+
+        // when
+        sampler.sample("offer", SDP);
+
+        // then
+        assertThat(registry.get("signaling.compression.frame.size").tag("type", "offer").summary().count())
+                .isEqualTo(1);
+        assertThat(registry.get("signaling.compression.ratio").tag("type", "offer").summary().count()).isZero();
+        assertThat(sampled).hasSize(1);
+
+        sampled.get(0).run();
+        assertThat(registry.get("signaling.compression.ratio").tag("type", "offer").summary().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("should not deflate frames below the minimum size")
+    void sample_shouldSkipSmallFrames() {
+        // given
+        CompressionSampler sampler = new CompressionSampler(registry, 1, 512, sampled::add);
+        String candidate = "{\"type\":\"ice-candidate\","
+                + "\"payload\":{\"candidate\":\"candidate:1 1 udp 1 10.0.0.1 5000 typ host\"}}";
+
+        // when
+        sampler.sample("ice-candidate", candidate);
+        sampler.sample("offer", SDP);
+
+        // then
+        assertThat(registry.get("signaling.compression.frame.size").tag("type", "ice-candidate").summary().count())
+                .isEqualTo(1);
+        assertThat(sampled).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("should register nothing when disabled")
+    void disabled_shouldRecordNothing() {
+        // when
+        CompressionSampler.disabled().sample("offer", SDP);
+
+        // then
+        assertThat(registry.find("signaling.compression.ratio").meters()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("should measure raw deflate output of highly repetitive text well below its size")
+    void deflatedSize_shouldShrinkRepetitiveText() {
+        // when
+        CompressionSampler sampler = new CompressionSampler(registry, 1, 0, Runnable::run);
+        int size = sampler.deflatedSize(SDP.getBytes());
+
+        // then - the reused Deflater starts every frame from the same state
+        assertThat(size).isPositive().isLessThan(SDP.length() / 4);
+        assertThat(sampler.deflatedSize(SDP.getBytes())).isEqualTo(size);
+    }
+}
@@ -0,0 +1,96 @@
+package com.ssafy.webrtc.metrics;
+
+import com.ssafy.webrtc.config.SignalingProperties;
+import com.ssafy.webrtc.handler.OutboundDispatcher;
+import com.ssafy.webrtc.handler.SessionHeartbeat;
+import com.ssafy.webrtc.handler.SessionRegistry;
+import com.ssafy.webrtc.handler.SessionResumption;
+import com.ssafy.webrtc.service.RoomJournal;
+import com.ssafy.webrtc.service.RoomService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SignalingGaugesTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private RoomService roomService;
+    private RoomSizeDistribution roomSizes;
+
+    @BeforeEach
+    void setUp() {
+        roomService = new RoomService();
+        roomSizes = new RoomSizeDistribution();
+        roomService.addListener(roomSizes);
+    }
+
+    @Test
+    @DisplayName("should report active rooms")
+    void roomsActive_shouldFollowRoomService() {
+        // given
+        bind();
+
+        // when
+        roomService.joinRoom("room-1", "session-1");
+        roomService.joinRoom("room-2", "session-2");
+
+        // then
+        assertThat(registry.get("signaling.rooms.active").gauge().value()).isEqualTo(2);
+        assertThat(registry.get("signaling.sessions.active").gauge().value()).isZero();
+    }
+
+    @Test
+    @DisplayName("should keep the room-size distribution current as rooms grow and shrink")
+    void roomSize_shouldMoveRoomsBetweenBuckets() {
+        // given
+        bind();
+        roomService.joinRoom("solo", "session-1");
+        for (int i = 0; i < 3; i++) {
+            roomService.joinRoom("group", "member-" + i);
+        }
+        roomService.joinRoom("gone", "session-2");
+
+        // when
+        roomService.leaveRoom("gone", "session-2");
+        roomService.leaveRoom("group", "member-0");
+
+        // then
+        assertThat(roomsOfSize("1")).isEqualTo(1);
+        assertThat(roomsOfSize("2")).isEqualTo(1);
+        assertThat(roomsOfSize("3-4")).isZero();
+        assertThat(roomsOfSize("33+")).isZero();
+    }
+
+    @Test
+    @DisplayName("should count rooms restored before the meters were bound, and not go negative once they expire")
+    void roomSize_shouldCountRestoredRooms() {
+        // given - restored from the journal while beans are created, before meter binders run
+        roomService.applyJoin("restored", "session-1");
+        roomService.applyJoin("restored", "session-2");
+        bind();
+        assertThat(roomsOfSize("2")).isEqualTo(1);
+
+        // when - the restored sessions never resume
+        roomService.removeUserFromAllRooms("session-1");
+        roomService.removeUserFromAllRooms("session-2");
+
+        // then
+        for (int bucket = 0; bucket < RoomSizeDistribution.UPPER_BOUNDS.length; bucket++) {
+            assertThat(roomsOfSize(RoomSizeDistribution.label(bucket))).isZero();
+        }
+    }
+
+    private double roomsOfSize(String participants) {
+        return registry.get("signaling.rooms.size").tag("participants", participants).gauge().value();
+    }
+
+    private void bind() {
+        OutboundDispatcher dispatcher = new OutboundDispatcher(Runnable::run, new SignalingProperties.Outbound());
+        new SignalingGauges(new SessionRegistry(dispatcher), roomService, dispatcher,
+                SessionResumption.disabled(), SessionHeartbeat.disabled(),
+                RoomJournal.disabled(), roomSizes).bindTo(registry);
+    }
+}
@@ -0,0 +1,79 @@
+package com.ssafy.webrtc.metrics;
+
+import com.ssafy.webrtc.config.SignalingProperties;
+import com.ssafy.webrtc.handler.OutboundDispatcher;
+import com.ssafy.webrtc.handler.OutboundQueue;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SignalingMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final SignalingMetrics metrics = new SignalingMetrics(registry);
+
+    @Test
+    @DisplayName("should count received messages per type and ignore types it doesn't know")
+    void messageReceived_shouldCountPerType() {
+        // when
+        metrics.messageReceived("offer");
+        metrics.messageReceived("offer");
+        metrics.messageReceived("join");
+        metrics.messageReceived("bogus");
+        metrics.messageReceived(null);
+
+        // then
+        assertThat(registry.get("signaling.messages.received").tag("type", "offer").counter().count()).isEqualTo(2);
+        assertThat(registry.get("signaling.messages.received").tag("type", "join").counter().count()).isEqualTo(1);
+        assertThat(registry.get("signaling.messages.received").counters()).hasSize(6);
+    }
+
+    @Test
+    @DisplayName("should count dropped messages per reason")
+    void messageDropped_shouldCountPerReason() {
+        // when
+        metrics.messageDropped(SignalingMetrics.DROP_UNKNOWN_TYPE);
+
+        // then
+        assertThat(registry.get("signaling.messages.dropped").tag("reason", "unknown-type").counter().count())
+                .isEqualTo(1);
+        assertThat(registry.get("signaling.messages.dropped").tag("reason", "missing-target").counter().count())
+                .isZero();
+    }
+
+    @Test
+    @DisplayName("should record relay latency once a measured frame has been written")
+    void relayLatency_shouldBeRecordedAfterWrite() {
+        // given
+        WebSocketSession session = mock(WebSocketSession.class);
+        when(session.isOpen()).thenReturn(true);
+        OutboundQueue queue = new OutboundDispatcher(Runnable::run, new SignalingProperties.Outbound(),
+                metrics::relayLatency).open(session);
+
+        // when
+        queue.enqueue(new TextMessage("relayed"), false, System.nanoTime());
+        queue.enqueue(new TextMessage("server generated"), false);
+
+        // then
+        assertThat(registry.get("signaling.relay.latency").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("should count connections by whether they negotiated permessage-deflate")
+    void sessionOpened_shouldCountByDeflate() {
+        // when
+        metrics.sessionOpened(true);
+        metrics.sessionOpened(true);
+        metrics.sessionOpened(false);
+
+        // then
+        assertThat(registry.get("signaling.compression.sessions").tag("deflate", "true").counter().count()).isEqualTo(2);
+        assertThat(registry.get("signaling.compression.sessions").tag("deflate", "false").counter().count()).isEqualTo(1);
+    }
+}
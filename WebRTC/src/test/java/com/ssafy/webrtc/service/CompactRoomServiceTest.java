@@ -0,0 +1,66 @@
+package com.ssafy.webrtc.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs every {@link RoomServiceTest} against the compact store, plus its snapshot semantics.
+ */
+class CompactRoomServiceTest extends RoomServiceTest {
+
+    @Override
+    RoomStore store() {
+        return RoomStore.COMPACT;
+    }
+
+    @Test
+    @DisplayName("should keep iterating the snapshot taken when iteration started")
+    void iterator_shouldWalkSnapshot() {
+        // given
+        MemberSet room = MemberSet.create(RoomStore.COMPACT);
+        room.join("a");
+        room.join("b");
+        room.join("c");
+        Iterator<String> iterator = room.iterator();
+
+        // when
+        room.leave("b");
+        room.join("d");
+        List<String> seen = new ArrayList<>();
+        iterator.forEachRemaining(seen::add);
+
+        // then
+        assertThat(seen).containsExactly("a", "b", "c");
+        assertThat(room).containsExactly("a", "c", "d");
+        assertThat(room.size()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("should reject duplicate joins, unknown leaves and writes through the view")
+    void joinLeave_shouldKeepSetSemantics() {
+        // given
+        MemberSet room = MemberSet.create(RoomStore.COMPACT);
+
+        // when
+        boolean first = room.join("a");
+        boolean duplicate = room.join("a");
+        boolean unknown = room.leave("b");
+
+        // then
+        assertThat(first).isTrue();
+        assertThat(duplicate).isFalse();
+        assertThat(unknown).isFalse();
+        assertThat(room.contains("a")).isTrue();
+        assertThat(room.contains(1)).isFalse();
+        assertThatThrownBy(() -> room.add("c")).isInstanceOf(UnsupportedOperationException.class);
+        assertThat(room.leave("a")).isTrue();
+        assertThat(room).isEmpty();
+    }
+}
@@ -0,0 +1,161 @@
+package com.ssafy.webrtc.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+class RoomJournalTest {
+
+    // Flushes are driven by the tests, the writer thread never gets to run
+    private static final Duration NEVER = Duration.ofHours(1);
+
+    @TempDir
+    Path dir;
+
+    private final List<RoomJournal> journals = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        journals.forEach(RoomJournal::stop);
+    }
+
+    @Test
+    @DisplayName("should restore rooms after a clean stop")
+    void recover_shouldRestoreRoomsAfterStop() throws Exception {
+        // given
+        RoomService rooms = new RoomService();
+        RoomJournal journal = open(1 << 16, 1024);
+        journal.recover();
+        journal.start(rooms);
+        rooms.joinRoom("room-1", "session-1");
+        rooms.joinRoom("room-1", "session-2");
+        rooms.joinRoom("room-2", "session-3");
+        rooms.leaveRoom("room-1", "session-1");
+        rooms.leaveRoom("room-2", "session-3");
+
+        // when
+        journal.stop();
+        Map<String, Set<String>> recovered = open(1 << 16, 1024).recover();
+
+        // then
+        assertThat(recovered).containsOnly(entry("room-1", Set.of("session-2")));
+    }
+
+    @Test
+    @DisplayName("should restore what was flushed when the process dies without stopping")
+    void recover_shouldRestoreFlushedEventsWithoutStop() throws Exception {
+        // given
+        RoomService rooms = new RoomService();
+        RoomJournal journal = open(1 << 16, 1024);
+        journal.recover();
+        journal.start(rooms);
+        rooms.joinRoom("room-1", "session-1");
+        journal.flush();
+
+        // when - a join still in the queue is lost with the process
+        rooms.joinRoom("room-1", "session-2");
+        Map<String, Set<String>> recovered = open(1 << 16, 1024).recover();
+
+        // then
+        assertThat(recovered).containsOnly(entry("room-1", Set.of("session-1")));
+    }
+
+    @Test
+    @DisplayName("should compact a full segment into a snapshot and keep only the newest generation")
+    void flush_shouldCompactFullSegment() throws Exception {
+        // given - room for a handful of records per segment
+        RoomService rooms = new RoomService();
+        RoomJournal journal = open(256, 1024);
+        journal.recover();
+        journal.start(rooms);
+
+        // when
+        for (int i = 0; i < 40; i++) {
+            rooms.joinRoom("room-" + i % 4, "session-" + i);
+            if (i % 3 == 0) {
+                rooms.leaveRoom("room-" + i % 4, "session-" + i);
+            }
+        }
+        journal.flush();
+
+        // then
+        assertThat(journal.getGeneration()).isGreaterThan(2);
+        assertThat(fileNames()).containsExactlyInAnyOrder(
+                String.format("log-%016d.bin", journal.getGeneration()),
+                String.format("snapshot-%016d.bin", journal.getGeneration()));
+        Map<String, Set<String>> recovered = open(256, 1024).recover();
+        assertThat(recovered).isEqualTo(rooms.getAllRooms());
+    }
+
+    @Test
+    @DisplayName("should stop replaying at a torn record")
+    void recover_shouldIgnoreTornTail() throws Exception {
+        // given
+        RoomService rooms = new RoomService();
+        RoomJournal journal = open(1 << 16, 1024);
+        journal.recover();
+        journal.start(rooms);
+        rooms.joinRoom("room-1", "session-1");
+        rooms.joinRoom("room-1", "session-2");
+        journal.stop();
+
+        // when - the last record's session ID got only half written
+        Path log = dir.resolve(String.format("log-%016d.bin", journal.getGeneration()));
+        try (RandomAccessFile file = new RandomAccessFile(log.toFile(), "rw")) {
+            int first = 6 + 1 + 2 + "room-1".length() + 2 + "session-1".length();
+            file.seek(first + 6 + 1 + 2 + "room-1".length() + 2 + 4);
+            file.write(0);
+        }
+        Map<String, Set<String>> recovered = open(1 << 16, 1024).recover();
+
+        // then
+        assertThat(recovered).containsOnly(entry("room-1", Set.of("session-1")));
+    }
+
+    @Test
+    @DisplayName("should cover events dropped by a full queue with the next snapshot")
+    void flush_shouldSnapshotAfterOverflow() throws Exception {
+        // given
+        RoomService rooms = new RoomService();
+        RoomJournal journal = open(1 << 16, 2);
+        journal.recover();
+        journal.start(rooms);
+
+        // when
+        for (int i = 0; i < 5; i++) {
+            rooms.joinRoom("room-1", "session-" + i);
+        }
+        journal.flush();
+
+        // then
+        assertThat(journal.getDroppedCount()).isEqualTo(3);
+        assertThat(open(1 << 16, 2).recover().get("room-1")).hasSize(5);
+    }
+
+    private RoomJournal open(int segmentBytes, int queueCapacity) {
+        RoomJournal journal = new RoomJournal(dir, segmentBytes, queueCapacity, NEVER, NEVER);
+        journals.add(journal);
+        return journal;
+    }
+
+    private List<String> fileNames() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.map(file -> file.getFileName().toString()).toList();
+        }
+    }
+}
@@ -4,7 +4,14 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -14,7 +21,11 @@ class RoomServiceTest {
 
     @BeforeEach
     void setUp() {
-        roomService = new RoomService();
+        roomService = new RoomService(store());
+    }
+
+    RoomStore store() {
+        return RoomStore.HASH;
     }
 
     @Test
@@ -129,6 +140,26 @@ class RoomServiceTest {
         assertThat(roomService.getRoomCount()).isEqualTo(3);
     }
 
+    @Test
+    @DisplayName("should keep room and participant counters and the ordered room index in step")
+    void counters_shouldFollowJoinAndLeave() {
+        // given
+        roomService.joinRoom("room-b", "session-1");
+        roomService.joinRoom("room-a", "session-2");
+        roomService.joinRoom("room-c", "session-3");
+        roomService.joinRoom("room-c", "session-4");
+
+        // when
+        roomService.leaveRoom("room-b", "session-1");
+        roomService.leaveRoom("room-c", "session-3");
+
+        // then
+        assertThat(roomService.getRoomCount()).isEqualTo(2);
+        assertThat(roomService.getParticipantCount("room-c")).isEqualTo(1);
+        assertThat(roomService.getRoomIdsAfter(null)).containsExactly("room-a", "room-c");
+        assertThat(roomService.getRoomIdsAfter("room-a")).containsExactly("room-c");
+    }
+
     @Test
     @DisplayName("should return zero for non-existent room participant count")
     void getParticipantCount_shouldReturnZeroForNonExistentRoom() {
@@ -153,4 +184,126 @@ class RoomServiceTest {
         // then
         assertThat(roomService.getParticipantCount(roomId)).isEqualTo(1);
     }
+
+    @Test
+    @DisplayName("should track the rooms a session has joined")
+    void getSessionRooms_shouldFollowJoinAndLeave() {
+        // given
+        roomService.joinRoom("room-1", "session-1");
+        roomService.joinRoom("room-2", "session-1");
+        roomService.joinRoom("room-2", "session-2");
+
+        // when
+        roomService.leaveRoom("room-1", "session-1");
+
+        // then
+        assertThat(roomService.getSessionRooms("session-1")).containsExactly("room-2");
+        assertThat(roomService.getSessionRooms("session-2")).containsExactly("room-2");
+        assertThat(roomService.getSessionRooms("unknown")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("should only touch the disconnected session's rooms and drop the ones left empty")
+    void removeUserFromAllRooms_shouldRemoveEmptyRoomsOnly() {
+        // given
+        roomService.joinRoom("room-1", "session-1");
+        roomService.joinRoom("room-2", "session-1");
+        roomService.joinRoom("room-2", "session-2");
+        roomService.joinRoom("room-3", "session-3");
+
+        // when
+        roomService.removeUserFromAllRooms("session-1");
+
+        // then
+        assertThat(roomService.getAllRooms()).containsOnlyKeys("room-2", "room-3");
+        assertThat(roomService.getRoomParticipants("room-2")).containsExactly("session-2");
+        assertThat(roomService.getSessionRooms("session-1")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("should not lose a join racing with the last participant leaving")
+    void joinAndLeave_concurrently_shouldKeepRoomConsistent() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int i = 0; i < 1_000; i++) {
+                // given
+                String roomId = "room-" + i;
+                roomService.joinRoom(roomId, "leaver");
+                CountDownLatch start = new CountDownLatch(1);
+
+                // when
+                var leave = executor.submit(() -> {
+                    start.await();
+                    roomService.leaveRoom(roomId, "leaver");
+                    return null;
+                });
+                var join = executor.submit(() -> {
+                    start.await();
+                    roomService.joinRoom(roomId, "joiner");
+                    return null;
+                });
+                start.countDown();
+                leave.get(5, TimeUnit.SECONDS);
+                join.get(5, TimeUnit.SECONDS);
+
+                // then
+                assertThat(roomService.getRoomParticipants(roomId)).containsExactly("joiner");
+                assertThat(roomService.getSessionRooms("joiner")).contains(roomId);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("should never admit more concurrent joiners than the room size limit")
+    void joinRoom_concurrently_shouldRespectMaxSize() throws Exception {
+        // given
+        RoomService limited = new RoomService(store(), 4);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> joins = new ArrayList<>();
+
+        // when
+        try {
+            for (int i = 0; i < 32; i++) {
+                String sessionId = "session-" + i;
+                joins.add(executor.submit(() -> {
+                    start.await();
+                    return limited.joinRoom("room-1", sessionId);
+                }));
+            }
+            start.countDown();
+            int admitted = 0;
+            for (Future<Boolean> join : joins) {
+                admitted += join.get(5, TimeUnit.SECONDS) ? 1 : 0;
+            }
+
+            // then
+            assertThat(admitted).isEqualTo(4);
+            assertThat(limited.getParticipantCount("room-1")).isEqualTo(4);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("should let members rejoin a full room and let replicated joins past the limit")
+    void joinRoom_fullRoom_shouldOnlyRefuseNewLocalJoiners() {
+        // given
+        RoomService limited = new RoomService(store(), 2);
+        limited.joinRoom("room-1", "session-1");
+        limited.joinRoom("room-1", "session-2");
+
+        // when
+        boolean newcomer = limited.joinRoom("room-1", "session-3");
+        boolean member = limited.joinRoom("room-1", "session-1");
+        limited.applyJoin("room-1", "remote-1");
+
+        // then
+        assertThat(newcomer).isFalse();
+        assertThat(member).isTrue();
+        assertThat(limited.getRoomParticipants("room-1")).containsExactlyInAnyOrder("session-1", "session-2", "remote-1");
+        assertThat(limited.getSessionRooms("session-3")).isEmpty();
+    }
 }